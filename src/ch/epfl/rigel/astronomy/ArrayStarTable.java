@@ -0,0 +1,101 @@
+package ch.epfl.rigel.astronomy;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A star table keeping every property of the stars in its own primitive array (structure of arrays),
+ * the stars themselves being only built on demand.
+ *
+ * @author Mounir Raki (310287)
+ */
+final class ArrayStarTable extends ColumnarStarTable {
+    private final double[] ra;
+    private final double[] dec;
+    private final float[] magnitude;
+    private final float[] colorIndex;
+    private final int[] colorTemperature;
+    private final int[] hipparcosId;
+    private final int[] nameOffsets;
+    private final ByteBuffer names;
+
+    /**
+     * Constructs a table containing the given stars.
+     *
+     * @param stars the stars of the table
+     */
+    ArrayStarTable(List<Star> stars){
+        int n = stars.size();
+        ra = new double[n];
+        dec = new double[n];
+        magnitude = new float[n];
+        colorIndex = new float[n];
+        colorTemperature = new int[n];
+        hipparcosId = new int[n];
+        nameOffsets = new int[n + 1];
+
+        byte[][] starNames = new byte[n][];
+        for(int i = 0; i < n; ++i){
+            Star s = stars.get(i);
+            ra[i] = s.equatorialPos().ra();
+            dec[i] = s.equatorialPos().dec();
+            magnitude[i] = (float) s.magnitude();
+            colorIndex[i] = s.colorIndex();
+            colorTemperature[i] = s.colorTemperature();
+            hipparcosId[i] = s.hipparcosId();
+            starNames[i] = s.name().getBytes(UTF_8);
+            nameOffsets[i + 1] = nameOffsets[i] + starNames[i].length;
+        }
+
+        names = ByteBuffer.allocate(nameOffsets[n]);
+        for(byte[] name : starNames)
+            names.put(name);
+    }
+
+    @Override
+    public int size() {
+        return ra.length;
+    }
+
+    @Override
+    public double ra(int index) {
+        return ra[index];
+    }
+
+    @Override
+    public double dec(int index) {
+        return dec[index];
+    }
+
+    @Override
+    public float magnitude(int index) {
+        return magnitude[index];
+    }
+
+    @Override
+    public int colorTemperature(int index) {
+        return colorTemperature[index];
+    }
+
+    @Override
+    public int hipparcosId(int index) {
+        return hipparcosId[index];
+    }
+
+    @Override
+    float colorIndex(int index) {
+        return colorIndex[index];
+    }
+
+    @Override
+    int nameOffset(int index) {
+        return nameOffsets[index];
+    }
+
+    @Override
+    ByteBuffer names() {
+        return names;
+    }
+}
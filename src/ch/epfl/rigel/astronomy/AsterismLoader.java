@@ -5,9 +5,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
 
@@ -34,20 +32,17 @@ public enum AsterismLoader implements StarCatalogue.Loader{
     public void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
         try(BufferedReader r = new BufferedReader(new InputStreamReader(inputStream, US_ASCII))){
             String line;
-            Map<Integer, Star> hipparcosStarMap = new HashMap<>();
-
-            for(Star s : builder.stars()){
-                hipparcosStarMap.put(s.hipparcosId(), s);
-            }
+            List<Star> builderStars = builder.stars();
 
             while((line = r.readLine()) != null) {
                 String[] strArray = line.split(",");
                 List<Star> stars = new ArrayList<>();
 
                 for(String hipId : strArray){
-                    int hipparcosId = Integer.parseInt(hipId);
-                    Star s = hipparcosStarMap.get(hipparcosId);
-                    stars.add(s);
+                    int index = builder.indexOfHipparcosId(Integer.parseInt(hipId));
+                    if(index < 0)
+                        throw new IOException("No star has the Hipparcos ID " + hipId + ".");
+                    stars.add(builderStars.get(index));
                 }
 
                 builder.addAsterism(new Asterism(stars));
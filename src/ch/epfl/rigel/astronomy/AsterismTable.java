@@ -0,0 +1,148 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.Preconditions;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * The indices of the stars of a set of asterisms, kept in compressed sparse rows: the indices of the stars
+ * of all asterisms follow each other in a single array, and a second array gives where the stars of each asterism start.
+ * The asterisms are numbered from 0, and their stars can be accessed by number without any boxing.
+ *
+ * @author Mounir Raki (310287)
+ */
+final class AsterismTable {
+    private final List<Asterism> asterisms;
+    private final Map<Asterism, Integer> numbers;
+    private final int[] offsets;
+    private final int[] starIndices;
+
+    private AsterismTable(List<Asterism> asterisms, Map<Asterism, Integer> numbers, int[] offsets, int[] starIndices){
+        this.asterisms = asterisms;
+        this.numbers = numbers;
+        this.offsets = offsets;
+        this.starIndices = starIndices;
+    }
+
+    /**
+     * Builds the table of the given asterisms, whose stars are given an index by the given function.
+     * An asterism appearing more than once is only kept once.
+     *
+     * @param asterisms the asterisms, in the order in which they are numbered
+     * @param starIndex the function giving the index of each star, or -1 if it is unknown
+     * @throws IllegalArgumentException if the star index of one of the stars of the asterisms is unknown
+     * @return the table of the given asterisms
+     */
+    static AsterismTable of(List<Asterism> asterisms, ToIntFunction<Star> starIndex){
+        Map<Asterism, Integer> numbers = new HashMap<>();
+        List<Asterism> distinctAsterisms = new ArrayList<>();
+        int starCount = 0;
+        for(Asterism asterism : asterisms){
+            if(numbers.putIfAbsent(asterism, distinctAsterisms.size()) == null){
+                distinctAsterisms.add(asterism);
+                starCount += asterism.stars().size();
+            }
+        }
+
+        int[] offsets = new int[distinctAsterisms.size() + 1];
+        int[] starIndices = new int[starCount];
+        for(int a = 0; a < distinctAsterisms.size(); ++a){
+            int offset = offsets[a];
+            for(Star star : distinctAsterisms.get(a).stars()){
+                int index = starIndex.applyAsInt(star);
+                Preconditions.checkArgument(index >= 0);
+                starIndices[offset++] = index;
+            }
+            offsets[a + 1] = offset;
+        }
+
+        return new AsterismTable(List.copyOf(distinctAsterisms), Map.copyOf(numbers), offsets, starIndices);
+    }
+
+    /**
+     * Returns a table of the same asterisms whose star indices are replaced by their position in the given array.
+     *
+     * @param indices the star indices, in increasing order, which must contain every star index of the table
+     * @return a table of the same asterisms whose star indices are replaced by their position in the given array
+     */
+    AsterismTable remapped(int[] indices){
+        int[] remapped = new int[starIndices.length];
+        for(int i = 0; i < starIndices.length; ++i)
+            remapped[i] = Arrays.binarySearch(indices, starIndices[i]);
+        return new AsterismTable(asterisms, numbers, offsets, remapped);
+    }
+
+    /**
+     * Returns the number of asterisms in the table.
+     *
+     * @return the number of asterisms in the table
+     */
+    int count(){
+        return asterisms.size();
+    }
+
+    /**
+     * Returns the asterism having the given number.
+     *
+     * @param asterism the number of the asterism
+     * @return the asterism having the given number
+     */
+    Asterism asterism(int asterism){
+        return asterisms.get(asterism);
+    }
+
+    /**
+     * Returns the number of stars of the asterism having the given number.
+     *
+     * @param asterism the number of the asterism
+     * @return the number of stars of the asterism
+     */
+    int size(int asterism){
+        return offsets[asterism + 1] - offsets[asterism];
+    }
+
+    /**
+     * Returns the index of the star at the given position in the asterism having the given number.
+     *
+     * @param asterism the number of the asterism
+     * @param position the position of the star in the asterism
+     * @throws IndexOutOfBoundsException if the position is not the one of a star of the asterism
+     * @return the index of the star
+     */
+    int starIndex(int asterism, int position){
+        return starIndices[offsets[asterism] + Objects.checkIndex(position, size(asterism))];
+    }
+
+    /**
+     * Returns the set of asterisms of the table.
+     *
+     * @return the set of asterisms of the table
+     */
+    Set<Asterism> asterisms(){
+        return numbers.keySet();
+    }
+
+    /**
+     * Returns the list of star indices of the given asterism.
+     *
+     * @param asterism the asterism
+     * @throws IllegalArgumentException if the asterism is not in the table
+     * @return the list of star indices of the given asterism
+     */
+    List<Integer> indices(Asterism asterism){
+        Integer number = numbers.get(asterism);
+        Preconditions.checkArgument(number != null);
+        return Arrays.stream(starIndices, offsets[number], offsets[number + 1]).boxed().collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Returns the distinct star indices of the table, in increasing order.
+     *
+     * @return the distinct star indices of the table
+     */
+    int[] distinctStarIndices(){
+        return Arrays.stream(starIndices).distinct().sorted().toArray();
+    }
+}
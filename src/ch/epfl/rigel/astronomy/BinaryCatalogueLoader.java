@@ -0,0 +1,215 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Loader for the binary star catalogue format, a columnar image of a HYG catalogue
+ * that can be read without any text parsing.
+ *
+ * The columns are not copied: the stars are read from them by a table handed to the builder, which a builder
+ * without any other star keeps as the table of its catalogue. Loading a mapped catalogue then only checks the
+ * offsets of the names (one int per star), and the stars are built when they are accessed, which is also when
+ * their coordinates and color indices are checked. A builder which already has stars adds those of the catalogue after
+ * them, copying the columns into its own buffers if it uses the OFF_HEAP storage, so that the stars are never held
+ * as objects.
+ *
+ * The file starts with a header made of a magic number, the number of stars n and the size of the names block,
+ * followed by the columns: n right ascensions and n declinations (doubles), n magnitudes and n color indices (floats),
+ * n Hipparcos IDs and n + 1 offsets into the names block (ints), and finally the names block itself (UTF-8).
+ *
+ * @author Mounir Raki (310287)
+ */
+public enum BinaryCatalogueLoader implements StarCatalogue.Loader {
+    INSTANCE;
+
+    private final static int MAGIC = 0x52474C31;
+    private final static int HEADER_BYTES = 3 * Integer.BYTES;
+    private final static int BYTES_PER_STAR = 2 * Double.BYTES + 2 * Float.BYTES + 2 * Integer.BYTES;
+
+    /**
+     * Loads a binary star catalogue from an input stream, and adds its stars to the builder.
+     * The catalogue is read straight into a direct buffer, outside of the Java heap, whose size is given by
+     * the header, and which is then read as a mapped file would be.
+     *
+     * @param inputStream
+     *          the content of the file to read, obtained by an InputStream
+     * @param builder
+     *          the type of builder, used to build the list of stars
+     * @throws IOException
+     *          if the stream cannot be read or does not contain a binary star catalogue
+     */
+    @Override
+    public void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
+        ReadableByteChannel channel = Channels.newChannel(inputStream);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header);
+        if(header.getInt(0) != MAGIC)
+            throw new IOException("The data is not a binary star catalogue.");
+
+        int n = header.getInt(Integer.BYTES);
+        int namesLength = header.getInt(2 * Integer.BYTES);
+        long size = HEADER_BYTES + (long) n * BYTES_PER_STAR + Integer.BYTES + namesLength;
+        if(n < 0 || namesLength < 0)
+            throw new IOException("The binary star catalogue is truncated or corrupted.");
+        if(size > Integer.MAX_VALUE)
+            throw new IOException("The binary star catalogue is too large.");
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+        header.flip();
+        buffer.put(header);
+        readFully(channel, buffer);
+        if(inputStream.read() != -1)
+            throw new IOException("The binary star catalogue is truncated or corrupted.");
+        load(buffer, builder);
+    }
+
+    /**
+     * Loads a binary star catalogue by memory-mapping the given file, and adds its stars to the builder.
+     *
+     * @param path
+     *          the path of the binary catalogue
+     * @param builder
+     *          the type of builder, used to build the list of stars
+     * @throws IOException
+     *          if the file cannot be mapped or does not contain a binary star catalogue
+     */
+    @Override
+    public void load(Path path, StarCatalogue.Builder builder) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new IOException("The binary star catalogue is too large.");
+            load(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), builder);
+        }
+    }
+
+    /**
+     * Writes the given stars in the binary star catalogue format.
+     *
+     * @param stars
+     *          the stars to write, in catalogue order
+     * @param outputStream
+     *          the stream to which the catalogue is written
+     * @throws IOException
+     *          if the stream cannot be written
+     */
+    public static void write(List<Star> stars, OutputStream outputStream) throws IOException {
+        int n = stars.size();
+        byte[][] names = new byte[n][];
+        int namesLength = 0;
+        for(int i = 0; i < n; ++i){
+            names[i] = stars.get(i).name().getBytes(UTF_8);
+            namesLength += names[i].length;
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeInt(MAGIC);
+        out.writeInt(n);
+        out.writeInt(namesLength);
+        for(Star s : stars)
+            out.writeDouble(s.equatorialPos().ra());
+        for(Star s : stars)
+            out.writeDouble(s.equatorialPos().dec());
+        for(Star s : stars)
+            out.writeFloat((float) s.magnitude());
+        for(Star s : stars)
+            out.writeFloat(s.colorIndex());
+        for(Star s : stars)
+            out.writeInt(s.hipparcosId());
+
+        int offset = 0;
+        out.writeInt(offset);
+        for(byte[] name : names){
+            offset += name.length;
+            out.writeInt(offset);
+        }
+        for(byte[] name : names)
+            out.write(name);
+        out.flush();
+    }
+
+    /**
+     * Converts a HYG catalogue (CSV file) into a binary star catalogue, whose stars are sorted by magnitude as they
+     * are by Main, so that they do not have to be sorted again once mapped.
+     *
+     * @param args
+     *          the path of the HYG catalogue, followed by the path of the binary catalogue to write
+     * @throws IOException
+     *          if one of the files cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length != 2){
+            System.err.println("Usage: BinaryCatalogueLoader <hyg csv file> <binary output file>");
+            return;
+        }
+
+        StarCatalogue.Builder builder = new StarCatalogue.Builder()
+                .loadFrom(Paths.get(args[0]), HygDatabaseLoader.INSTANCE)
+                .sortByMagnitude();
+        try(OutputStream out = Files.newOutputStream(Paths.get(args[1]))){
+            write(builder.stars(), out);
+        }
+    }
+
+    private void load(ByteBuffer buffer, StarCatalogue.Builder builder) throws IOException {
+        if(buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+            throw new IOException("The data is not a binary star catalogue.");
+
+        int n = buffer.getInt(Integer.BYTES);
+        int namesLength = buffer.getInt(2 * Integer.BYTES);
+        long raOffset = HEADER_BYTES;
+        long decOffset = raOffset + (long) n * Double.BYTES;
+        long magOffset = decOffset + (long) n * Double.BYTES;
+        long ciOffset = magOffset + (long) n * Float.BYTES;
+        long hipOffset = ciOffset + (long) n * Float.BYTES;
+        long nameOffsetsOffset = hipOffset + (long) n * Integer.BYTES;
+        long namesOffset = nameOffsetsOffset + (n + 1L) * Integer.BYTES;
+        if(n < 0 || namesLength < 0 || buffer.capacity() != namesOffset + namesLength)
+            throw new IOException("The binary star catalogue is truncated or corrupted.");
+
+        // The names are only decoded when their star is built, so that their offsets are checked beforehand.
+        IntBuffer nameOffsets = column(buffer, nameOffsetsOffset, (n + 1L) * Integer.BYTES).asIntBuffer();
+        if(nameOffsets.get(0) != 0 || nameOffsets.get(n) != namesLength)
+            throw new IOException("The names of the binary star catalogue are corrupted.");
+        for(int i = 0; i < n; ++i){
+            if(nameOffsets.get(i) > nameOffsets.get(i + 1))
+                throw new IOException("The names of the binary star catalogue are corrupted.");
+        }
+
+        builder.addTable(new MappedStarTable(n,
+                column(buffer, raOffset, (long) n * Double.BYTES).asDoubleBuffer(),
+                column(buffer, decOffset, (long) n * Double.BYTES).asDoubleBuffer(),
+                column(buffer, magOffset, (long) n * Float.BYTES).asFloatBuffer(),
+                column(buffer, ciOffset, (long) n * Float.BYTES).asFloatBuffer(),
+                column(buffer, hipOffset, (long) n * Integer.BYTES).asIntBuffer(),
+                nameOffsets,
+                column(buffer, namesOffset, namesLength)));
+    }
+
+    // Fills the remaining part of the given buffer from the channel.
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()){
+            if(channel.read(buffer) < 0)
+                throw new EOFException("The binary star catalogue is truncated.");
+        }
+    }
+
+    // The part of the buffer of the given offset and length, which lies within the buffer.
+    private static ByteBuffer column(ByteBuffer buffer, long offset, long length){
+        ByteBuffer column = buffer.duplicate();
+        column.position(Math.toIntExact(offset));
+        column.limit(Math.toIntExact(offset + length));
+        return column.slice();
+    }
+}
@@ -2,6 +2,8 @@ package ch.epfl.rigel.astronomy;
 
 import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
 
+import java.util.Objects;
+
 /**
  * A model of a celestial object.
  *
@@ -9,7 +11,7 @@ import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
  *
  * @param <O> The type of the celestial object to model
  */
-public interface CelestialObjectModel<O> {
+public interface CelestialObjectModel<O extends CelestialObject> {
     /**
      * Models a new CelestialObject for the number (can be negative) of days after given epoch J2010.
      *
@@ -18,4 +20,52 @@ public interface CelestialObjectModel<O> {
      * @return Modelised object by the model for the number of days after epoch J2010
      */
     public abstract O at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion);
+
+    /**
+     * Models the object for the instants of indices from (inclusive) to to (exclusive) of the given array, each given
+     * by its number of days after the epoch J2010, and writes its equatorial position, angular size and magnitude at
+     * the same indices of the output arrays. An output array may be null, in which case its value is not written.
+     *
+     * The values written are exactly those of the object given by at, for the conversion from ecliptic to equatorial
+     * coordinates at the same instant, rounded to the millisecond as by EclipticToEquatorialConversion. The instants
+     * are independent of each other, so that disjoint ranges of indices can be modelled at the same time by several
+     * threads into the same arrays.
+     *
+     * This default implementation builds the object of every instant. The models of the Sun, the Moon and the planets
+     * override it to write their values without building any object for each instant.
+     *
+     * @param daysSinceJ2010 The numbers of days after the epoch J2010 of the instants
+     * @param from The index of the first instant to model
+     * @param to The index following the last instant to model
+     * @param ra The array in which the right ascensions (in radians) are written, or null
+     * @param dec The array in which the declinations (in radians) are written, or null
+     * @param angularSize The array in which the angular sizes (in radians) are written, or null
+     * @param magnitude The array in which the magnitudes are written, or null
+     * @throws IndexOutOfBoundsException if the range of indices is not part of one of the arrays
+     */
+    public default void atAll(double[] daysSinceJ2010, int from, int to,
+                              double[] ra, double[] dec, double[] angularSize, double[] magnitude){
+        Objects.checkFromToIndex(from, to, daysSinceJ2010.length);
+        if(ra != null)
+            Objects.checkFromToIndex(from, to, ra.length);
+        if(dec != null)
+            Objects.checkFromToIndex(from, to, dec.length);
+        if(angularSize != null)
+            Objects.checkFromToIndex(from, to, angularSize.length);
+        if(magnitude != null)
+            Objects.checkFromToIndex(from, to, magnitude.length);
+
+        for(int i = from; i < to; ++i){
+            double julianCenturies = Epoch.julianCenturiesSinceJ2000(daysSinceJ2010[i]);
+            O object = at(daysSinceJ2010[i], EclipticToEquatorialConversion.ofJulianCenturies(julianCenturies));
+            if(ra != null)
+                ra[i] = object.equatorialPos().ra();
+            if(dec != null)
+                dec[i] = object.equatorialPos().dec();
+            if(angularSize != null)
+                angularSize[i] = object.angularSize();
+            if(magnitude != null)
+                magnitude[i] = object.magnitude();
+        }
+    }
 }
@@ -0,0 +1,70 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A star table keeping every property of the stars in its own column, whatever the way the columns are stored,
+ * the stars themselves being built from the columns on every access and never kept.
+ *
+ * @author Mounir Raki (310287)
+ */
+abstract class ColumnarStarTable implements StarTable {
+
+    /**
+     * Returns the color index of the star at the given index.
+     *
+     * @param index the index of the star
+     * @return the color index of the star
+     */
+    abstract float colorIndex(int index);
+
+    /**
+     * Returns the offset in the names of the name of the star at the given index, which ends at the offset of the
+     * name of the next star. The offset at the size of the table is the length of the names.
+     *
+     * @param index the index of the star, which may be the size of the table
+     * @return the offset of the name of the star
+     */
+    abstract int nameOffset(int index);
+
+    /**
+     * Returns the names of all the stars, encoded in UTF-8 and laid end to end. The position and limit of the buffer
+     * are not used.
+     *
+     * @return the names of all the stars
+     */
+    abstract ByteBuffer names();
+
+    /**
+     * Returns the star at the given index, built from the columns on every call.
+     *
+     * @param index the index of the star
+     * @throws IndexOutOfBoundsException if the index is not the one of a star of the table
+     * @throws IllegalArgumentException if the coordinates or the color index of the star are invalid
+     * @return a new instance of the star at the given index
+     */
+    @Override
+    public final Star star(int index) {
+        Objects.checkIndex(index, size());
+        return new Star(hipparcosId(index), name(index), EquatorialCoordinates.of(ra(index), dec(index)),
+                magnitude(index), colorIndex(index));
+    }
+
+    /**
+     * Returns the name of the star at the given index, decoded from the names.
+     *
+     * @param index the index of the star
+     * @return the name of the star
+     */
+    final String name(int index) {
+        ByteBuffer name = names().duplicate();
+        name.limit(nameOffset(index + 1));
+        name.position(nameOffset(index));
+        return UTF_8.decode(name).toString();
+    }
+}
@@ -0,0 +1,275 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.math.Angle;
+
+import java.nio.DoubleBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+/**
+ * A cache of the positions, angular sizes and magnitudes given by a model of a celestial object, approximated by
+ * piecewise polynomials.
+ *
+ * Time is divided into segments of equal length. On the first lookup in a segment, the model is evaluated at the
+ * Chebyshev nodes of the segment, and each quantity is interpolated by a polynomial of the given degree: the three
+ * components of the unit vector of the equatorial position (so that the right ascension never wraps around), the
+ * angular size and the brightness 10^(-0.4 m), m being the magnitude (which, unlike the magnitude, stays smooth
+ * when the lit part of a planet vanishes). The polynomials are kept in the Chebyshev basis of the segment, and a
+ * lookup evaluates the five of them by the Clenshaw recurrence, which, unlike the power basis, stays well conditioned
+ * whatever the degree. The least recently used segments are evicted once the cache is full.
+ *
+ * The accuracy depends on how fast the object moves. With polynomials of degree 12, segments of a day keep the Moon
+ * within 1e-6 radians of its model, whose own rounding errors are of this order, and segments of 8 days keep the Sun
+ * and the planets within 1e-9 radians. The angular sizes are then within the precision of a float, as are the
+ * magnitudes of the planets while they are visible.
+ *
+ * @author Mounir Raki (310287)
+ */
+public final class EphemerisCache {
+    /**
+     * The number of quantities interpolated on each segment.
+     */
+    final static int QUANTITY_COUNT = 5;
+    /**
+     * The maximal degree of the polynomials, in the cache as in the tables.
+     */
+    final static int MAX_DEGREE = 20;
+
+    private final CelestialObjectModel<?> model;
+    private final double segmentDays;
+    private final int degree;
+    private final double[] nodes;
+    private final double[][] interpolation;
+    private final Map<Long, DoubleBuffer> segments;
+    private long computedSegmentCount;
+
+    private EphemerisCache(CelestialObjectModel<?> model, double segmentDays, int degree, int capacity){
+        this.model = model;
+        this.segmentDays = segmentDays;
+        this.degree = degree;
+        this.nodes = chebyshevNodes(degree);
+        this.interpolation = interpolation(nodes);
+        this.segments = new LinkedHashMap<>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, DoubleBuffer> eldest){
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Constructs an empty cache of the given model.
+     *
+     * @param model The model of the celestial object
+     * @param segmentDays The length of the segments (in days, strictly positive)
+     * @param degree The degree of the polynomials (between 1 and MAX_DEGREE)
+     * @param capacity The maximal number of segments kept in the cache (strictly positive)
+     * @throws IllegalArgumentException if one of the parameters is not in its interval
+     * @return a new cache of the model
+     */
+    public static EphemerisCache of(CelestialObjectModel<?> model, double segmentDays, int degree, int capacity){
+        Objects.requireNonNull(model);
+        checkArgument(segmentDays > 0 && Double.isFinite(segmentDays));
+        checkArgument(1 <= degree && degree <= MAX_DEGREE);
+        checkArgument(capacity > 0);
+        return new EphemerisCache(model, segmentDays, degree, capacity);
+    }
+
+    /**
+     * Approximates the right ascension, the declination, the angular size and the magnitude of the object for the
+     * number (can be negative) of days after the epoch J2010, and writes them in this order in the given array.
+     *
+     * @param daysSinceJ2010 Number of days after the epoch J2010
+     * @param values The array in which the four values are written
+     * @param offset The index in the array of the first value
+     * @throws IllegalArgumentException if the number of days is not finite
+     */
+    public void at(double daysSinceJ2010, double[] values, int offset){
+        checkArgument(Double.isFinite(daysSinceJ2010));
+        double segmentIndex = Math.floor(daysSinceJ2010 / segmentDays);
+        DoubleBuffer coefficients = segment((long) segmentIndex);
+        double t = 2 * (daysSinceJ2010 / segmentDays - segmentIndex) - 1;
+        evaluate(coefficients, 0, degree, t, values, offset);
+    }
+
+    /**
+     * Returns the number of segments which had to be computed from the model since the creation of the cache,
+     * including those which were evicted and computed again.
+     *
+     * @return the number of segments computed from the model
+     */
+    public synchronized long computedSegmentCount(){
+        return computedSegmentCount;
+    }
+
+    /**
+     * Returns the number of segments currently kept in the cache.
+     *
+     * @return the number of segments in the cache
+     */
+    public synchronized int cachedSegmentCount(){
+        return segments.size();
+    }
+
+    /**
+     * Returns the coefficients of the polynomials of the segment of given index, computing them if they are not in
+     * the cache. The segment of index i starts i segment lengths after the epoch J2010. The buffer is shared, and
+     * read-only.
+     *
+     * @param index The index of the segment
+     * @return The coefficients of the polynomials of the segment, as computed by coefficients
+     */
+    synchronized DoubleBuffer segment(long index){
+        DoubleBuffer coefficients = segments.get(index);
+        if(coefficients == null){
+            coefficients = DoubleBuffer.wrap(coefficients(model, index * segmentDays, segmentDays, nodes, interpolation))
+                    .asReadOnlyBuffer();
+            segments.put(index, coefficients);
+            ++computedSegmentCount;
+        }
+        return coefficients;
+    }
+
+    /**
+     * Computes the coefficients of the polynomials interpolating the model on the given segment. The polynomials of
+     * the QUANTITY_COUNT quantities follow each other, each given by its degree + 1 coefficients in the basis of the
+     * Chebyshev polynomials of the variable t, going from -1 at the start of the segment to 1 at its end, lowest
+     * degree first.
+     *
+     * @param model The model of the celestial object
+     * @param start The start of the segment (in days after the epoch J2010)
+     * @param length The length of the segment (in days)
+     * @param nodes The Chebyshev nodes of the degree, given by chebyshevNodes
+     * @param interpolation The interpolation matrix of the nodes, given by interpolation
+     * @return The coefficients of the polynomials of the segment
+     */
+    static double[] coefficients(CelestialObjectModel<?> model, double start, double length,
+                                 double[] nodes, double[][] interpolation){
+        int n = nodes.length;
+        double[] days = new double[n];
+        for(int k = 0; k < n; ++k)
+            days[k] = start + (nodes[k] + 1) / 2 * length;
+
+        double[] ra = new double[n], dec = new double[n], angularSize = new double[n], magnitude = new double[n];
+        model.atAll(days, 0, n, ra, dec, angularSize, magnitude);
+
+        double[][] values = new double[QUANTITY_COUNT][n];
+        for(int k = 0; k < n; ++k){
+            double cosDec = Math.cos(dec[k]);
+            values[0][k] = cosDec * Math.cos(ra[k]);
+            values[1][k] = cosDec * Math.sin(ra[k]);
+            values[2][k] = Math.sin(dec[k]);
+            values[3][k] = angularSize[k];
+            values[4][k] = Math.pow(10, -0.4 * magnitude[k]);
+        }
+
+        double[] coefficients = new double[QUANTITY_COUNT * n];
+        for(int q = 0; q < QUANTITY_COUNT; ++q){
+            for(int m = 0; m < n; ++m){
+                double coefficient = 0;
+                for(int k = 0; k < n; ++k)
+                    coefficient += interpolation[m][k] * values[q][k];
+                coefficients[q*n + m] = coefficient;
+            }
+        }
+        return coefficients;
+    }
+
+    /**
+     * Evaluates the polynomials of a segment at the given value of its variable, and writes the right ascension,
+     * the declination, the angular size and the magnitude in this order in the given array.
+     *
+     * @param coefficients The buffer containing the coefficients of the polynomials, as computed by coefficients
+     * @param from The index in the buffer of the first coefficient of the segment
+     * @param degree The degree of the polynomials
+     * @param t The variable of the segment, between -1 and 1
+     * @param values The array in which the four values are written
+     * @param offset The index in the array of the first value
+     */
+    static void evaluate(DoubleBuffer coefficients, int from, int degree, double t, double[] values, int offset){
+        int n = degree + 1;
+        values(clenshaw(coefficients, from, n, t),
+                clenshaw(coefficients, from + n, n, t),
+                clenshaw(coefficients, from + 2*n, n, t),
+                clenshaw(coefficients, from + 3*n, n, t),
+                clenshaw(coefficients, from + 4*n, n, t),
+                values, offset);
+    }
+
+    /**
+     * Converts the values of the interpolated quantities into the right ascension, the declination, the angular size
+     * and the magnitude, and writes them in this order in the given array.
+     *
+     * @param x The first component of the unit vector of the equatorial position
+     * @param y The second component of the unit vector of the equatorial position
+     * @param z The third component of the unit vector of the equatorial position
+     * @param angularSize The angular size
+     * @param brightness The brightness
+     * @param values The array in which the four values are written
+     * @param offset The index in the array of the first value
+     */
+    static void values(double x, double y, double z, double angularSize, double brightness, double[] values, int offset){
+        values[offset] = Angle.normalizePositive(Math.atan2(y, x));
+        values[offset + 1] = Math.atan2(z, Math.sqrt(x*x + y*y));
+        values[offset + 2] = angularSize;
+        // The brightness of a planet which is barely lit may be interpolated by a small negative value.
+        values[offset + 3] = -2.5 * Math.log10(Math.max(brightness, Double.MIN_NORMAL));
+    }
+
+    /**
+     * Returns the Chebyshev nodes of the given degree, the degree + 1 roots of the Chebyshev polynomial of the first
+     * kind of degree + 1, in decreasing order.
+     *
+     * @param degree The degree of the interpolating polynomials
+     * @return The Chebyshev nodes, between -1 and 1
+     */
+    static double[] chebyshevNodes(int degree){
+        int n = degree + 1;
+        double[] nodes = new double[n];
+        for(int k = 0; k < n; ++k)
+            nodes[k] = Math.cos(Math.PI * (k + 0.5) / n);
+        return nodes;
+    }
+
+    /**
+     * Returns the matrix giving the coefficients in the basis of the Chebyshev polynomials, lowest degree first, of
+     * the polynomial taking the given values at the Chebyshev nodes: the coefficient of row j is the product of the
+     * row by the values.
+     *
+     * @param nodes The Chebyshev nodes, given by chebyshevNodes
+     * @return The interpolation matrix
+     */
+    static double[][] interpolation(double[] nodes){
+        int n = nodes.length;
+        double[][] matrix = new double[n][n];
+        for(int j = 0; j < n; ++j){
+            for(int k = 0; k < n; ++k)
+                matrix[j][k] = (j == 0 ? 1.0 : 2.0) / n * Math.cos(Math.PI * j * (k + 0.5) / n);
+        }
+        return matrix;
+    }
+
+    /**
+     * Evaluates the polynomial of given coefficients in the basis of the Chebyshev polynomials, lowest degree first,
+     * at the given value, by the Clenshaw recurrence. The buffer is only read at absolute indices, so that it can be
+     * read by several threads at the same time.
+     *
+     * @param coefficients The buffer containing the coefficients
+     * @param from The index in the buffer of the first coefficient
+     * @param n The number of coefficients (the degree of the polynomial plus one)
+     * @param t The value, between -1 and 1
+     * @return The value of the polynomial
+     */
+    static double clenshaw(DoubleBuffer coefficients, int from, int n, double t){
+        double next = 0, afterNext = 0;
+        for(int j = from + n - 1; j > from; --j){
+            double current = coefficients.get(j) + 2*t*next - afterNext;
+            afterNext = next;
+            next = current;
+        }
+        return coefficients.get(from) + t*next - afterNext;
+    }
+}
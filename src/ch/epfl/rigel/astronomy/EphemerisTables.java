@@ -0,0 +1,222 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+/**
+ * Precomputed tables of the positions, angular sizes and magnitudes of the Sun, the Moon and the seven planets other
+ * than the Earth, read from a memory-mapped file.
+ *
+ * The tables contain, for every object, the coefficients of the polynomials of the segments of an EphemerisCache
+ * covering a range of time, computed once by write. Read by open, they give the same values as such a cache, without
+ * evaluating any model: the file is only mapped, and its pages are shared by all the processes mapping it.
+ *
+ * The file starts with a header made of a magic number and the number of objects, followed by an entry for every
+ * object (in the order of MODELS): the length of its segments (double), the index of its first segment (long),
+ * its number of segments and the degree of its polynomials (ints). The coefficients of the segments (doubles)
+ * follow, object after object and segment after segment, each segment laid out as by EphemerisCache.
+ *
+ * @author Mounir Raki (310287)
+ */
+public final class EphemerisTables {
+    /**
+     * The models of the objects of the tables, in the order of the file.
+     */
+    public final static List<CelestialObjectModel<?>> MODELS = List.of(
+            SunModel.SUN, MoonModel.MOON,
+            PlanetModel.MERCURY, PlanetModel.VENUS, PlanetModel.MARS,
+            PlanetModel.JUPITER, PlanetModel.SATURN, PlanetModel.URANUS, PlanetModel.NEPTUNE);
+
+    // The lengths of the segments of the objects (in days), for which polynomials of degree 12 keep the objects within
+    // 1e-9 radians of their models (1e-6 radians for the Moon, as its model is not more precise).
+    private final static double[] SEGMENT_DAYS = {32, 4, 8, 16, 32, 32, 32, 32, 32};
+    private final static int DEGREE = 12;
+
+    private final static int MAGIC = 0x52474C33;
+    private final static int HEADER_BYTES = 2 * Integer.BYTES;
+    private final static int ENTRY_BYTES = Double.BYTES + Long.BYTES + 2 * Integer.BYTES;
+
+    private final DoubleBuffer coefficients;
+    private final double[] segmentDays = new double[MODELS.size()];
+    private final long[] firstSegment = new long[MODELS.size()];
+    private final int[] segmentCount = new int[MODELS.size()];
+    private final int[] degree = new int[MODELS.size()];
+    private final long[] position = new long[MODELS.size()];
+
+    private EphemerisTables(ByteBuffer buffer) throws IOException {
+        if(buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != MODELS.size())
+            throw new IOException("The data is not a table of ephemerides.");
+
+        long next = HEADER_BYTES + (long) MODELS.size() * ENTRY_BYTES;
+        for(int b = 0; b < MODELS.size(); ++b){
+            int entry = HEADER_BYTES + b * ENTRY_BYTES;
+            segmentDays[b] = buffer.getDouble(entry);
+            firstSegment[b] = buffer.getLong(entry + Double.BYTES);
+            segmentCount[b] = buffer.getInt(entry + Double.BYTES + Long.BYTES);
+            degree[b] = buffer.getInt(entry + Double.BYTES + Long.BYTES + Integer.BYTES);
+            if(!(segmentDays[b] > 0) || segmentCount[b] < 0 || degree[b] < 1 || degree[b] > EphemerisCache.MAX_DEGREE)
+                throw new IOException("The table of ephemerides is corrupted.");
+
+            // The header is made of whole doubles, so that the coefficients are doubles of the buffer.
+            position[b] = next / Double.BYTES;
+            next += (long) segmentCount[b] * segmentLength(b) * Double.BYTES;
+        }
+        if(next != buffer.capacity())
+            throw new IOException("The table of ephemerides is truncated or corrupted.");
+        this.coefficients = buffer.asDoubleBuffer();
+    }
+
+    /**
+     * Opens the tables of the given file, which is memory-mapped.
+     *
+     * @param path
+     *          the path of the file, written by write
+     * @throws IOException
+     *          if the file cannot be mapped or does not contain tables of ephemerides
+     * @return the tables of the file
+     */
+    public static EphemerisTables open(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new IOException("The table of ephemerides is too large.");
+            return new EphemerisTables(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Computes the tables of the objects of MODELS covering the given range of days after the epoch J2010,
+     * and writes them.
+     *
+     * @param fromDays
+     *          the first day covered by the tables (in days after the epoch J2010)
+     * @param toDays
+     *          the last day covered by the tables (in days after the epoch J2010)
+     * @param outputStream
+     *          the stream to which the tables are written
+     * @throws IllegalArgumentException
+     *          if the range is empty or not finite
+     * @throws IOException
+     *          if the stream cannot be written
+     */
+    public static void write(double fromDays, double toDays, OutputStream outputStream) throws IOException {
+        checkArgument(fromDays <= toDays && Double.isFinite(fromDays) && Double.isFinite(toDays));
+
+        long[] first = new long[MODELS.size()];
+        int[] count = new int[MODELS.size()];
+        for(int b = 0; b < MODELS.size(); ++b){
+            first[b] = (long) Math.floor(fromDays / SEGMENT_DAYS[b]);
+            count[b] = Math.toIntExact((long) Math.floor(toDays / SEGMENT_DAYS[b]) - first[b] + 1);
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeInt(MAGIC);
+        out.writeInt(MODELS.size());
+        for(int b = 0; b < MODELS.size(); ++b){
+            out.writeDouble(SEGMENT_DAYS[b]);
+            out.writeLong(first[b]);
+            out.writeInt(count[b]);
+            out.writeInt(DEGREE);
+        }
+
+        double[] nodes = EphemerisCache.chebyshevNodes(DEGREE);
+        double[][] interpolation = EphemerisCache.interpolation(nodes);
+        for(int b = 0; b < MODELS.size(); ++b){
+            for(long segment = first[b]; segment < first[b] + count[b]; ++segment){
+                double[] coefficients = EphemerisCache.coefficients(
+                        MODELS.get(b), segment * SEGMENT_DAYS[b], SEGMENT_DAYS[b], nodes, interpolation);
+                for(double coefficient : coefficients)
+                    out.writeDouble(coefficient);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the tables covering the years 1900 to 2100 (or the given years) to a file.
+     *
+     * @param args
+     *          the path of the file to write, optionally followed by the first and the last year covered
+     * @throws IOException
+     *          if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length != 1 && args.length != 3){
+            System.err.println("Usage: EphemerisTables <output file> [<first year> <last year>]");
+            return;
+        }
+
+        int firstYear = args.length == 3 ? Integer.parseInt(args[1]) : 1900;
+        int lastYear = args.length == 3 ? Integer.parseInt(args[2]) : 2100;
+        double fromDays = Epoch.J2010.daysUntil(ZonedDateTime.of(firstYear, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+        double toDays = Epoch.J2010.daysUntil(ZonedDateTime.of(lastYear + 1, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+        try(OutputStream out = Files.newOutputStream(Paths.get(args[0]))){
+            write(fromDays, toDays, out);
+        }
+    }
+
+    /**
+     * Approximates the right ascension, the declination, the angular size and the magnitude of the given object for
+     * the number (can be negative) of days after the epoch J2010, and writes them in this order in the given array.
+     *
+     * @param model
+     *          the model of the object, one of MODELS
+     * @param daysSinceJ2010
+     *          number of days after the epoch J2010, covered by the tables
+     * @param values
+     *          the array in which the four values are written
+     * @param offset
+     *          the index in the array of the first value
+     * @throws IllegalArgumentException
+     *          if the object is not part of the tables, or the instant is not finite or not covered by its table
+     */
+    public void at(CelestialObjectModel<?> model, double daysSinceJ2010, double[] values, int offset){
+        int b = MODELS.indexOf(model);
+        checkArgument(b >= 0 && Double.isFinite(daysSinceJ2010));
+
+        double segmentIndex = Math.floor(daysSinceJ2010 / segmentDays[b]);
+        checkArgument(firstSegment[b] <= segmentIndex && segmentIndex < firstSegment[b] + segmentCount[b]);
+        double t = 2 * (daysSinceJ2010 / segmentDays[b] - segmentIndex) - 1;
+
+        int from = (int) (position[b] + ((long) segmentIndex - firstSegment[b]) * segmentLength(b));
+        EphemerisCache.evaluate(coefficients, from, degree[b], t, values, offset);
+    }
+
+    /**
+     * Returns the length of the segments of the table of the given object.
+     *
+     * @param model the model of the object, one of MODELS
+     * @return the length of the segments (in days)
+     */
+    double segmentDays(CelestialObjectModel<?> model){
+        return segmentDays[MODELS.indexOf(model)];
+    }
+
+    /**
+     * Returns the degree of the polynomials of the table of the given object.
+     *
+     * @param model the model of the object, one of MODELS
+     * @return the degree of the polynomials
+     */
+    int degree(CelestialObjectModel<?> model){
+        return degree[MODELS.indexOf(model)];
+    }
+
+    // The number of coefficients of a segment of the given object.
+    private int segmentLength(int b){
+        return EphemerisCache.QUANTITY_COUNT * (degree[b] + 1);
+    }
+}
@@ -1,7 +1,6 @@
 package ch.epfl.rigel.astronomy;
 
 import java.time.*;
-import java.time.temporal.ChronoUnit;
 
 /**
  * An astronomical epoch.
@@ -20,39 +19,79 @@ public enum Epoch {
             LocalTime.MIDNIGHT,
             ZoneOffset.UTC));
 
-    private final ZonedDateTime date;
+    private final long epochMillis;
 
     private static final double MS_PER_DAY = 1000 * 60 * 60 * 24;
     private static final double MS_PER_CENTURY = MS_PER_DAY * 365.25 * 100;
 
     private Epoch(ZonedDateTime epochDate){
-        date = epochDate;
+        epochMillis = epochDate.toInstant().toEpochMilli();
     }
 
     /**
      * Calculates the number of days between an epoch and an instant.
      *
      * @param when
-     *          an instant (in ZonedDateTime)
+     *          an instant (in ZonedDateTime), rounded down to the millisecond
      *
      * @return the number of days between the epoch and the instant
      */
     public double daysUntil(ZonedDateTime when){
-       double msSplit = date.until(when, ChronoUnit.MILLIS);
-       return msSplit / MS_PER_DAY;
+        return daysUntil(when.toInstant().toEpochMilli());
+    }
+
+    /**
+     * Calculates the number of days between an epoch and an instant given by its number of milliseconds since
+     * 1970-01-01T00:00Z, without building any object.
+     *
+     * @param epochMillis
+     *          the number (can be negative) of milliseconds between 1970-01-01T00:00Z and the instant
+     *
+     * @return the number of days between the epoch and the instant
+     */
+    public double daysUntil(long epochMillis){
+        double msSplit = epochMillis - this.epochMillis;
+        return msSplit / MS_PER_DAY;
     }
 
     /**
      * Calculates the number of julian centuries between an epoch and an instant.
      *
      * @param when
-     *          an instant (in ZonedDateTime)
+     *          an instant (in ZonedDateTime), rounded down to the millisecond
      *
      * @return the number of julian centuries between the epoch and the instant
      */
     public double julianCenturiesUntil(ZonedDateTime when){
-        double msSplit = date.until(when, ChronoUnit.MILLIS);
+        return julianCenturiesUntil(when.toInstant().toEpochMilli());
+    }
+
+    /**
+     * Calculates the number of julian centuries between an epoch and an instant given by its number of milliseconds
+     * since 1970-01-01T00:00Z, without building any object.
+     *
+     * @param epochMillis
+     *          the number (can be negative) of milliseconds between 1970-01-01T00:00Z and the instant
+     *
+     * @return the number of julian centuries between the epoch and the instant
+     */
+    public double julianCenturiesUntil(long epochMillis){
+        double msSplit = epochMillis - this.epochMillis;
         return msSplit / MS_PER_CENTURY;
     }
 
+    /**
+     * Calculates the number of julian centuries between the epoch J2000 and the instant which is the given number of
+     * days after the epoch J2010, rounded to the millisecond. For an instant given to the millisecond, the result is
+     * exactly the one of J2000.julianCenturiesUntil, as the number of days is then converted back to the same number
+     * of milliseconds.
+     *
+     * @param daysSinceJ2010
+     *          the number (can be negative) of days between the epoch J2010 and the instant
+     *
+     * @return the number of julian centuries between the epoch J2000 and the instant
+     */
+    static double julianCenturiesSinceJ2000(double daysSinceJ2010){
+        return J2000.julianCenturiesUntil(J2010.epochMillis + Math.round(daysSinceJ2010 * MS_PER_DAY));
+    }
 }
@@ -0,0 +1,115 @@
+package ch.epfl.rigel.astronomy;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An index giving the position of a star in a list from its Hipparcos ID, kept in a hash table with open addressing
+ * so that neither the IDs nor the positions are boxed. If several stars have the same ID, the last one added is kept.
+ *
+ * @author Mounir Raki (310287)
+ */
+final class HipparcosIndex {
+    private final static int EMPTY = -1;
+    private final static int INITIAL_CAPACITY = 1 << 10;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    /**
+     * Constructs an empty index.
+     */
+    HipparcosIndex(){
+        keys = new int[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Constructs the index of the given stars, the position of a star being its index in the list.
+     *
+     * @param stars the stars to index
+     * @return the index of the given stars
+     */
+    static HipparcosIndex of(List<Star> stars){
+        HipparcosIndex index = new HipparcosIndex();
+        for(int i = 0; i < stars.size(); ++i)
+            index.put(stars.get(i).hipparcosId(), i);
+        return index;
+    }
+
+    /**
+     * Constructs the index of the stars of the given table, the position of a star being its index in the table.
+     *
+     * @param table the table of the stars to index
+     * @return the index of the stars of the table
+     */
+    static HipparcosIndex of(StarTable table){
+        HipparcosIndex index = new HipparcosIndex();
+        for(int i = 0; i < table.size(); ++i)
+            index.put(table.hipparcosId(i), i);
+        return index;
+    }
+
+    /**
+     * Associates the given position to the given Hipparcos ID, replacing any previous one.
+     *
+     * @param hipparcosId the Hipparcos ID (positive or zero)
+     * @param position the position of the star having this ID
+     */
+    void put(int hipparcosId, int position){
+        int slot = slot(keys, hipparcosId);
+        if(keys[slot] == EMPTY){
+            keys[slot] = hipparcosId;
+            ++size;
+        }
+        values[slot] = position;
+
+        if(2 * size > keys.length)
+            grow();
+    }
+
+    /**
+     * Returns the position associated to the given Hipparcos ID.
+     *
+     * @param hipparcosId the Hipparcos ID
+     * @return the position associated to the ID, or -1 if there is none
+     */
+    int get(int hipparcosId){
+        int slot = slot(keys, hipparcosId);
+        return keys[slot] == EMPTY ? -1 : values[slot];
+    }
+
+    /**
+     * Removes every association from the index.
+     */
+    void clear(){
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private void grow(){
+        int[] oldKeys = keys, oldValues = values;
+        keys = new int[2 * oldKeys.length];
+        values = new int[2 * oldValues.length];
+        Arrays.fill(keys, EMPTY);
+        for(int i = 0; i < oldKeys.length; ++i){
+            if(oldKeys[i] != EMPTY){
+                int slot = slot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // The slot containing the given key, or the empty slot where it would be inserted (linear probing).
+    private static int slot(int[] keys, int key){
+        int mask = keys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while(keys[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+}
@@ -0,0 +1,158 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Byte-level tokenizer for the rows of a HYG catalogue (CSV file).
+ *
+ * Only the columns used to build a star are located, the other ones are skipped without being decoded,
+ * and numbers are parsed directly from the bytes of the row whenever this can be done exactly.
+ *
+ * @author Mounir Raki (310287)
+ */
+final class HygCsvTokenizer {
+    private final static int HIP = ColName.HIP.ordinal();
+    private final static int PROPER = ColName.PROPER.ordinal();
+    private final static int MAG = ColName.MAG.ordinal();
+    private final static int CI = ColName.CI.ordinal();
+    private final static int RARAD = ColName.RARAD.ordinal();
+    private final static int DECRAD = ColName.DECRAD.ordinal();
+    private final static int BAYER = ColName.BAYER.ordinal();
+    private final static int CON = ColName.CON.ordinal();
+
+    private final static int MAX_EXACT_DIGITS = 15;
+    private final static int MAX_EXACT_INT_DIGITS = 9;
+    private final static double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final int[] starts = new int[CON + 1];
+    private final int[] ends = new int[CON + 1];
+
+    /**
+     * Decodes the row of the HYG catalogue contained in the bytes between start (included) and end (excluded),
+     * without its line terminator.
+     *
+     * @param bytes
+     *          the bytes containing the row
+     * @param start
+     *          the index of the first byte of the row
+     * @param end
+     *          the index following the last byte of the row
+     * @throws NumberFormatException
+     *          if the position of the star is missing or if one of the numbers is malformed
+     *
+     * @return the star described by the row
+     */
+    Star star(byte[] bytes, int start, int end){
+        int column = 0;
+        int columnStart = start;
+        for(int i = start; i <= end && column <= CON; ++i){
+            if(i == end || bytes[i] == ','){
+                starts[column] = columnStart;
+                ends[column] = i;
+                column += 1;
+                columnStart = i + 1;
+            }
+        }
+        for(; column <= CON; ++column){
+            starts[column] = end;
+            ends[column] = end;
+        }
+
+        EquatorialCoordinates equatorialPos = EquatorialCoordinates.of(
+                parseDouble(bytes, starts[RARAD], ends[RARAD]),
+                parseDouble(bytes, starts[DECRAD], ends[DECRAD]));
+
+        int hipparcosId = isEmpty(HIP) ? 0 : parseInt(bytes, starts[HIP], ends[HIP]);
+        double magnitude = isEmpty(MAG) ? 0 : parseDouble(bytes, starts[MAG], ends[MAG]);
+        double colorIndex = isEmpty(CI) ? 0 : parseDouble(bytes, starts[CI], ends[CI]);
+
+        String name;
+        if(!isEmpty(PROPER))
+            name = string(bytes, PROPER);
+        else
+            name = (isEmpty(BAYER) ? "?" : string(bytes, BAYER)) + " " + string(bytes, CON);
+
+        return new Star(hipparcosId, name, equatorialPos, (float) magnitude, (float) colorIndex);
+    }
+
+    private boolean isEmpty(int column){
+        return starts[column] == ends[column];
+    }
+
+    private String string(byte[] bytes, int column){
+        return new String(bytes, starts[column], ends[column] - starts[column], US_ASCII);
+    }
+
+    private static int parseInt(byte[] bytes, int start, int end){
+        boolean negative = bytes[start] == '-';
+        int i = negative || bytes[start] == '+' ? start + 1 : start;
+        if(i == end || end - i > MAX_EXACT_INT_DIGITS)
+            return Integer.parseInt(new String(bytes, start, end - start, US_ASCII));
+
+        int value = 0;
+        for(; i < end; ++i){
+            int digit = bytes[i] - '0';
+            if(digit < 0 || digit > 9)
+                return Integer.parseInt(new String(bytes, start, end - start, US_ASCII));
+            value = value*10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    // Exact for at most 15 significant digits and a small decimal exponent, since both the mantissa and
+    // the power of ten are then exactly representable and a single rounded operation combines them
+    // (Clinger's fast path). Any other number, including malformed ones, is handed over to Double.parseDouble.
+    private static double parseDouble(byte[] bytes, int start, int end){
+        int i = start;
+        boolean negative = false;
+        if(i < end && (bytes[i] == '-' || bytes[i] == '+')){
+            negative = bytes[i] == '-';
+            i += 1;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean hasDigits = false;
+        boolean afterPoint = false;
+        for(; i < end; ++i){
+            byte b = bytes[i];
+            if(b >= '0' && b <= '9'){
+                hasDigits = true;
+                if(mantissa != 0 || b != '0')
+                    significantDigits += 1;
+                if(significantDigits > MAX_EXACT_DIGITS)
+                    return slowParseDouble(bytes, start, end);
+                mantissa = mantissa*10 + (b - '0');
+                if(afterPoint)
+                    exponent -= 1;
+            }
+            else if(b == '.' && !afterPoint)
+                afterPoint = true;
+            else
+                return slowParseDouble(bytes, start, end);
+        }
+
+        if(!hasDigits || -exponent >= POWERS_OF_TEN.length)
+            return slowParseDouble(bytes, start, end);
+
+        double value = mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    private static double slowParseDouble(byte[] bytes, int start, int end){
+        return Double.parseDouble(new String(bytes, start, end - start, US_ASCII));
+    }
+
+    private enum ColName {
+        ID, HIP, HD, HR, GL, BF, PROPER, RA, DEC, DIST, PMRA, PMDEC,
+                RV, MAG, ABSMAG, SPECT, CI, X, Y, Z, VX, VY, VZ,
+                RARAD, DECRAD, PMRARAD, PMDECRAD, BAYER, FLAM, CON,
+                COMP, COMP_PRIMARY, BASE, LUM, VAR, VAR_MIN, VAR_MAX;
+    }
+}
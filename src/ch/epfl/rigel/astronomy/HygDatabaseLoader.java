@@ -1,10 +1,16 @@
 package ch.epfl.rigel.astronomy;
 
-import ch.epfl.rigel.coordinates.EquatorialCoordinates;
-
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
-import static java.nio.charset.StandardCharsets.US_ASCII;
 /**
  * Loader for HYG Database.
  *
@@ -13,10 +19,17 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
 public enum HygDatabaseLoader implements StarCatalogue.Loader{
     INSTANCE;
 
+    private final static int BUFFER_SIZE = 1 << 16;
+    private final static int CHUNK_SIZE = 1 << 22;
+
     /**
      * Loads a file containing the information of the stars from a HYG catalog (CSV file),
      * and builds the list of stars in a StarCatalogue.
      *
+     * The file is scanned byte by byte, and only the columns needed to build the stars are decoded.
+     * As with BufferedReader.readLine, a line ends with a line feed, a carriage return, or both; empty lines are
+     * skipped.
+     *
      * @param inputStream
      *          the content of the file to read, obtained by an InputStream
      * @param builder
@@ -26,43 +39,174 @@ public enum HygDatabaseLoader implements StarCatalogue.Loader{
      */
     @Override
     public void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
-        try(BufferedReader r = new BufferedReader(new InputStreamReader(inputStream, US_ASCII))){
-            r.readLine();
-            String line;
-            while((line = r.readLine()) != null) {
-                String[] strArray = line.split(",");
+        try(InputStream in = inputStream){
+            HygCsvTokenizer tokenizer = new HygCsvTokenizer();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            boolean isHeader = true;
+            int length = 0;
+            int read;
 
-                String hip = strArray[ColName.HIP.ordinal()];
-                String mag = strArray[ColName.MAG.ordinal()];
-                String ci = strArray[ColName.CI.ordinal()];
-                String bay = strArray[ColName.BAYER.ordinal()];
-                String pro = strArray[ColName.PROPER.ordinal()];
-                String con = strArray[ColName.CON.ordinal()];
+            while((read = in.read(buffer, length, buffer.length - length)) != -1 || length > 0) {
+                length += Math.max(read, 0);
+                int lineStart = 0;
+                for(int i = 0; i < length; ++i){
+                    if(isLineTerminator(buffer[i])){
+                        if(i > lineStart){
+                            if(!isHeader)
+                                builder.addStar(tokenizer.star(buffer, lineStart, i));
+                            isHeader = false;
+                        }
+                        lineStart = i + 1;
+                    }
+                }
 
-                double ra = Double.parseDouble(strArray[ColName.RARAD.ordinal()]);
-                double dec = Double.parseDouble(strArray[ColName.DECRAD.ordinal()]);
+                if(read == -1){
+                    if(lineStart < length && !isHeader)
+                        builder.addStar(tokenizer.star(buffer, lineStart, length));
+                    break;
+                }
 
-                EquatorialCoordinates equatorialPos = EquatorialCoordinates.of(ra, dec);
+                length -= lineStart;
+                System.arraycopy(buffer, lineStart, buffer, 0, length);
+                if(length == buffer.length)
+                    buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            }
+        }
+    }
 
-                int hipparcosId = !(hip.isEmpty()) ? Integer.parseInt(hip) : 0;
+    /**
+     * Loads a HYG catalogue (CSV file) in parallel, and builds the list of stars in a StarCatalogue.
+     *
+     * The lines end as with the serial load. The file is split into line-aligned chunks that are parsed
+     * concurrently on the given pool,
+     * then the stars are added to the builder in the order of the file, exactly as with a serial load,
+     * so that their indices in the catalogue do not depend on the number of threads. The chunks are parsed
+     * in waves of as many chunks as the pool has threads, whose stars are added to the builder before the next
+     * wave is parsed, so that a builder which does not keep its stars as objects never has to hold more stars
+     * than those of a wave.
+     *
+     * @param path
+     *          the path of the HYG catalogue
+     * @param builder
+     *          the type of builder, used to build the list of stars
+     * @param pool
+     *          the pool on which the chunks are parsed
+     * @throws IOException
+     *          if the file doesn't exist or cannot be read
+     */
+    public void load(Path path, StarCatalogue.Builder builder, ForkJoinPool pool) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            long[] boundaries = chunkBoundaries(channel);
+            List<List<Star>> chunks = new ArrayList<>();
+            for(int i = 0; i < boundaries.length - 1; ++i)
+                chunks.add(null);
 
-                double magnitude = !(mag.isEmpty()) ? Double.parseDouble(mag) : 0;
+            int wave = Math.max(pool.getParallelism(), 1);
+            for(int from = 0; from < chunks.size(); from += wave){
+                int to = Math.min(from + wave, chunks.size());
+                try{
+                    pool.invoke(new ChunkLoading(channel, boundaries, chunks, from, to));
+                } catch (UncheckedIOException e){
+                    throw e.getCause();
+                }
 
-                double colorIndex = !(ci.isEmpty()) ? Double.parseDouble(ci) : 0;
+                for(int i = from; i < to; ++i){
+                    builder.addStars(chunks.get(i));
+                    chunks.set(i, null);
+                }
+            }
+        }
+    }
 
-                String bayer = !(bay.isEmpty()) ? bay : "?";
+    // The first chunk starts after the header line, and every other one right after a line terminator. A chunk may
+    // thus start with the line feed of a carriage return ending the previous chunk, which gives an empty line.
+    private static long[] chunkBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        long start = lineEnd(channel, 0);
+        boundaries.add(start);
+        while(start < size){
+            start = lineEnd(channel, Math.min(start + CHUNK_SIZE, size) - 1);
+            boundaries.add(start);
+        }
 
-                String proper = !(pro.isEmpty()) ? pro : bayer + " " + con;
+        long[] result = new long[boundaries.size()];
+        for(int i = 0; i < result.length; ++i)
+            result[i] = boundaries.get(i);
+        return result;
+    }
 
-                builder.addStar(new Star(hipparcosId, proper, equatorialPos, (float) magnitude, (float) colorIndex));
+    // Returns the position following the first line terminator at or after the given position.
+    private static long lineEnd(FileChannel channel, long position) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(BUFFER_SIZE);
+        while(position < channel.size()){
+            window.clear();
+            int read = channel.read(window, position);
+            for(int i = 0; i < read; ++i){
+                if(isLineTerminator(window.get(i)))
+                    return position + i + 1;
             }
+            position += Math.max(read, 0);
         }
+        return channel.size();
+    }
+
+    // A carriage return followed by a line feed ends a line followed by an empty one, which is skipped.
+    private static boolean isLineTerminator(byte b){
+        return b == '\n' || b == '\r';
     }
 
-    private enum ColName {
-        ID, HIP, HD, HR, GL, BF, PROPER, RA, DEC, DIST, PMRA, PMDEC,
-                RV, MAG, ABSMAG, SPECT, CI, X, Y, Z, VX, VY, VZ,
-                RARAD, DECRAD, PMRARAD, PMDECRAD, BAYER, FLAM, CON,
-                COMP, COMP_PRIMARY, BASE, LUM, VAR, VAR_MIN, VAR_MAX;
+    private static final class ChunkLoading extends RecursiveAction {
+        private final static long serialVersionUID = 1L;
+        private final FileChannel channel;
+        private final long[] boundaries;
+        private final List<List<Star>> chunks;
+        private final int from, to;
+
+        ChunkLoading(FileChannel channel, long[] boundaries, List<List<Star>> chunks, int from, int to){
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from > 1){
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkLoading(channel, boundaries, chunks, from, middle),
+                        new ChunkLoading(channel, boundaries, chunks, middle, to));
+            }
+            else if(to > from)
+                chunks.set(from, loadChunk(boundaries[from], boundaries[from + 1]));
+        }
+
+        private List<Star> loadChunk(long start, long end){
+            byte[] bytes = new byte[(int) (end - start)];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            try{
+                while(buffer.hasRemaining()){
+                    if(channel.read(buffer, start + buffer.position()) < 0)
+                        throw new EOFException("The catalogue was truncated while being loaded.");
+                }
+            } catch (IOException e){
+                throw new UncheckedIOException(e);
+            }
+
+            HygCsvTokenizer tokenizer = new HygCsvTokenizer();
+            List<Star> stars = new ArrayList<>();
+            int lineStart = 0;
+            for(int i = 0; i < bytes.length; ++i){
+                if(isLineTerminator(bytes[i])){
+                    if(i > lineStart)
+                        stars.add(tokenizer.star(bytes, lineStart, i));
+                    lineStart = i + 1;
+                }
+            }
+            if(lineStart < bytes.length)
+                stars.add(tokenizer.star(bytes, lineStart, bytes.length));
+            return stars;
+        }
     }
 }
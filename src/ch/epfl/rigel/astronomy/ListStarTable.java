@@ -0,0 +1,68 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+
+import java.util.List;
+
+/**
+ * A star table keeping the stars as objects.
+ *
+ * @author Mounir Raki (310287)
+ */
+final class ListStarTable implements StarTable {
+    private final List<Star> stars;
+
+    /**
+     * Constructs a table containing the given stars.
+     *
+     * @param stars the stars of the table
+     */
+    ListStarTable(List<Star> stars){
+        this.stars = List.copyOf(stars);
+    }
+
+    @Override
+    public int size() {
+        return stars.size();
+    }
+
+    @Override
+    public double ra(int index) {
+        return stars.get(index).equatorialPos().ra();
+    }
+
+    @Override
+    public double dec(int index) {
+        return stars.get(index).equatorialPos().dec();
+    }
+
+    @Override
+    public float magnitude(int index) {
+        return (float) stars.get(index).magnitude();
+    }
+
+    @Override
+    public int colorTemperature(int index) {
+        return stars.get(index).colorTemperature();
+    }
+
+    @Override
+    public int hipparcosId(int index) {
+        return stars.get(index).hipparcosId();
+    }
+
+    @Override
+    public Star star(int index) {
+        return stars.get(index);
+    }
+
+    @Override
+    public EquatorialCoordinates equatorialPos(int index) {
+        return stars.get(index).equatorialPos();
+    }
+
+    @Override
+    public List<Star> stars() {
+        return stars;
+    }
+}
@@ -0,0 +1,95 @@
+package ch.epfl.rigel.astronomy;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * A star table reading the properties of the stars straight from the columns of a binary star catalogue, usually
+ * memory-mapped, without copying them: building the table costs nothing, and the pages of a column are only read
+ * once it is accessed. The color temperatures are computed from the color indices, and the stars themselves are
+ * only built on demand.
+ *
+ * @author Mounir Raki (310287)
+ */
+final class MappedStarTable extends ColumnarStarTable {
+    private final int size;
+    private final DoubleBuffer ra;
+    private final DoubleBuffer dec;
+    private final FloatBuffer magnitude;
+    private final FloatBuffer colorIndex;
+    private final IntBuffer hipparcosId;
+    private final IntBuffer nameOffsets;
+    private final ByteBuffer names;
+
+    /**
+     * Constructs a table reading the given columns, which are neither copied nor checked. The n + 1 offsets of the
+     * names must go from 0 to the length of the names, without decreasing.
+     *
+     * @param size the number n of stars
+     * @param ra the n right ascensions
+     * @param dec the n declinations
+     * @param magnitude the n magnitudes
+     * @param colorIndex the n color indices
+     * @param hipparcosId the n Hipparcos IDs
+     * @param nameOffsets the n + 1 offsets of the names, the name of the star i going from offset i to offset i + 1
+     * @param names the names, encoded in UTF-8
+     */
+    MappedStarTable(int size, DoubleBuffer ra, DoubleBuffer dec, FloatBuffer magnitude, FloatBuffer colorIndex,
+                    IntBuffer hipparcosId, IntBuffer nameOffsets, ByteBuffer names){
+        this.size = size;
+        this.ra = ra;
+        this.dec = dec;
+        this.magnitude = magnitude;
+        this.colorIndex = colorIndex;
+        this.hipparcosId = hipparcosId;
+        this.nameOffsets = nameOffsets;
+        this.names = names;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double ra(int index) {
+        return ra.get(index);
+    }
+
+    @Override
+    public double dec(int index) {
+        return dec.get(index);
+    }
+
+    @Override
+    public float magnitude(int index) {
+        return magnitude.get(index);
+    }
+
+    @Override
+    public int colorTemperature(int index) {
+        return (int) Star.colorTemperatureOf(colorIndex.get(index));
+    }
+
+    @Override
+    public int hipparcosId(int index) {
+        return hipparcosId.get(index);
+    }
+
+    @Override
+    float colorIndex(int index) {
+        return colorIndex.get(index);
+    }
+
+    @Override
+    int nameOffset(int index) {
+        return nameOffsets.get(index);
+    }
+
+    @Override
+    ByteBuffer names() {
+        return names;
+    }
+}
@@ -29,6 +29,15 @@ public final class Moon extends CelestialObject {
         this.phase = phase;
     }
 
+    /**
+     * Getter for the phase of the moon.
+     *
+     * @return the phase of the moon (between 0 and 1)
+     */
+    public double phase(){
+        return phase;
+    }
+
     /**
      * Redefines the toString method in java.lang.Object to construct the textual representation of the Moon.
      *
@@ -5,6 +5,8 @@ import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
 import ch.epfl.rigel.coordinates.EquatorialCoordinates;
 import ch.epfl.rigel.math.Angle;
 
+import java.util.Objects;
+
 import static java.lang.Math.*;
 
 /**
@@ -24,6 +26,8 @@ public enum MoonModel implements CelestialObjectModel<Moon>{
 
     private final static double SIN_ORBIT_INCL = sin(ORBIT_INCL);
     private final static double COS_ORBIT_INCL = cos(ORBIT_INCL);
+    // The number of values computed by orbit.
+    private final static int ORBIT_VALUE_COUNT = 4;
 
     /**
      * Creates the model of the Moon with specific parameters.
@@ -36,9 +40,121 @@ public enum MoonModel implements CelestialObjectModel<Moon>{
      */
     @Override
     public Moon at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
-        Sun sun = SunModel.SUN.at(daysSinceJ2010, eclipticToEquatorialConversion);
-        double sunLonEclGeo = sun.eclipticPos().lon();
-        double sinSunMeanAnomaly = sin(sun.meanAnomaly());
+        return at(daysSinceJ2010, eclipticToEquatorialConversion, SunModel.SUN.at(daysSinceJ2010, eclipticToEquatorialConversion));
+    }
+
+    /**
+     * Creates the model of the Moon from the Sun at the same instant, which is then not computed again.
+     *
+     * @param daysSinceJ2010
+     *          Number of days after the epoch J2010
+     * @param eclipticToEquatorialConversion
+     *          Conversion from ecliptic to equatorial coordinates
+     * @param sun
+     *          The Sun at the same instant, given by SunModel
+     * @return a new Moon with the corresponding model
+     */
+    Moon at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion, Sun sun) {
+        double[] orbit = new double[ORBIT_VALUE_COUNT];
+        orbit(daysSinceJ2010, sun.eclipticPos().lon(), sun.meanAnomaly(), orbit);
+
+        EquatorialCoordinates moonEquatorialPos = eclipticToEquatorialConversion.apply(
+                EclipticCoordinates.of(orbit[0], orbit[1])
+        );
+
+        return new Moon(moonEquatorialPos, (float) orbit[2], 0, (float) orbit[3]);
+    }
+
+    /**
+     * Models the Moon for the instants of indices from (inclusive) to to (exclusive) of the given array, as
+     * CelestialObjectModel.atAll, without building any object for each instant.
+     *
+     * @param daysSinceJ2010
+     *          The numbers of days after the epoch J2010 of the instants
+     * @param from
+     *          The index of the first instant to model
+     * @param to
+     *          The index following the last instant to model
+     * @param ra
+     *          The array in which the right ascensions (in radians) are written, or null
+     * @param dec
+     *          The array in which the declinations (in radians) are written, or null
+     * @param angularSize
+     *          The array in which the angular sizes (in radians) are written, or null
+     * @param magnitude
+     *          The array in which the magnitudes are written, or null
+     * @throws IndexOutOfBoundsException if the range of indices is not part of one of the arrays
+     */
+    @Override
+    public void atAll(double[] daysSinceJ2010, int from, int to,
+                      double[] ra, double[] dec, double[] angularSize, double[] magnitude){
+        atAll(daysSinceJ2010, from, to, ra, dec, angularSize, magnitude, null);
+    }
+
+    /**
+     * Models the Moon for the instants of indices from (inclusive) to to (exclusive) of the given array, as
+     * CelestialObjectModel.atAll, and also writes its phase at the same indices of the last output array.
+     * An output array may be null, in which case its value is not written. No object is built for each instant.
+     *
+     * @param daysSinceJ2010
+     *          The numbers of days after the epoch J2010 of the instants
+     * @param from
+     *          The index of the first instant to model
+     * @param to
+     *          The index following the last instant to model
+     * @param ra
+     *          The array in which the right ascensions (in radians) are written, or null
+     * @param dec
+     *          The array in which the declinations (in radians) are written, or null
+     * @param angularSize
+     *          The array in which the angular sizes (in radians) are written, or null
+     * @param magnitude
+     *          The array in which the magnitudes are written, or null
+     * @param phase
+     *          The array in which the phases (between 0 and 1) are written, or null
+     * @throws IndexOutOfBoundsException if the range of indices is not part of one of the arrays
+     */
+    public void atAll(double[] daysSinceJ2010, int from, int to,
+                      double[] ra, double[] dec, double[] angularSize, double[] magnitude, double[] phase){
+        Objects.checkFromToIndex(from, to, daysSinceJ2010.length);
+        if(ra != null)
+            Objects.checkFromToIndex(from, to, ra.length);
+        if(dec != null)
+            Objects.checkFromToIndex(from, to, dec.length);
+        if(angularSize != null)
+            Objects.checkFromToIndex(from, to, angularSize.length);
+        if(magnitude != null)
+            Objects.checkFromToIndex(from, to, magnitude.length);
+        if(phase != null)
+            Objects.checkFromToIndex(from, to, phase.length);
+
+        double[] orbit = new double[ORBIT_VALUE_COUNT];
+        double[] equatorialPos = new double[2];
+        for(int i = from; i < to; ++i){
+            double days = daysSinceJ2010[i];
+            // The Sun of the same instant, as given by SunModel (which rounds its mean anomaly to a float).
+            double sunMeanAnomaly = SunModel.meanAnomaly(days);
+            double sunLonEclGeo = SunModel.eclipticLon(SunModel.trueAnomaly(sunMeanAnomaly));
+            orbit(days, sunLonEclGeo, (float) sunMeanAnomaly, orbit);
+
+            EclipticToEquatorialConversion.convert(Epoch.julianCenturiesSinceJ2000(days), orbit[0], orbit[1], equatorialPos, 0);
+            if(ra != null)
+                ra[i] = equatorialPos[0];
+            if(dec != null)
+                dec[i] = equatorialPos[1];
+            if(angularSize != null)
+                angularSize[i] = orbit[2];
+            if(magnitude != null)
+                magnitude[i] = 0;
+            if(phase != null)
+                phase[i] = orbit[3];
+        }
+    }
+
+    // Computes the ecliptic longitude and latitude, the angular size and the phase of the Moon (the last two rounded
+    // to floats) from the ecliptic longitude and the mean anomaly of the Sun, and writes them in this order in orbit.
+    private static void orbit(double daysSinceJ2010, double sunLonEclGeo, double sunMeanAnomaly, double[] orbit){
+        double sinSunMeanAnomaly = sin(sunMeanAnomaly);
 
         double meanOrbitalLon = Angle.ofDeg(13.1763966)*daysSinceJ2010 + MEAN_LON;
         double moonMeanAnomaly = meanOrbitalLon - Angle.ofDeg(0.1114041)*daysSinceJ2010 - MEAN_LON_AT_PERIGEE;
@@ -52,17 +168,6 @@ public enum MoonModel implements CelestialObjectModel<Moon>{
         double variation = Angle.ofDeg(0.6583) * sin(2 * (orbitalLonCorr - sunLonEclGeo));
         double moonOrbitalLon = orbitalLonCorr + variation;
 
-        EquatorialCoordinates moonEquatorialPos = eclipticToEquatorialConversion.apply(
-                moonEclipticPos(daysSinceJ2010, moonOrbitalLon, sinSunMeanAnomaly)
-        );
-        float moonAngularSize = moonAngularSize(corrAnomaly, centerEquCorr);
-        float moonPhase = moonPhase(moonOrbitalLon, sunLonEclGeo);
-
-        return new Moon(moonEquatorialPos, moonAngularSize, 0, moonPhase);
-    }
-
-
-    private EclipticCoordinates moonEclipticPos(double daysSinceJ2010, double moonOrbitalLon, double sinSunMeanAnomaly){
         double meanLonAscNode = LON_ASC_NODE - Angle.ofDeg(0.0529539)*daysSinceJ2010;
         double corrLonAscNode = meanLonAscNode - Angle.ofDeg(0.16)*sinSunMeanAnomaly;
         double sinLonDiff = sin(moonOrbitalLon - corrLonAscNode);
@@ -70,18 +175,19 @@ public enum MoonModel implements CelestialObjectModel<Moon>{
         double eclLon = atan2(
                 sinLonDiff * COS_ORBIT_INCL,
                 cosLonDiff) + corrLonAscNode;
-        double eclLat = asin(sinLonDiff * SIN_ORBIT_INCL);
 
-        return EclipticCoordinates.of(Angle.normalizePositive(eclLon), eclLat);
+        orbit[0] = Angle.normalizePositive(eclLon);
+        orbit[1] = asin(sinLonDiff * SIN_ORBIT_INCL);
+        orbit[2] = moonAngularSize(corrAnomaly, centerEquCorr);
+        orbit[3] = moonPhase(moonOrbitalLon, sunLonEclGeo);
     }
 
-
-    private float moonPhase(double moonOrbitalLon, double sunLonEclGeo){
+    private static float moonPhase(double moonOrbitalLon, double sunLonEclGeo){
         return (float) ((1 - cos(moonOrbitalLon - sunLonEclGeo)) / 2);
     }
 
 
-    private float moonAngularSize(double corrAnomaly, double centerEquCorr){
+    private static float moonAngularSize(double corrAnomaly, double centerEquCorr){
         double earthMoonDist = (1 - ORBIT_ECC*ORBIT_ECC) / (1 + ORBIT_ECC* cos(corrAnomaly + centerEquCorr));
         return (float) (THETA_ZERO / earthMoonDist);
     }
@@ -2,10 +2,11 @@ package ch.epfl.rigel.astronomy;
 
 import ch.epfl.rigel.Preconditions;
 import ch.epfl.rigel.coordinates.*;
-import ch.epfl.rigel.math.ClosedInterval;
 
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Set of celestial objects projected onto a plan
@@ -14,6 +15,13 @@ import java.util.*;
  * @author Mounir Raki (310287)
  */
 public class ObservedSky {
+    // Below this number of stars, the projection is faster on the calling thread than split across a pool.
+    private final static int PARALLEL_THRESHOLD = 1 << 16;
+    // The number of stars projected by each task of a parallel projection.
+    private final static int STARS_PER_TASK = 1 << 14;
+    // The factor by which the size of the cells of the star grid may differ from the one suiting a search.
+    private final static double GRID_CELL_SIZE_FACTOR = 4;
+
     private final Sun sun;
     private final Moon moon;
     private final List<Planet> planets;
@@ -23,7 +31,13 @@ public class ObservedSky {
     private final double[] planetPositions, starPositions;
 
     private final StarCatalogue catalogue;
-    private final Map<CelestialObject, CartesianCoordinates> map;
+    // The Sun, the Moon and the planets, and their positions (x and y of the object of index i at 2i and 2i + 1).
+    private final List<CelestialObject> objects;
+    private final double[] objectPositions;
+    // The indices in the catalogue of the stars of this sky, or null if the sky contains the whole catalogue.
+    private final int[] starIndices;
+    private final AsterismTable asterismTable;
+    private PositionGrid starGrid;
 
     /**
      * Builds a sky of celestial objects at a specific time and observation point.
@@ -41,71 +55,218 @@ public class ObservedSky {
                        GeographicCoordinates observationPos,
                        StereographicProjection projection,
                        StarCatalogue catalogue) {
-        double daysUntilJ2010 = Epoch.J2010.daysUntil(observationInstant);
-        EclipticToEquatorialConversion eclToEqu = new EclipticToEquatorialConversion(observationInstant);
-        EquatorialToHorizontalConversion equToHor = new EquatorialToHorizontalConversion(observationInstant, observationPos);
+        this(observationInstant, observationPos, projection, catalogue, Math.PI);
+    }
+
+    /**
+     * Builds a sky of celestial objects at a specific time and observation point, only containing the stars
+     * which may lie within the given angular distance from the center of the projection and which rise above
+     * the horizon at the latitude of the observation point, along with the stars of the asterisms. The cost of
+     * the construction then depends on the number of stars in the field.
+     * The indices of the stars of this sky are then no longer their indices in the catalogue.
+     *
+     * @param observationInstant
+     *          the instant at which the sky is observed
+     * @param observationPos
+     *          the position of the observation point
+     * @param projection
+     *          the stereographic projection to use
+     * @param catalogue
+     *          the catalogue of stars and asterisms to project onto this sky
+     * @param fieldRadius
+     *          the angular distance from the center of the projection beyond which the stars may be left out
+     *          (in radians), every star being kept if it is at least π
+     * @throws IllegalArgumentException
+     *          if the angular distance is negative
+     */
+    public ObservedSky(ZonedDateTime observationInstant,
+                       GeographicCoordinates observationPos,
+                       StereographicProjection projection,
+                       StarCatalogue catalogue,
+                       double fieldRadius) {
+        this(observationInstant, observationPos, projection, catalogue, fieldRadius, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Builds a sky of celestial objects at a specific time and observation point, only containing the stars
+     * which may lie within the given angular distance from the center of the projection, whose magnitude
+     * is at most the limiting magnitude and which rise above the horizon at the latitude of the observation point,
+     * along with the stars of the asterisms.
+     * The indices of the stars of this sky are then no longer their indices in the catalogue.
+     *
+     * @param observationInstant
+     *          the instant at which the sky is observed
+     * @param observationPos
+     *          the position of the observation point
+     * @param projection
+     *          the stereographic projection to use
+     * @param catalogue
+     *          the catalogue of stars and asterisms to project onto this sky
+     * @param fieldRadius
+     *          the angular distance from the center of the projection beyond which the stars may be left out
+     *          (in radians), every star being kept if it is at least π
+     * @param limitingMagnitude
+     *          the magnitude beyond which the stars are left out, which may be infinite
+     * @throws IllegalArgumentException
+     *          if the angular distance is negative, or if the limiting magnitude is NaN
+     */
+    public ObservedSky(ZonedDateTime observationInstant,
+                       GeographicCoordinates observationPos,
+                       StereographicProjection projection,
+                       StarCatalogue catalogue,
+                       double fieldRadius,
+                       double limitingMagnitude) {
+        this(observationInstant, observationPos, projection, catalogue, fieldRadius, limitingMagnitude, null);
+    }
+
+    /**
+     * Builds a sky of celestial objects at a specific time and observation point, as the constructor above does,
+     * the stars being projected in parallel on the given pool. Each task of the pool writes the positions of
+     * a different range of stars, so that the positions are exactly the ones of a projection on the calling thread.
+     * A sky containing few stars is always projected on the calling thread.
+     *
+     * @param observationInstant
+     *          the instant at which the sky is observed
+     * @param observationPos
+     *          the position of the observation point
+     * @param projection
+     *          the stereographic projection to use
+     * @param catalogue
+     *          the catalogue of stars and asterisms to project onto this sky
+     * @param fieldRadius
+     *          the angular distance from the center of the projection beyond which the stars may be left out
+     *          (in radians), every star being kept if it is at least π
+     * @param limitingMagnitude
+     *          the magnitude beyond which the stars are left out, which may be infinite
+     * @param pool
+     *          the pool on which the stars are projected, or null to project them on the calling thread
+     * @throws IllegalArgumentException
+     *          if the angular distance is negative, or if the limiting magnitude is NaN
+     */
+    public ObservedSky(ZonedDateTime observationInstant,
+                       GeographicCoordinates observationPos,
+                       StereographicProjection projection,
+                       StarCatalogue catalogue,
+                       double fieldRadius,
+                       double limitingMagnitude,
+                       ForkJoinPool pool) {
+        this(observationInstant.toInstant().toEpochMilli(), observationPos, projection, catalogue,
+                fieldRadius, limitingMagnitude, pool);
+    }
+
+    /**
+     * Builds a sky of celestial objects as the constructor above does, at an instant given by its number of
+     * milliseconds since 1970-01-01T00:00Z, from which the positions of the objects are computed without going
+     * through any date object.
+     *
+     * @param observationEpochMillis
+     *          the number (can be negative) of milliseconds between 1970-01-01T00:00Z and the instant at which
+     *          the sky is observed
+     * @param observationPos
+     *          the position of the observation point
+     * @param projection
+     *          the stereographic projection to use
+     * @param catalogue
+     *          the catalogue of stars and asterisms to project onto this sky
+     * @param fieldRadius
+     *          the angular distance from the center of the projection beyond which the stars may be left out
+     *          (in radians), every star being kept if it is at least π
+     * @param limitingMagnitude
+     *          the magnitude beyond which the stars are left out, which may be infinite
+     * @param pool
+     *          the pool on which the stars are projected, or null to project them on the calling thread
+     * @throws IllegalArgumentException
+     *          if the angular distance is negative, or if the limiting magnitude is NaN
+     */
+    public ObservedSky(long observationEpochMillis,
+                       GeographicCoordinates observationPos,
+                       StereographicProjection projection,
+                       StarCatalogue catalogue,
+                       double fieldRadius,
+                       double limitingMagnitude,
+                       ForkJoinPool pool) {
+        Preconditions.checkArgument(fieldRadius >= 0 && !Double.isNaN(limitingMagnitude));
+        double daysUntilJ2010 = Epoch.J2010.daysUntil(observationEpochMillis);
+        EclipticToEquatorialConversion eclToEqu = new EclipticToEquatorialConversion(observationEpochMillis);
+        EquatorialToHorizontalConversion equToHor = new EquatorialToHorizontalConversion(observationEpochMillis, observationPos);
         this.catalogue = catalogue;
 
-        Map<CelestialObject, CartesianCoordinates> object_position = new HashMap<>();
+        SolarSystemSnapshot solarSystem = SolarSystemSnapshot.at(daysUntilJ2010, eclToEqu);
+        sun = solarSystem.sun();
+        moon = solarSystem.moon();
+        planets = solarSystem.planets();
+
+        int[] selectedStars = null;
+        if(fieldRadius < Math.PI)
+            selectedStars = catalogue.starsInCone(equToHor.inverseApply(projection.center()), fieldRadius);
+        if(limitingMagnitude < Double.POSITIVE_INFINITY){
+            selectedStars = selectedStars == null
+                    ? catalogue.starsBrighterThan(limitingMagnitude)
+                    : catalogue.brighterAmong(selectedStars, limitingMagnitude);
+        }
+
+        if(selectedStars != null){
+            // The stars which never rise at the latitude of the observation point are never drawn.
+            selectedStars = intersection(selectedStars, catalogue.starsReaching(observationPos.lat(), 0));
+            starIndices = union(selectedStars, catalogue.asterismStarIndices());
+            stars = catalogue.stars(starIndices);
+            asterismTable = catalogue.asterismTable().remapped(starIndices);
+        }
+        else {
+            starIndices = null;
+            stars = catalogue.stars();
+            asterismTable = catalogue.asterismTable();
+        }
 
-        sun = SunModel.SUN.at(daysUntilJ2010, eclToEqu);
-        moon = MoonModel.MOON.at(daysUntilJ2010, eclToEqu);
-        planets = fillPlanets(daysUntilJ2010, eclToEqu);
-        stars = List.copyOf(catalogue.stars());
+        sunPosition = projectedObject(sun, equToHor, projection);
+        moonPosition = projectedObject(moon, equToHor, projection);
+        planetPositions = projectedCelestialObjects(planets, equToHor, projection);
+        starPositions = projectedStars(catalogue, equToHor, projection, pool);
 
-        sunPosition = projectedObject(sun, equToHor, projection, object_position);
-        moonPosition = projectedObject(moon, equToHor, projection, object_position);
-        planetPositions = projectedCelestialObjects(planets, equToHor, projection, object_position);
-        starPositions = projectedCelestialObjects(stars, equToHor, projection, object_position);
+        List<CelestialObject> objects = new ArrayList<>(planets.size() + 2);
+        objects.add(sun);
+        objects.add(moon);
+        objects.addAll(planets);
+        this.objects = Collections.unmodifiableList(objects);
 
-        map = Map.copyOf(object_position);
+        objectPositions = new double[2*objects.size()];
+        objectPositions[0] = sunPosition.x();
+        objectPositions[1] = sunPosition.y();
+        objectPositions[2] = moonPosition.x();
+        objectPositions[3] = moonPosition.y();
+        System.arraycopy(planetPositions, 0, objectPositions, 4, planetPositions.length);
     }
 
     /**
      * Searches for the closest celestial object from a specific point and a maximal distance.
+     * Only the objects strictly closer to the point than the maximal distance are searched. In case of a tie,
+     * the Sun, the Moon and the planets are preferred to the stars, and among the objects of the same kind the one
+     * of smallest index wins. With a maximal distance of 0, only the objects located exactly at the point are
+     * searched, and the last of them is returned, a star being preferred to the other objects.
      *
      * @param c
      *          the point from which the closest celestial object is being searched
      * @param maxDistance
      *          the maximal distance to which the searching process will be conducted
      * @throws IllegalArgumentException
-     *          if the maximal distance is negative or 0, or if the cartesian coordinates are null
+     *          if the maximal distance is negative, or if the cartesian coordinates are null
      * @return the closest celestial object if there is one, or null if there are no close object
      *         with a distance to the point that is closer than the maximal distance
      */
     public Optional<CelestialObject> objectClosestTo(CartesianCoordinates c, double maxDistance){
         Preconditions.checkArgument(maxDistance >= 0 && c != null);
-        CelestialObject closestObject = null;
-
-        if(maxDistance > 0){
-            double minDistance = maxDistance;
-            ClosedInterval xInterval = ClosedInterval.of(c.x() - maxDistance, c.x() + maxDistance);
-            ClosedInterval yInterval = ClosedInterval.of(c.y() - maxDistance, c.y() + maxDistance);
-
-            for(CelestialObject o : map.keySet()){
-                CartesianCoordinates cartCoords = map.get(o);
-                if(xInterval.contains(cartCoords.x()) && yInterval.contains(cartCoords.y())){
-                    double distance = c.distanceTo(cartCoords);
-                    if(distance < minDistance) {
-                        minDistance = distance;
-                        xInterval = ClosedInterval.of(c.x() - minDistance, c.x() + minDistance);
-                        yInterval = ClosedInterval.of(c.y() - minDistance, c.y() + minDistance);
-                        closestObject = o;
-                    }
-                }
-            }
-        }
+        boolean exact = maxDistance == 0;
 
-        else {
-            for(CelestialObject o : map.keySet()){
-                CartesianCoordinates cartCoords = map.get(o);
-                if(c.x() == cartCoords.x() && c.y() == cartCoords.y())
-                    closestObject = o;
-            }
-        }
+        int closestObject = closestIndex(objectPositions, c, maxDistance, exact);
+        double starMaxDistance = closestObject >= 0 && !exact
+                ? distance(objectPositions, closestObject, c)
+                : maxDistance;
+        int closestStar = starGrid(maxDistance).closestIndex(c, starMaxDistance, exact);
 
-        if(closestObject != null)
-            return Optional.of(closestObject);
+        if(closestStar >= 0)
+            return Optional.of(stars.get(closestStar));
+        else if(closestObject >= 0)
+            return Optional.of(objects.get(closestObject));
         else
             return Optional.empty();
     }
@@ -173,6 +334,28 @@ public class ObservedSky {
         return stars;
     }
 
+    /**
+     * Getter for the magnitude of a star, which avoids building the star itself.
+     *
+     * @param index
+     *          the index of the star in the list of stars
+     * @return the magnitude of the star
+     */
+    public double starMagnitude(int index){
+        return catalogue.table().magnitude(catalogueIndex(index));
+    }
+
+    /**
+     * Getter for the color temperature of a star, which avoids building the star itself.
+     *
+     * @param index
+     *          the index of the star in the list of stars
+     * @return the color temperature of the star
+     */
+    public int starColorTemperature(int index){
+        return catalogue.table().colorTemperature(catalogueIndex(index));
+    }
+
     /**
      * Getter for the array containing the positions of the stars.
      *
@@ -192,49 +375,79 @@ public class ObservedSky {
     }
 
     /**
-     * Getter for the list of indices (from StarCatalogue) of the stars constituting a given asterism.
+     * Getter for the list of indices (in the list of stars of this sky) of the stars constituting a given asterism.
      *
      * @param a
      *          The asterism used to obtain the indices
-     * @return The list of indices in the star catalogue of the stars constituting a given asterism
+     * @return The list of indices in the list of stars of the stars constituting a given asterism
      */
     public List<Integer> asterismsIndices(Asterism a){
-        return catalogue.asterismIndices(a);
+        return asterismTable.indices(a);
+    }
+
+    /**
+     * Getter for the number of asterisms, which are numbered from 0 in the methods below.
+     * Together, these methods give the stars of the asterisms without boxing nor hashing.
+     *
+     * @return the number of asterisms
+     */
+    public int asterismCount(){
+        return asterismTable.count();
     }
 
+    /**
+     * Getter for the asterism having the given number.
+     *
+     * @param asterism
+     *          the number of the asterism
+     * @return the asterism having the given number
+     */
+    public Asterism asterism(int asterism){
+        return asterismTable.asterism(asterism);
+    }
 
-    private List<Planet> fillPlanets(double daysUntilJ2010, EclipticToEquatorialConversion eclToEqu) {
-        List<Planet> planets = new ArrayList<>();
-        for (PlanetModel pm : PlanetModel.ALL) {
-            if (pm != PlanetModel.EARTH) {
-                Planet planet = pm.at(daysUntilJ2010, eclToEqu);
-                planets.add(planet);
-            }
-        }
-        return List.copyOf(planets);
+    /**
+     * Getter for the number of stars of the asterism having the given number.
+     *
+     * @param asterism
+     *          the number of the asterism
+     * @return the number of stars of the asterism
+     */
+    public int asterismSize(int asterism){
+        return asterismTable.size(asterism);
     }
 
+    /**
+     * Getter for the index (in the list of stars of this sky) of a star of the asterism having the given number.
+     *
+     * @param asterism
+     *          the number of the asterism
+     * @param position
+     *          the position of the star in the asterism
+     * @throws IndexOutOfBoundsException
+     *          if the position is not the one of a star of the asterism
+     * @return the index of the star in the list of stars
+     */
+    public int asterismStarIndex(int asterism, int position){
+        return asterismTable.starIndex(asterism, position);
+    }
+
+
     private CartesianCoordinates projectedObject(CelestialObject object,
                                                  EquatorialToHorizontalConversion equToHor,
-                                                 StereographicProjection projection,
-                                                 Map<CelestialObject, CartesianCoordinates> map){
+                                                 StereographicProjection projection){
         HorizontalCoordinates objectHorPor = equToHor.apply(object.equatorialPos());
-        CartesianCoordinates projectedCoordinates = projection.apply(objectHorPor);
-        map.put(object, projectedCoordinates);
-
-        return projectedCoordinates;
+        return projection.apply(objectHorPor);
     }
 
     private <O extends CelestialObject> double[] projectedCelestialObjects(List<O> objects,
                                                    EquatorialToHorizontalConversion equToHor,
-                                                   StereographicProjection projection,
-                                                   Map<CelestialObject, CartesianCoordinates> map){
+                                                   StereographicProjection projection){
         double[] objectCoords = new double[objects.size() * 2];
         for (int i = 0; i < objects.size(); i++) {
             O object = objects.get(i);
             HorizontalCoordinates objectHorPos = equToHor.apply(object.equatorialPos());
             CartesianCoordinates objectCartPos = projection.apply(objectHorPos);
-            map.put(object, objectCartPos);
 
             int index = 2*i;
             objectCoords[index] = objectCartPos.x();
@@ -242,4 +455,138 @@ public class ObservedSky {
         }
         return objectCoords;
     }
+
+    private double[] projectedStars(StarCatalogue catalogue,
+                                    EquatorialToHorizontalConversion equToHor,
+                                    StereographicProjection projection,
+                                    ForkJoinPool pool){
+        EquatorialProjection equToPlane = new EquatorialProjection(equToHor, projection);
+        double[][] unitVectors = catalogue.unitVectors();
+        double[] starCoords = new double[stars.size() * 2];
+        if(pool != null && stars.size() >= PARALLEL_THRESHOLD)
+            pool.invoke(new StarProjection(equToPlane, unitVectors, starCoords, 0, stars.size()));
+        else
+            projectStars(equToPlane, unitVectors, starCoords, 0, stars.size());
+        return starCoords;
+    }
+
+    private void projectStars(EquatorialProjection equToPlane, double[][] unitVectors, double[] starCoords, int from, int to){
+        if(starIndices == null)
+            equToPlane.apply(unitVectors[0], unitVectors[1], unitVectors[2], from, to, starCoords);
+        else
+            equToPlane.apply(unitVectors[0], unitVectors[1], unitVectors[2], starIndices, from, to, starCoords);
+    }
+
+    private int catalogueIndex(int index){
+        return starIndices == null ? index : starIndices[index];
+    }
+
+    // The indices of a which are also in b, both sorted in increasing order, found by binary searches in b so that
+    // the cost depends on the (usually small) length of a.
+    private static int[] intersection(int[] a, int[] b){
+        int[] intersection = new int[a.length];
+        int size = 0;
+        for(int index : a){
+            if(Arrays.binarySearch(b, index) >= 0)
+                intersection[size++] = index;
+        }
+        return Arrays.copyOf(intersection, size);
+    }
+
+    // Merges two arrays of indices sorted in increasing order, without duplicates.
+    private static int[] union(int[] a, int[] b){
+        int[] union = new int[a.length + b.length];
+        int i = 0, j = 0, size = 0;
+        while(i < a.length || j < b.length){
+            int next;
+            if(j == b.length || (i < a.length && a[i] < b[j]))
+                next = a[i++];
+            else if(i == a.length || b[j] < a[i])
+                next = b[j++];
+            else {
+                next = a[i++];
+                ++j;
+            }
+            union[size++] = next;
+        }
+        return Arrays.copyOf(union, size);
+    }
+
+    // Projects a range of stars, splitting it in halves until it is small enough to be projected by a single task.
+    private final class StarProjection extends RecursiveAction {
+        private final static long serialVersionUID = 1L;
+        private final EquatorialProjection equToPlane;
+        private final double[][] unitVectors;
+        private final double[] starCoords;
+        private final int from, to;
+
+        private StarProjection(EquatorialProjection equToPlane, double[][] unitVectors, double[] starCoords, int from, int to){
+            this.equToPlane = equToPlane;
+            this.unitVectors = unitVectors;
+            this.starCoords = starCoords;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from > STARS_PER_TASK){
+                int middle = (from + to) >>> 1;
+                invokeAll(new StarProjection(equToPlane, unitVectors, starCoords, from, middle),
+                        new StarProjection(equToPlane, unitVectors, starCoords, middle, to));
+            }
+            else
+                projectStars(equToPlane, unitVectors, starCoords, from, to);
+        }
+    }
+
+    // The grid of the star positions, built on the first search. Its cells are about as large as the distance of the
+    // search, without being larger than the mean spacing of the stars on the visible half of the sky. The grid is
+    // built again when the size of its cells and the one suiting the search differ by more than a constant factor,
+    // as a search would then either visit too many cells or go through too many stars in each of them.
+    private synchronized PositionGrid starGrid(double maxDistance){
+        double cellSize = 2 / Math.sqrt(Math.max(1, stars.size()));
+        if(maxDistance > 0)
+            cellSize = Math.min(cellSize, maxDistance);
+        if(starGrid == null
+                || cellSize > GRID_CELL_SIZE_FACTOR * starGrid.cellSize()
+                || starGrid.cellSize() > GRID_CELL_SIZE_FACTOR * cellSize)
+            starGrid = new PositionGrid(starPositions, cellSize);
+        return starGrid;
+    }
+
+    // The index of the position closest to c, strictly closer than maxDistance (or exactly at c, the last one being
+    // kept, if exact is true), or -1 if there is none.
+    private static int closestIndex(double[] positions, CartesianCoordinates c, double maxDistance, boolean exact){
+        int closest = -1;
+        double minDistance = maxDistance;
+        for(int i = 0; i < positions.length / 2; ++i){
+            double x = positions[2*i];
+            double y = positions[2*i + 1];
+            if(exact){
+                if(c.x() == x && c.y() == y)
+                    closest = i;
+            }
+            else if(isInSquare(c, minDistance, x, y)){
+                double distance = distance(positions, i, c);
+                if(distance < minDistance){
+                    minDistance = distance;
+                    closest = i;
+                }
+            }
+        }
+        return closest;
+    }
+
+    private static double distance(double[] positions, int index, CartesianCoordinates c){
+        double dx = positions[2*index] - c.x();
+        double dy = positions[2*index + 1] - c.y();
+        return Math.sqrt(dx*dx + dy*dy);
+    }
+
+    // Same test as ClosedInterval.contains, without building the intervals (which would fail for a distance of 0).
+    private static boolean isInSquare(CartesianCoordinates c, double halfSide, double x, double y){
+        return c.x() - halfSide <= x && x <= c.x() + halfSide
+                && c.y() - halfSide <= y && y <= c.y() + halfSide;
+    }
 }
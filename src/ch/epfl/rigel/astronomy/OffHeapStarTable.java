@@ -0,0 +1,327 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A star table keeping every property of the stars in its own direct buffer, outside of the Java heap,
+ * the stars themselves being only built on demand. The buffers are written by a builder, to which the stars
+ * can be added one by one without ever being kept as objects.
+ *
+ * @author Mounir Raki (310287)
+ */
+final class OffHeapStarTable extends ColumnarStarTable {
+    private final int size;
+    private final DoubleBuffer ra;
+    private final DoubleBuffer dec;
+    private final FloatBuffer magnitude;
+    private final FloatBuffer colorIndex;
+    private final IntBuffer colorTemperature;
+    private final IntBuffer hipparcosId;
+    private final IntBuffer nameOffsets;
+    private final ByteBuffer names;
+
+    /**
+     * Constructs a table containing the given stars, which are only read once.
+     *
+     * @param stars the stars of the table
+     * @throws IllegalArgumentException if there are too many stars for a column to fit in a single buffer
+     */
+    OffHeapStarTable(List<Star> stars){
+        this(builderOf(stars));
+    }
+
+    // The table of the stars added until now to the given builder, sharing its buffers.
+    private OffHeapStarTable(Builder builder){
+        size = builder.size;
+        ra = builder.ra.asDoubleBuffer();
+        dec = builder.dec.asDoubleBuffer();
+        magnitude = builder.magnitude.asFloatBuffer();
+        colorIndex = builder.colorIndex.asFloatBuffer();
+        colorTemperature = builder.colorTemperature.asIntBuffer();
+        hipparcosId = builder.hipparcosId.asIntBuffer();
+        nameOffsets = builder.nameOffsets.asIntBuffer();
+        names = builder.names;
+    }
+
+    private static Builder builderOf(List<Star> stars){
+        Builder builder = new Builder(stars.size());
+        for(Star star : stars)
+            builder.addStar(star);
+        return builder;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double ra(int index) {
+        return ra.get(index);
+    }
+
+    @Override
+    public double dec(int index) {
+        return dec.get(index);
+    }
+
+    @Override
+    public float magnitude(int index) {
+        return magnitude.get(index);
+    }
+
+    @Override
+    public int colorTemperature(int index) {
+        return colorTemperature.get(index);
+    }
+
+    @Override
+    public int hipparcosId(int index) {
+        return hipparcosId.get(index);
+    }
+
+    @Override
+    float colorIndex(int index) {
+        return colorIndex.get(index);
+    }
+
+    @Override
+    int nameOffset(int index) {
+        return nameOffsets.get(index);
+    }
+
+    @Override
+    ByteBuffer names() {
+        return names;
+    }
+
+    private static ByteBuffer allocate(int bytes){
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * A builder writing the properties of the stars added to it straight into direct buffers, which grow as needed,
+     * so that the stars never have to be kept as objects. The builder is itself a table of the stars added until
+     * now, and the tables it builds share its buffers: the stars added after a table is built are written beyond
+     * the stars of the table, or into new buffers, and do not change it.
+     *
+     * @author Mounir Raki (310287)
+     */
+    static final class Builder extends ColumnarStarTable {
+        private final static int INITIAL_CAPACITY = 1 << 10;
+        private final static int MAX_CAPACITY = Integer.MAX_VALUE / Double.BYTES - 1;
+
+        private int size;
+        private ByteBuffer ra;
+        private ByteBuffer dec;
+        private ByteBuffer magnitude;
+        private ByteBuffer colorIndex;
+        private ByteBuffer colorTemperature;
+        private ByteBuffer hipparcosId;
+        private ByteBuffer nameOffsets;
+        private ByteBuffer names;
+
+        /**
+         * Constructs a builder without any star.
+         */
+        Builder(){
+            this(INITIAL_CAPACITY);
+        }
+
+        /**
+         * Constructs a builder without any star, whose buffers can hold the given number of stars before growing.
+         *
+         * @param capacity the number of stars the buffers can hold
+         * @throws IllegalArgumentException if the capacity is negative, or too large for a column to fit in a buffer
+         */
+        Builder(int capacity){
+            Preconditions.checkArgument(capacity >= 0 && capacity <= MAX_CAPACITY);
+            ra = allocate(capacity * Double.BYTES);
+            dec = allocate(capacity * Double.BYTES);
+            magnitude = allocate(capacity * Float.BYTES);
+            colorIndex = allocate(capacity * Float.BYTES);
+            colorTemperature = allocate(capacity * Integer.BYTES);
+            hipparcosId = allocate(capacity * Integer.BYTES);
+            nameOffsets = allocate((capacity + 1) * Integer.BYTES);
+            names = allocate(capacity * Integer.BYTES);
+        }
+
+        /**
+         * Adds the given star after the stars of the builder.
+         *
+         * @param star the star to add
+         * @throws IllegalArgumentException if the buffers cannot grow enough to hold the star
+         */
+        void addStar(Star star){
+            byte[] name = star.name().getBytes(UTF_8);
+            int nameStart = reserve(name.length);
+            for(int i = 0; i < name.length; ++i)
+                names.put(nameStart + i, name[i]);
+            addColumns(star.equatorialPos().ra(), star.equatorialPos().dec(), (float) star.magnitude(),
+                    star.colorIndex(), star.colorTemperature(), star.hipparcosId(), nameStart + name.length);
+        }
+
+        /**
+         * Adds the star at the given index of the given table after the stars of the builder, copying its properties
+         * from the columns of the table without building it, and thus without checking them.
+         *
+         * @param table the table of the star
+         * @param index the index of the star in the table
+         * @throws IllegalArgumentException if the buffers cannot grow enough to hold the star
+         */
+        void addStar(ColumnarStarTable table, int index){
+            int tableNameStart = table.nameOffset(index);
+            int nameLength = table.nameOffset(index + 1) - tableNameStart;
+            int nameStart = reserve(nameLength);
+            ByteBuffer tableNames = table.names();
+            for(int i = 0; i < nameLength; ++i)
+                names.put(nameStart + i, tableNames.get(tableNameStart + i));
+            addColumns(table.ra(index), table.dec(index), table.magnitude(index), table.colorIndex(index),
+                    table.colorTemperature(index), table.hipparcosId(index), nameStart + nameLength);
+        }
+
+        /**
+         * Sorts the stars of the builder by increasing magnitude, the stars of equal magnitude keeping their order.
+         * The stars are copied into new buffers, so that the tables already built do not change.
+         *
+         * @return the former index of every star, at its new index
+         */
+        int[] sortByMagnitude(){
+            // The bits of a float, with those of the negative floats reversed, are ordered as the floats themselves,
+            // and the index in the low bits of a key keeps the order of the stars of equal magnitude.
+            long[] keys = new long[size];
+            for(int i = 0; i < size; ++i){
+                int bits = Float.floatToIntBits(magnitude(i));
+                keys[i] = (long) (bits ^ ((bits >> 31) & Integer.MAX_VALUE)) << 32 | i;
+            }
+            Arrays.sort(keys);
+
+            int[] order = new int[size];
+            Builder sorted = new Builder(size);
+            for(int i = 0; i < size; ++i){
+                order[i] = (int) keys[i];
+                sorted.addStar(this, order[i]);
+            }
+
+            ra = sorted.ra;
+            dec = sorted.dec;
+            magnitude = sorted.magnitude;
+            colorIndex = sorted.colorIndex;
+            colorTemperature = sorted.colorTemperature;
+            hipparcosId = sorted.hipparcosId;
+            nameOffsets = sorted.nameOffsets;
+            names = sorted.names;
+            return order;
+        }
+
+        /**
+         * Builds the table of the stars added until now to the builder, which shares its buffers.
+         *
+         * @return the table of the stars added until now to the builder
+         */
+        OffHeapStarTable build(){
+            return new OffHeapStarTable(this);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public double ra(int index) {
+            return ra.getDouble(index * Double.BYTES);
+        }
+
+        @Override
+        public double dec(int index) {
+            return dec.getDouble(index * Double.BYTES);
+        }
+
+        @Override
+        public float magnitude(int index) {
+            return magnitude.getFloat(index * Float.BYTES);
+        }
+
+        @Override
+        public int colorTemperature(int index) {
+            return colorTemperature.getInt(index * Integer.BYTES);
+        }
+
+        @Override
+        public int hipparcosId(int index) {
+            return hipparcosId.getInt(index * Integer.BYTES);
+        }
+
+        @Override
+        float colorIndex(int index) {
+            return colorIndex.getFloat(index * Float.BYTES);
+        }
+
+        @Override
+        int nameOffset(int index) {
+            return nameOffsets.getInt(index * Integer.BYTES);
+        }
+
+        @Override
+        ByteBuffer names() {
+            return names;
+        }
+
+        // Makes room for one more star, whose name has the given length, and returns the offset of its name.
+        private int reserve(int nameLength){
+            int capacity = hipparcosId.capacity() / Integer.BYTES;
+            if(size == capacity){
+                Preconditions.checkArgument(capacity < MAX_CAPACITY);
+                int grownCapacity = (int) Math.min(Math.max(2L * capacity, 1), MAX_CAPACITY);
+                ra = grown(ra, grownCapacity * Double.BYTES, size * Double.BYTES);
+                dec = grown(dec, grownCapacity * Double.BYTES, size * Double.BYTES);
+                magnitude = grown(magnitude, grownCapacity * Float.BYTES, size * Float.BYTES);
+                colorIndex = grown(colorIndex, grownCapacity * Float.BYTES, size * Float.BYTES);
+                colorTemperature = grown(colorTemperature, grownCapacity * Integer.BYTES, size * Integer.BYTES);
+                hipparcosId = grown(hipparcosId, grownCapacity * Integer.BYTES, size * Integer.BYTES);
+                nameOffsets = grown(nameOffsets, (grownCapacity + 1) * Integer.BYTES, (size + 1) * Integer.BYTES);
+            }
+
+            int nameStart = nameOffset(size);
+            long nameEnd = (long) nameStart + nameLength;
+            Preconditions.checkArgument(nameEnd <= Integer.MAX_VALUE);
+            if(nameEnd > names.capacity())
+                names = grown(names, (int) Math.min(Math.max(2L * names.capacity(), nameEnd), Integer.MAX_VALUE), nameStart);
+            return nameStart;
+        }
+
+        private void addColumns(double starRa, double starDec, float starMagnitude, float starColorIndex,
+                                int starColorTemperature, int starHipparcosId, int nameEnd){
+            ra.putDouble(size * Double.BYTES, starRa);
+            dec.putDouble(size * Double.BYTES, starDec);
+            magnitude.putFloat(size * Float.BYTES, starMagnitude);
+            colorIndex.putFloat(size * Float.BYTES, starColorIndex);
+            colorTemperature.putInt(size * Integer.BYTES, starColorTemperature);
+            hipparcosId.putInt(size * Integer.BYTES, starHipparcosId);
+            nameOffsets.putInt((size + 1) * Integer.BYTES, nameEnd);
+            ++size;
+        }
+
+        // A copy of the given buffer, of the given capacity, of which only the given number of bytes are used.
+        private static ByteBuffer grown(ByteBuffer buffer, int capacity, int used){
+            ByteBuffer content = buffer.duplicate();
+            content.position(0);
+            content.limit(used);
+            ByteBuffer grown = allocate(capacity);
+            grown.put(content);
+            grown.clear();
+            return grown;
+        }
+    }
+}
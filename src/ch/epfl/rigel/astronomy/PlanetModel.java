@@ -1,15 +1,18 @@
 package ch.epfl.rigel.astronomy;
 
+import ch.epfl.rigel.Preconditions;
 import ch.epfl.rigel.coordinates.EclipticCoordinates;
 import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
 import ch.epfl.rigel.math.Angle;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import static java.lang.Math.*;
 
 /**
  * Models of the eight planets of the solar system.
+ * The models are immutable, and can be used by several threads at the same time.
  *
  * @author Mounir Raki (310287)
  */
@@ -48,8 +51,9 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
     private final double magnitudeAt1UA;
 
     private final static double DAYS_IN_TROPICAL_YEAR = 365.242191;
+    // The number of values computed by orbit.
+    private final static int ORBIT_VALUE_COUNT = 4;
     private final double meanRevRatio;
-    private double radiusTimesLonDiff;
 
     PlanetModel(String frenchName, double revPeriod, double lonAtJ2010, double lonAtPerigee, double orbitEccentricity,
                 double orbitSMAxis, double orbitEclipticInclination, double lonOrbitalNode, double angularSizeAt1UA,
@@ -78,6 +82,88 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
      */
     @Override
     public Planet at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        return at(daysSinceJ2010, eclipticToEquatorialConversion, EarthOrbit.at(daysSinceJ2010));
+    }
+
+    /**
+     * Generates the model of the planet from the position of the Earth at the same instant,
+     * which is then not computed again.
+     *
+     * @param daysSinceJ2010
+     *          Number of days after the epoch J2010
+     * @param eclipticToEquatorialConversion
+     *          Conversion from ecliptic to equatorial coordinates
+     * @param earth
+     *          The position of the Earth on its orbit at the same instant
+     * @return a new Planet with the corresponding model
+     */
+    Planet at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion, EarthOrbit earth) {
+        double[] orbit = new double[ORBIT_VALUE_COUNT];
+        orbit(daysSinceJ2010, earth.lonHelio, earth.radius, orbit);
+        EclipticCoordinates eclCoords = EclipticCoordinates.of(orbit[0], orbit[1]);
+
+        return new Planet(frenchName, eclipticToEquatorialConversion.apply(eclCoords), (float) orbit[2], (float) orbit[3]);
+    }
+
+    /**
+     * Models the planet for the instants of indices from (inclusive) to to (exclusive) of the given array, as
+     * CelestialObjectModel.atAll, without building any object for each instant.
+     *
+     * @param daysSinceJ2010
+     *          The numbers of days after the epoch J2010 of the instants
+     * @param from
+     *          The index of the first instant to model
+     * @param to
+     *          The index following the last instant to model
+     * @param ra
+     *          The array in which the right ascensions (in radians) are written, or null
+     * @param dec
+     *          The array in which the declinations (in radians) are written, or null
+     * @param angularSize
+     *          The array in which the angular sizes (in radians) are written, or null
+     * @param magnitude
+     *          The array in which the magnitudes are written, or null
+     * @throws IllegalArgumentException
+     *          if the planet is the Earth, which at cannot model either
+     * @throws IndexOutOfBoundsException
+     *          if the range of indices is not part of one of the arrays
+     */
+    @Override
+    public void atAll(double[] daysSinceJ2010, int from, int to,
+                      double[] ra, double[] dec, double[] angularSize, double[] magnitude){
+        Preconditions.checkArgument(this != EARTH);
+        Objects.checkFromToIndex(from, to, daysSinceJ2010.length);
+        if(ra != null)
+            Objects.checkFromToIndex(from, to, ra.length);
+        if(dec != null)
+            Objects.checkFromToIndex(from, to, dec.length);
+        if(angularSize != null)
+            Objects.checkFromToIndex(from, to, angularSize.length);
+        if(magnitude != null)
+            Objects.checkFromToIndex(from, to, magnitude.length);
+
+        double[] orbit = new double[ORBIT_VALUE_COUNT];
+        double[] equatorialPos = new double[2];
+        for(int i = from; i < to; ++i){
+            double days = daysSinceJ2010[i];
+            double earthTrueAnomaly = EARTH.trueAnomaly(EARTH.meanAnomaly(days));
+            orbit(days, EARTH.lonHelio(earthTrueAnomaly), EARTH.radius(earthTrueAnomaly), orbit);
+
+            EclipticToEquatorialConversion.convert(Epoch.julianCenturiesSinceJ2000(days), orbit[0], orbit[1], equatorialPos, 0);
+            if(ra != null)
+                ra[i] = equatorialPos[0];
+            if(dec != null)
+                dec[i] = equatorialPos[1];
+            if(angularSize != null)
+                angularSize[i] = orbit[2];
+            if(magnitude != null)
+                magnitude[i] = orbit[3];
+        }
+    }
+
+    // Computes the geocentric ecliptic longitude and latitude, the angular size and the magnitude of the planet (the
+    // last two rounded to floats) from the position of the Earth on its orbit, and writes them in this order in orbit.
+    private void orbit(double daysSinceJ2010, double lonEarthHelio, double earthRadius, double[] orbit) {
         double cosOrbitEclipticInclination = cos(this.orbitEclipticInclination);
         double sinOrbitEclipticInclination = sin(this.orbitEclipticInclination);
 
@@ -97,16 +183,11 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
                 sinLonDifference * cosOrbitEclipticInclination,
                 cosLonDifference) + lonOrbitalNode;
 
-        double earthMeanAnomaly = EARTH.meanAnomaly(daysSinceJ2010);
-        double earthTrueAnomaly = EARTH.trueAnomaly(earthMeanAnomaly);
-        double lonEarthHelio = EARTH.lonHelio(earthTrueAnomaly);
-        double earthRadius = EARTH.radius(earthTrueAnomaly);
-        radiusTimesLonDiff = earthRadius * sin(lonEclHelio - lonEarthHelio);
+        double radiusTimesLonDiff = earthRadius * sin(lonEclHelio - lonEarthHelio);
 
 
-        double lonEclGeo = this.lonEclGeo(lonEarthHelio, earthRadius, lonEclHelio, eclRadius);
+        double lonEclGeo = this.lonEclGeo(lonEarthHelio, earthRadius, lonEclHelio, eclRadius, radiusTimesLonDiff);
         double latEclGeo = atan((eclRadius * tan(latEclHelio) * sin(lonEclGeo - lonEclHelio)) / radiusTimesLonDiff);
-        EclipticCoordinates eclCoords = EclipticCoordinates.of(Angle.normalizePositive(lonEclGeo), latEclGeo);
 
         double distanceToEarth = sqrt(earthRadius*earthRadius + radius*radius - 2*radius*earthRadius*cos(lonPlanetHelio - lonEarthHelio)*cos(latEclHelio));
         double angularSize = angularSizeAt1UA / distanceToEarth;
@@ -114,10 +195,40 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
         double phase = (1 + cos(lonEclGeo - lonPlanetHelio)) / 2;
         double magnitude = magnitudeAt1UA + 5* log10((radius * distanceToEarth) / sqrt(phase));
 
-        return new Planet(frenchName, eclipticToEquatorialConversion.apply(eclCoords), (float) angularSize, (float) magnitude);
+        orbit[0] = Angle.normalizePositive(lonEclGeo);
+        orbit[1] = latEclGeo;
+        orbit[2] = (float) angularSize;
+        orbit[3] = (float) magnitude;
     }
 
 
+    /**
+     * The heliocentric longitude and the radius of the orbit of the Earth at a given instant,
+     * which every planet needs to compute its geocentric position.
+     */
+    static final class EarthOrbit {
+        private final double lonHelio;
+        private final double radius;
+
+        private EarthOrbit(double lonHelio, double radius){
+            this.lonHelio = lonHelio;
+            this.radius = radius;
+        }
+
+        /**
+         * Computes the position of the Earth on its orbit.
+         *
+         * @param daysSinceJ2010
+         *          Number of days after the epoch J2010
+         * @return the position of the Earth on its orbit
+         */
+        static EarthOrbit at(double daysSinceJ2010){
+            double earthMeanAnomaly = EARTH.meanAnomaly(daysSinceJ2010);
+            double earthTrueAnomaly = EARTH.trueAnomaly(earthMeanAnomaly);
+            return new EarthOrbit(EARTH.lonHelio(earthTrueAnomaly), EARTH.radius(earthTrueAnomaly));
+        }
+    }
+
     private double meanAnomaly(double daysSinceJ2010) {
         return meanRevRatio*daysSinceJ2010 + lonAtJ2010 - lonAtPerigee;
     }
@@ -134,7 +245,8 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
         return trueAnomaly + lonAtPerigee;
     }
 
-    private double lonEclGeo(double lonEarthHelio, double earthRadius, double lonEclHelio, double eclRadius) {
+    private double lonEclGeo(double lonEarthHelio, double earthRadius, double lonEclHelio, double eclRadius,
+                             double radiusTimesLonDiff) {
         if(orbitSMAxis < EARTH.orbitSMAxis) {
             return Angle.TAU / 2 + lonEarthHelio + atan2(
                     eclRadius* sin(lonEarthHelio - lonEclHelio),
@@ -0,0 +1,152 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.CartesianCoordinates;
+
+import java.util.Arrays;
+
+/**
+ * A spatial hash grid over points of the plane, used to find the point closest to a given one without going through
+ * all of them. The plane is divided into square cells, and the indices of the points of each cell are kept together,
+ * in increasing order, in the bucket into which the coordinates of the cell are hashed.
+ *
+ * @author Mounir Raki (310287)
+ */
+final class PositionGrid {
+    private final double[] positions;
+    private final double cellSize;
+    private final int mask;
+    private final int[] bucketStart;
+    private final int[] order;
+    // The points whose coordinates are not finite, which belong to no cell.
+    private final int[] outside;
+
+    /**
+     * Builds the grid of the given points.
+     *
+     * @param positions the coordinates of the points (x and y of the point of index i at 2i and 2i + 1)
+     * @param cellSize the side of the cells, which should be close to the usual search distance (strictly positive)
+     */
+    PositionGrid(double[] positions, double cellSize){
+        this.positions = positions;
+        this.cellSize = cellSize;
+
+        int count = positions.length / 2;
+        int bucketCount = Integer.highestOneBit(Math.max(1, count)) * 2;
+        mask = bucketCount - 1;
+
+        int[] buckets = new int[count];
+        bucketStart = new int[bucketCount + 1];
+        int outsideCount = 0;
+        for(int i = 0; i < count; ++i){
+            double x = positions[2*i], y = positions[2*i + 1];
+            if(Double.isFinite(x) && Double.isFinite(y)){
+                buckets[i] = bucket(cell(x), cell(y));
+                ++bucketStart[buckets[i] + 1];
+            }
+            else {
+                buckets[i] = -1;
+                ++outsideCount;
+            }
+        }
+        for(int b = 0; b < bucketCount; ++b)
+            bucketStart[b + 1] += bucketStart[b];
+
+        order = new int[count - outsideCount];
+        outside = new int[outsideCount];
+        int[] next = Arrays.copyOf(bucketStart, bucketCount);
+        int nextOutside = 0;
+        for(int i = 0; i < count; ++i){
+            if(buckets[i] >= 0)
+                order[next[buckets[i]]++] = i;
+            else
+                outside[nextOutside++] = i;
+        }
+    }
+
+    /**
+     * Returns the index of the point closest to c among those strictly closer than maxDistance, the smallest index
+     * being kept in case of a tie. If exact is true, the index of the last point located exactly at c is returned instead.
+     * This gives the same result as going through all the points in order.
+     *
+     * @param c the point from which the closest point is searched
+     * @param maxDistance the distance under which the points are searched
+     * @param exact whether only the points located exactly at c are searched
+     * @return the index of the closest point, or -1 if there is none
+     */
+    int closestIndex(CartesianCoordinates c, double maxDistance, boolean exact){
+        Search search = new Search(c, maxDistance, exact);
+        long minCellX = cell(c.x() - maxDistance), maxCellX = cell(c.x() + maxDistance);
+        long minCellY = cell(c.y() - maxDistance), maxCellY = cell(c.y() + maxDistance);
+
+        boolean finite = Double.isFinite(c.x()) && Double.isFinite(c.y()) && Double.isFinite(maxDistance);
+        if(!finite || (double) (maxCellX - minCellX + 1) * (maxCellY - minCellY + 1) > bucketStart.length){
+            for(int i = 0; i < positions.length / 2; ++i)
+                search.consider(i);
+            return search.closest;
+        }
+
+        for(long cellX = minCellX; cellX <= maxCellX; ++cellX){
+            for(long cellY = minCellY; cellY <= maxCellY; ++cellY){
+                int bucket = bucket(cellX, cellY);
+                for(int k = bucketStart[bucket]; k < bucketStart[bucket + 1]; ++k)
+                    search.consider(order[k]);
+            }
+        }
+        for(int i : outside)
+            search.consider(i);
+        return search.closest;
+    }
+
+    /**
+     * Returns the side of the cells of the grid.
+     *
+     * @return the side of the cells of the grid
+     */
+    double cellSize(){
+        return cellSize;
+    }
+
+    private long cell(double coordinate){
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    private int bucket(long cellX, long cellY){
+        long hash = cellX * 0x9E3779B97F4A7C15L + cellY * 0xC2B2AE3D27D4EB4FL;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private final class Search {
+        private final CartesianCoordinates c;
+        private final boolean exact;
+        private final double maxDistance;
+        private double minDistance;
+        private int closest = -1;
+
+        private Search(CartesianCoordinates c, double maxDistance, boolean exact){
+            this.c = c;
+            this.exact = exact;
+            this.maxDistance = maxDistance;
+            this.minDistance = maxDistance;
+        }
+
+        // The points may be considered in any order, and more than once.
+        private void consider(int i){
+            double x = positions[2*i];
+            double y = positions[2*i + 1];
+            if(exact){
+                if(c.x() == x && c.y() == y && i > closest)
+                    closest = i;
+            }
+            else if(c.x() - maxDistance <= x && x <= c.x() + maxDistance
+                    && c.y() - maxDistance <= y && y <= c.y() + maxDistance){
+                double dx = x - c.x();
+                double dy = y - c.y();
+                double distance = Math.sqrt(dx*dx + dy*dy);
+                if(distance < minDistance || (distance == minDistance && closest >= 0 && i < closest)){
+                    minDistance = distance;
+                    closest = i;
+                }
+            }
+        }
+    }
+}
@@ -3,9 +3,7 @@ package ch.epfl.rigel.astronomy;
 import ch.epfl.rigel.coordinates.GeographicCoordinates;
 import ch.epfl.rigel.math.Angle;
 import ch.epfl.rigel.math.Polynomial;
-import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
 
 /**
  * A sidereal time.
@@ -14,6 +12,7 @@ import java.time.temporal.ChronoUnit;
  */
 public final class SiderealTime {
     private final static double MS_PER_HR = 3600.0 * 1000.0;
+    private final static long MS_PER_DAY = 24 * 3600 * 1000;
     private final static Polynomial P1 = Polynomial.of(0.000025862, 2400.051336, 6.697374558);
     private final static double P2_COEFFICIENT = 1.002737909;
 
@@ -23,16 +22,29 @@ public final class SiderealTime {
      * Calculates the greenwich sidereal time from a couple date/time in radians.
      *
      * @param when
-     *          a couple date/time (in ZonedDateTime)
+     *          a couple date/time (in ZonedDateTime), rounded down to the millisecond
      *
      * @return the greenwich sidereal time, in radians and normalized to the interval [0, TAU[
      */
     public static double greenwich(ZonedDateTime when){
-        ZonedDateTime whenInUTC = when.withZoneSameInstant(ZoneOffset.UTC);
-        ZonedDateTime whenInDaysOnly = whenInUTC.truncatedTo(ChronoUnit.DAYS);
+        return greenwich(when.toInstant().toEpochMilli());
+    }
+
+    /**
+     * Calculates the greenwich sidereal time in radians of an instant given by its number of milliseconds since
+     * 1970-01-01T00:00Z, without building any object.
+     *
+     * @param epochMillis
+     *          the number (can be negative) of milliseconds between 1970-01-01T00:00Z and the instant
+     *
+     * @return the greenwich sidereal time, in radians and normalized to the interval [0, TAU[
+     */
+    public static double greenwich(long epochMillis){
+        // The start of the day (in UTC) of the instant, as the epoch 1970-01-01T00:00Z starts a day.
+        long msInDay = Math.floorMod(epochMillis, MS_PER_DAY);
 
-        double julianCenturiesUntilWhen = Epoch.J2000.julianCenturiesUntil(whenInDaysOnly);
-        double hoursInWhen = whenInDaysOnly.until(whenInUTC, ChronoUnit.MILLIS) / MS_PER_HR;
+        double julianCenturiesUntilWhen = Epoch.J2000.julianCenturiesUntil(epochMillis - msInDay);
+        double hoursInWhen = msInDay / MS_PER_HR;
 
         double S0 = P1.at(julianCenturiesUntilWhen);
         double S1 = P2_COEFFICIENT * hoursInWhen;
@@ -46,13 +58,28 @@ public final class SiderealTime {
      * and a geographic coordinate of the location.
      *
      * @param when
-     *          a couple date/time (in ZonedDateTime)
+     *          a couple date/time (in ZonedDateTime), rounded down to the millisecond
      * @param where
      *          the coordinates of the location from where to find the sidereal time (in GeographicCoordinates)
      *
      * @return the local sidereal time, in radians and normalized to the interval [0, TAU[
      */
     public static double local(ZonedDateTime when, GeographicCoordinates where){
-        return Angle.normalizePositive(greenwich(when) + where.lon());
+        return local(when.toInstant().toEpochMilli(), where);
+    }
+
+    /**
+     * Calculates the local sidereal time in radians of an instant given by its number of milliseconds since
+     * 1970-01-01T00:00Z, and of a geographic coordinate of the location, without building any object.
+     *
+     * @param epochMillis
+     *          the number (can be negative) of milliseconds between 1970-01-01T00:00Z and the instant
+     * @param where
+     *          the coordinates of the location from where to find the sidereal time (in GeographicCoordinates)
+     *
+     * @return the local sidereal time, in radians and normalized to the interval [0, TAU[
+     */
+    public static double local(long epochMillis, GeographicCoordinates where){
+        return Angle.normalizePositive(greenwich(epochMillis) + where.lon());
     }
 }
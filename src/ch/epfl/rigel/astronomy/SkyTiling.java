@@ -0,0 +1,193 @@
+package ch.epfl.rigel.astronomy;
+
+import java.util.Arrays;
+
+/**
+ * A hierarchical index of the positions of the stars of a table, in the manner of the Hierarchical Triangular Mesh.
+ *
+ * The sphere is first divided into the eight triangles of an octahedron, and each triangle is then recursively
+ * divided into four smaller ones by joining the middles of its sides, until the depth of the index is reached.
+ * Every star belongs to exactly one of these smallest triangles (the tiles), and the stars are sorted by tile so that
+ * the stars of any triangle of the hierarchy form a contiguous range.
+ *
+ * @author Mounir Raki (310287)
+ */
+final class SkyTiling {
+    private final static int MIN_DEPTH = 3;
+    private final static int MAX_DEPTH = 9;
+    private final static int STARS_PER_TILE = 8;
+    // Margin added to the angular radius of the triangles, so that rounding errors never exclude a star.
+    private final static double EPSILON = 1e-9;
+
+    private final static double[][] VERTICES = {
+            {0, 0, 1}, {1, 0, 0}, {0, 1, 0}, {-1, 0, 0}, {0, -1, 0}, {0, 0, -1}
+    };
+    private final static int[][] ROOTS = {
+            {1, 5, 2}, {2, 5, 3}, {3, 5, 4}, {4, 5, 1},
+            {1, 0, 4}, {4, 0, 3}, {3, 0, 2}, {2, 0, 1}
+    };
+
+    private final int size;
+    private final int depth;
+    private final int[] order;
+    private final int[] tileStart;
+
+    /**
+     * Builds the index of the stars of the given table.
+     *
+     * @param table the stars to index
+     */
+    SkyTiling(StarTable table){
+        size = table.size();
+        int d = MIN_DEPTH;
+        while(d < MAX_DEPTH && tileCount(d) * STARS_PER_TILE < size)
+            ++d;
+        depth = d;
+
+        int[] tiles = new int[size];
+        tileStart = new int[tileCount(depth) + 1];
+        for(int i = 0; i < size; ++i){
+            tiles[i] = tileOf(unitVector(table.ra(i), table.dec(i)));
+            ++tileStart[tiles[i] + 1];
+        }
+        for(int t = 0; t < tileCount(depth); ++t)
+            tileStart[t + 1] += tileStart[t];
+
+        order = new int[size];
+        int[] next = Arrays.copyOf(tileStart, tileCount(depth));
+        for(int i = 0; i < size; ++i)
+            order[next[tiles[i]]++] = i;
+    }
+
+    /**
+     * Returns the indices of the stars lying in the tiles that intersect the given cone, in increasing order.
+     * Every star closer than the given angular distance to the given position is part of the result, along with
+     * some other stars lying in the same tiles.
+     *
+     * @param ra the right ascension of the axis of the cone (in radians)
+     * @param dec the declination of the axis of the cone (in radians)
+     * @param radius the angular radius of the cone (in radians)
+     * @return the indices of the stars lying in the tiles that intersect the cone
+     */
+    int[] starsInCone(double ra, double dec, double radius){
+        if(radius >= Math.PI){
+            int[] all = new int[size];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+
+        double[] axis = unitVector(ra, dec);
+        Selection selection = new Selection();
+        for(int r = 0; r < ROOTS.length; ++r){
+            searchCone(VERTICES[ROOTS[r][0]], VERTICES[ROOTS[r][1]], VERTICES[ROOTS[r][2]],
+                    r, 0, axis, radius, selection);
+        }
+        int[] result = Arrays.copyOf(selection.indices, selection.size);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private void searchCone(double[] a, double[] b, double[] c, int id, int level,
+                            double[] axis, double radius, Selection selection){
+        double[] center = normalizedSum(a, b, c);
+        double triangleRadius = Math.max(angle(center, a), Math.max(angle(center, b), angle(center, c)));
+        if(angle(center, axis) > radius + triangleRadius + EPSILON)
+            return;
+
+        boolean inside = radius < Math.PI / 2
+                && angle(axis, a) <= radius && angle(axis, b) <= radius && angle(axis, c) <= radius;
+        if(inside || level == depth){
+            int shift = 2 * (depth - level);
+            selection.addAll(order, tileStart[id << shift], tileStart[(id + 1) << shift]);
+            return;
+        }
+
+        double[] ab = normalizedSum(a, b), bc = normalizedSum(b, c), ca = normalizedSum(c, a);
+        searchCone(a, ab, ca, 4 * id, level + 1, axis, radius, selection);
+        searchCone(b, bc, ab, 4 * id + 1, level + 1, axis, radius, selection);
+        searchCone(c, ca, bc, 4 * id + 2, level + 1, axis, radius, selection);
+        searchCone(bc, ca, ab, 4 * id + 3, level + 1, axis, radius, selection);
+    }
+
+    private int tileOf(double[] p){
+        int best = 0;
+        for(int r = 1; r < ROOTS.length; ++r){
+            if(containment(p, VERTICES[ROOTS[r][0]], VERTICES[ROOTS[r][1]], VERTICES[ROOTS[r][2]])
+                    > containment(p, VERTICES[ROOTS[best][0]], VERTICES[ROOTS[best][1]], VERTICES[ROOTS[best][2]]))
+                best = r;
+        }
+
+        int id = best;
+        double[] a = VERTICES[ROOTS[best][0]], b = VERTICES[ROOTS[best][1]], c = VERTICES[ROOTS[best][2]];
+        for(int level = 0; level < depth; ++level){
+            double[] ab = normalizedSum(a, b), bc = normalizedSum(b, c), ca = normalizedSum(c, a);
+            double[][][] children = {{a, ab, ca}, {b, bc, ab}, {c, ca, bc}, {bc, ca, ab}};
+
+            int child = 0;
+            double bestContainment = Double.NEGATIVE_INFINITY;
+            for(int k = 0; k < children.length; ++k){
+                double containment = containment(p, children[k][0], children[k][1], children[k][2]);
+                if(containment > bestContainment){
+                    bestContainment = containment;
+                    child = k;
+                }
+            }
+
+            id = 4 * id + child;
+            a = children[child][0];
+            b = children[child][1];
+            c = children[child][2];
+        }
+        return id;
+    }
+
+    private static int tileCount(int depth){
+        return 8 << (2 * depth);
+    }
+
+    // Positive if the point lies inside the triangle, negative if it lies outside (the triangle being
+    // counterclockwise when seen from outside the sphere), so that the triangle maximizing it contains the point.
+    private static double containment(double[] p, double[] a, double[] b, double[] c){
+        return Math.min(tripleProduct(p, a, b), Math.min(tripleProduct(p, b, c), tripleProduct(p, c, a)));
+    }
+
+    private static double tripleProduct(double[] p, double[] u, double[] v){
+        return p[0] * (u[1] * v[2] - u[2] * v[1])
+                + p[1] * (u[2] * v[0] - u[0] * v[2])
+                + p[2] * (u[0] * v[1] - u[1] * v[0]);
+    }
+
+    private static double angle(double[] u, double[] v){
+        double dot = u[0] * v[0] + u[1] * v[1] + u[2] * v[2];
+        return Math.acos(Math.max(-1, Math.min(1, dot)));
+    }
+
+    private static double[] normalizedSum(double[]... vectors){
+        double x = 0, y = 0, z = 0;
+        for(double[] v : vectors){
+            x += v[0];
+            y += v[1];
+            z += v[2];
+        }
+        double norm = Math.sqrt(x * x + y * y + z * z);
+        return new double[]{x / norm, y / norm, z / norm};
+    }
+
+    private static double[] unitVector(double ra, double dec){
+        double cosDec = Math.cos(dec);
+        return new double[]{cosDec * Math.cos(ra), cosDec * Math.sin(ra), Math.sin(dec)};
+    }
+
+    private final static class Selection {
+        private int[] indices = new int[64];
+        private int size = 0;
+
+        private void addAll(int[] source, int from, int to){
+            int count = to - from;
+            if(size + count > indices.length)
+                indices = Arrays.copyOf(indices, Math.max(2 * indices.length, size + count));
+            System.arraycopy(source, from, indices, size, count);
+            size += count;
+        }
+    }
+}
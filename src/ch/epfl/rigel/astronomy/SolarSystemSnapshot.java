@@ -0,0 +1,77 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Sun, the Moon and the seven planets other than the Earth at a given instant, computed together.
+ *
+ * The models of these objects share some intermediate results: the Moon depends on the Sun, and every planet on
+ * the position of the Earth on its orbit. Computed one model at a time, the Sun is computed twice and the orbit of
+ * the Earth seven times; computed here, each of them is computed once and given to the other models.
+ * Every object is exactly the one given by its own model (SunModel, MoonModel or PlanetModel) at the same instant.
+ *
+ * @author Mounir Raki (310287)
+ */
+public final class SolarSystemSnapshot {
+    private final Sun sun;
+    private final Moon moon;
+    private final List<Planet> planets;
+
+    private SolarSystemSnapshot(Sun sun, Moon moon, List<Planet> planets){
+        this.sun = sun;
+        this.moon = moon;
+        this.planets = planets;
+    }
+
+    /**
+     * Computes the Sun, the Moon and the planets for the number (can be negative) of days after the epoch J2010.
+     *
+     * @param daysSinceJ2010
+     *          Number of days after the epoch J2010
+     * @param eclipticToEquatorialConversion
+     *          Conversion from ecliptic to equatorial coordinates
+     * @return the Sun, the Moon and the planets at this instant
+     */
+    public static SolarSystemSnapshot at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion){
+        Sun sun = SunModel.SUN.at(daysSinceJ2010, eclipticToEquatorialConversion);
+        Moon moon = MoonModel.MOON.at(daysSinceJ2010, eclipticToEquatorialConversion, sun);
+
+        PlanetModel.EarthOrbit earth = PlanetModel.EarthOrbit.at(daysSinceJ2010);
+        List<Planet> planets = new ArrayList<>(PlanetModel.ALL.size() - 1);
+        for(PlanetModel pm : PlanetModel.ALL){
+            if(pm != PlanetModel.EARTH)
+                planets.add(pm.at(daysSinceJ2010, eclipticToEquatorialConversion, earth));
+        }
+        return new SolarSystemSnapshot(sun, moon, List.copyOf(planets));
+    }
+
+    /**
+     * Getter for the Sun.
+     *
+     * @return the Sun
+     */
+    public Sun sun(){
+        return sun;
+    }
+
+    /**
+     * Getter for the Moon.
+     *
+     * @return the Moon
+     */
+    public Moon moon(){
+        return moon;
+    }
+
+    /**
+     * Getter for the list of the seven planets other than the Earth, in the order of PlanetModel.ALL.
+     *
+     * @return the list of the seven planets (without the Earth)
+     */
+    public List<Planet> planets(){
+        return planets;
+    }
+}
@@ -11,6 +11,7 @@ import ch.epfl.rigel.math.ClosedInterval;
  */
 public final class Star extends CelestialObject {
     private final int hipparcosId;
+    private final float colorIndex;
     private final double colorTemperature;
     private final static ClosedInterval COLORINDEX_INTERVAL = ClosedInterval.of(-0.5, 5.5);
 
@@ -36,8 +37,20 @@ public final class Star extends CelestialObject {
         Preconditions.checkArgument(hipparcosId >= 0);
         Preconditions.checkInInterval(COLORINDEX_INTERVAL, colorIndex);
         this.hipparcosId = hipparcosId;
+        this.colorIndex = colorIndex;
+        this.colorTemperature = colorTemperatureOf(colorIndex);
+    }
+
+    /**
+     * Calculates the color temperature of a star from its color index, as the constructor does.
+     *
+     * @param colorIndex
+     *          the color index of the star
+     * @return the color temperature of the star, before it is rounded down by colorTemperature
+     */
+    static double colorTemperatureOf(float colorIndex){
         double factorColorIndex = 0.92 * colorIndex;
-        this.colorTemperature = 4600 * ((1 / (factorColorIndex + 1.7)) + (1 / (factorColorIndex + 0.62)));
+        return 4600 * ((1 / (factorColorIndex + 1.7)) + (1 / (factorColorIndex + 0.62)));
     }
 
     /**
@@ -49,6 +62,14 @@ public final class Star extends CelestialObject {
         return hipparcosId;
     }
 
+    /**
+     * Getter for the color index, from which the color temperature is derived.
+     *
+     * @return the color index of the Star
+     */
+    float colorIndex(){
+        return colorIndex;
+    }
 
     /**
      * Calculates the color temperature of the Star.
@@ -1,9 +1,17 @@
 package ch.epfl.rigel.astronomy;
 
 import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.EquatorialProjection;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
 
 /**
  * The class describing the behavior of a star catalogue.
@@ -12,47 +20,66 @@ import java.util.*;
  * @author Mounir Raki (310287)
  */
 public final class StarCatalogue {
-    private final List<Star> stars;
-    private final Map<Asterism, List<Integer>> map;
+    private final StarTable table;
+    private final AsterismTable asterismTable;
+    private final int[] asterismStarIndices;
+    private final Star[] asterismStars;
+    private Boolean sortedByMagnitude;
+    private SkyTiling tiling;
+    private VisibilityIndex visibilityIndex;
+    private double[][] unitVectors;
 
     /**
-     * Creates an instance of a star catalogue.
+     * Creates an instance of a star catalogue, keeping its stars as objects.
      *
      * @param stars The list of stars that are used to construct a star catalogue
      * @param asterisms The list of asterisms used to construct a star catalogue
      */
     public StarCatalogue(List<Star> stars, List<Asterism> asterisms) {
-        Map<Asterism, List<Integer>> tempMap = new HashMap<>();
-        Map<Star, Integer> starIndexMap = new HashMap<>();
-
-        int i=0;
-        for(Star s : stars){
-            starIndexMap.put(s, i);
-            ++i;
-        }
-
-        for(Asterism asterism : asterisms){
-            List<Integer> starIndexes = new ArrayList<>();
-            for(Star as : asterism.stars()){
-                Integer index = starIndexMap.get(as);
-                Preconditions.checkArgument(index != null);
-                starIndexes.add(index);
-            }
+        this(stars, asterisms, Storage.OBJECTS);
+    }
 
-            tempMap.put(asterism, List.copyOf(starIndexes));
-        }
+    /**
+     * Creates an instance of a star catalogue, whose stars are kept using the given storage.
+     *
+     * @param stars The list of stars that are used to construct a star catalogue
+     * @param asterisms The list of asterisms used to construct a star catalogue
+     * @param storage The way the stars of the catalogue are kept in memory
+     */
+    public StarCatalogue(List<Star> stars, List<Asterism> asterisms, Storage storage) {
+        this(newTable(stars, storage), stars, asterisms, HipparcosIndex.of(stars));
+    }
 
-        this.map = Map.copyOf(tempMap);
-        this.stars = List.copyOf(stars);
+    // The catalogue of the stars of the given table, which is kept as it is. The given list holds the same stars
+    // as the table, as the instances of which the asterisms are made.
+    private StarCatalogue(StarTable table, List<Star> stars, List<Asterism> asterisms, HipparcosIndex hipparcosIndex) {
+        this.table = table;
+        this.asterismTable = AsterismTable.of(asterisms, starIndexFunction(stars, hipparcosIndex));
+        this.asterismStarIndices = asterismTable.distinctStarIndices();
+        this.asterismStars = asterismStars(asterismTable, asterismStarIndices);
     }
 
     /**
      * Returns the list of stars constituting the star catalogue.
+     * With the ARRAYS and OFF_HEAP storages, this is a view whose stars are built anew on every access, except for
+     * the stars of the asterisms, which are always the instances given to the catalogue.
      *
      * @return The list of stars constituting the star catalogue
      */
     public List<Star> stars() {
-        return stars;
+        return new StarTable.StarList(this::star, table.size(), null);
+    }
+
+    /**
+     * Returns a view of the stars of the catalogue having the given indices, in the order of the indices,
+     * whose stars are obtained as those of stars().
+     *
+     * @param indices The indices of the stars in the catalogue (not copied)
+     *
+     * @return The list of the stars of the catalogue having the given indices
+     */
+    List<Star> stars(int[] indices) {
+        return new StarTable.StarList(this::star, table.size(), indices);
     }
 
     /**
@@ -61,7 +88,7 @@ public final class StarCatalogue {
      * @return A collection of the asterisms constituting a star catalogue
      */
     public Set<Asterism> asterisms() {
-        return map.keySet();
+        return asterismTable.asterisms();
     }
 
     /**
@@ -72,8 +99,255 @@ public final class StarCatalogue {
      * @return The list of indices in the star catalogue of the stars constituting a given asterism
      */
     public List<Integer> asterismIndices(Asterism asterism){
-        Preconditions.checkArgument(map.containsKey(asterism));
-        return map.get(asterism);
+        return asterismTable.indices(asterism);
+    }
+
+    /**
+     * Returns the table of the asterisms of the catalogue, giving the indices of their stars without any boxing.
+     *
+     * @return The table of the asterisms of the catalogue
+     */
+    AsterismTable asterismTable(){
+        return asterismTable;
+    }
+
+    /**
+     * Returns the indices (in the star catalogue) of the stars lying in the regions of the sky which intersect
+     * the given cone, in increasing order. Every star closer than the given angular distance to the given position
+     * is part of the result, along with some stars lying just beyond it.
+     * The stars are searched for using an index of the sky built on the first call, so that the cost of a search
+     * depends on the number of stars found rather than on the size of the catalogue.
+     *
+     * @param center The position of the axis of the cone
+     * @param radius The angular radius of the cone (in radians)
+     *
+     * @throws IllegalArgumentException if the radius is negative
+     * @return The indices of the stars lying in the regions of the sky which intersect the cone
+     */
+    public int[] starsInCone(EquatorialCoordinates center, double radius){
+        Preconditions.checkArgument(radius >= 0);
+        return tiling().starsInCone(center.ra(), center.dec(), radius);
+    }
+
+    /**
+     * Returns the indices (in the star catalogue) of the stars which may lie at or above the given altitude,
+     * seen from the given place at the given time, in increasing order. Every star lying at or above the altitude
+     * is part of the result, along with some stars lying just below it; the stars which never reach the altitude
+     * at the latitude of the place are never part of it.
+     * The stars are searched for using an index of the sky by declination and right ascension built on the first call,
+     * from which the ranges of right ascension to examine are found by binary searches. These ranges only need to be
+     * computed again when the latitude or the altitude changes.
+     *
+     * @param when The date and time of the observation
+     * @param where The place of the observation
+     * @param altitude The altitude (in radians)
+     *
+     * @throws IllegalArgumentException if the altitude is NaN
+     * @return The indices of the stars which may lie at or above the altitude
+     */
+    public int[] starsAbove(ZonedDateTime when, GeographicCoordinates where, double altitude){
+        Preconditions.checkArgument(!Double.isNaN(altitude));
+        return visibilityIndex().starsAbove(where.lat(), SiderealTime.local(when, where), altitude);
+    }
+
+    /**
+     * Returns the indices (in the star catalogue) of the stars which may reach the given altitude at some time of
+     * the day, seen from the given latitude, in increasing order, found by the same index as starsAbove. The array
+     * is shared until the latitude or the altitude changes, and must not be modified.
+     *
+     * @param latitude The latitude of the observation (in radians)
+     * @param altitude The altitude (in radians)
+     * @return The indices of the stars which may reach the altitude
+     */
+    int[] starsReaching(double latitude, double altitude){
+        return visibilityIndex().starsReaching(latitude, altitude);
+    }
+
+    /**
+     * Returns the indices (in the star catalogue) of the stars whose magnitude is at most the given one,
+     * in increasing order. If the stars of the catalogue are sorted by magnitude (see {@link Builder#sortByMagnitude()}),
+     * these are the first stars of the catalogue, which are found by a binary search; otherwise, every star is examined.
+     *
+     * @param magnitude The limiting magnitude
+     *
+     * @return The indices of the stars whose magnitude is at most the given one
+     */
+    public int[] starsBrighterThan(double magnitude){
+        if(sortedByMagnitude()){
+            int[] brighter = new int[brighterStarsCount(magnitude)];
+            Arrays.setAll(brighter, i -> i);
+            return brighter;
+        }
+        return IntStream.range(0, table.size()).filter(i -> table.magnitude(i) <= magnitude).toArray();
+    }
+
+    /**
+     * Returns the given indices of stars, in increasing order, without those of the stars whose magnitude is greater
+     * than the given one.
+     *
+     * @param indices The indices of stars, in increasing order
+     * @param magnitude The limiting magnitude
+     *
+     * @return The indices of the stars whose magnitude is at most the given one
+     */
+    int[] brighterAmong(int[] indices, double magnitude){
+        if(sortedByMagnitude()){
+            int count = Arrays.binarySearch(indices, brighterStarsCount(magnitude));
+            return Arrays.copyOf(indices, count >= 0 ? count : -count - 1);
+        }
+        return Arrays.stream(indices).filter(i -> table.magnitude(i) <= magnitude).toArray();
+    }
+
+    // The number of stars whose magnitude is at most the given one, the stars being sorted by magnitude.
+    private int brighterStarsCount(double magnitude){
+        int low = 0, high = table.size();
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(table.magnitude(middle) <= magnitude)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the indices (in the star catalogue) of the stars belonging to at least one asterism, in increasing order.
+     *
+     * @return The indices of the stars belonging to at least one asterism
+     */
+    int[] asterismStarIndices(){
+        return asterismStarIndices.clone();
+    }
+
+    /**
+     * Returns the unit vectors of the equatorial positions of the stars, computed on the first call and kept
+     * component by component: the array at index c contains the component c of the unit vectors of all the stars.
+     * The arrays are shared, and must not be modified.
+     *
+     * @return The three components of the unit vectors of the equatorial positions of the stars
+     */
+    synchronized double[][] unitVectors(){
+        if(unitVectors == null){
+            double[][] vectors = new double[3][table.size()];
+            double[] vector = new double[3];
+            for(int i = 0; i < table.size(); ++i){
+                EquatorialProjection.unitVector(table.equatorialPos(i), vector, 0);
+                vectors[0][i] = vector[0];
+                vectors[1][i] = vector[1];
+                vectors[2][i] = vector[2];
+            }
+            unitVectors = vectors;
+        }
+        return unitVectors;
+    }
+
+    // The stars of the asterisms are the instances given to the catalogue, and the other ones come from the table.
+    private Star star(int index){
+        int asterismStar = Arrays.binarySearch(asterismStarIndices, index);
+        return asterismStar >= 0 ? asterismStars[asterismStar] : table.star(index);
+    }
+
+    // The stars of the asterisms, in the order of their indices in the catalogue.
+    private static Star[] asterismStars(AsterismTable asterismTable, int[] asterismStarIndices){
+        Star[] stars = new Star[asterismStarIndices.length];
+        for(int a = 0; a < asterismTable.count(); ++a){
+            List<Star> asterismStars = asterismTable.asterism(a).stars();
+            for(int p = 0; p < asterismStars.size(); ++p)
+                stars[Arrays.binarySearch(asterismStarIndices, asterismTable.starIndex(a, p))] = asterismStars.get(p);
+        }
+        return stars;
+    }
+
+    // Whether the stars are sorted by magnitude, found on the first call so that a mapped catalogue is not read
+    // as long as it is not used.
+    private synchronized boolean sortedByMagnitude(){
+        if(sortedByMagnitude == null)
+            sortedByMagnitude = isSortedByMagnitude(table);
+        return sortedByMagnitude;
+    }
+
+    private static boolean isSortedByMagnitude(StarTable table){
+        for(int j = 1; j < table.size(); ++j){
+            if(table.magnitude(j - 1) > table.magnitude(j))
+                return false;
+        }
+        return true;
+    }
+
+    private synchronized VisibilityIndex visibilityIndex(){
+        if(visibilityIndex == null)
+            visibilityIndex = new VisibilityIndex(table);
+        return visibilityIndex;
+    }
+
+    private synchronized SkyTiling tiling(){
+        if(tiling == null)
+            tiling = new SkyTiling(table);
+        return tiling;
+    }
+
+    // Finds the stars of the asterisms by their Hipparcos ID, and only falls back to a map of all the stars
+    // if a star is not the one having its ID in the index (as when several stars have the same ID).
+    private static ToIntFunction<Star> starIndexFunction(List<Star> stars, HipparcosIndex hipparcosIndex){
+        Map<Star, Integer> starIndexMap = new HashMap<>();
+        return star -> {
+            int index = hipparcosIndex.get(star.hipparcosId());
+            if(index >= 0 && stars.get(index) == star)
+                return index;
+
+            if(starIndexMap.isEmpty()){
+                for(int i = 0; i < stars.size(); ++i)
+                    starIndexMap.put(stars.get(i), i);
+            }
+            return starIndexMap.getOrDefault(star, -1);
+        };
+    }
+
+    private static StarTable newTable(List<Star> stars, Storage storage){
+        switch(storage){
+            case ARRAYS:
+                return new ArrayStarTable(stars);
+            case OFF_HEAP:
+                return new OffHeapStarTable(stars);
+            default:
+                return new ListStarTable(stars);
+        }
+    }
+
+    /**
+     * Returns the table in which the stars of the catalogue are stored.
+     *
+     * @return The table in which the stars of the catalogue are stored
+     */
+    StarTable table() {
+        return table;
+    }
+
+    /**
+     * The ways the stars of a catalogue can be kept in memory.
+     *
+     * @author Mounir Raki (310287)
+     */
+    public enum Storage {
+        /**
+         * Every star is kept as an object.
+         */
+        OBJECTS,
+        /**
+         * Every property of the stars is kept in a primitive array, and the stars are only built on demand, except for
+         * the stars of the asterisms, which are kept as objects. This uses less memory and lets the stars be processed sequentially, which suits large catalogues.
+         */
+        ARRAYS,
+        /**
+         * Every property of the stars is kept in a direct buffer, outside of the Java heap, and the stars are only
+         * built on demand, except for the stars of the asterisms, which are kept as objects. A builder using this
+         * storage (see {@link Builder#Builder(Storage)}) writes the stars into the buffers as they are added, and
+         * never holds them as objects, so that the heap only has to hold what the catalogue indexes per star
+         * (its Hipparcos IDs and, once used, the regions of the sky, the visibility and the unit vectors of the
+         * stars), a few tens of bytes per star, instead of the stars themselves.
+         */
+        OFF_HEAP
     }
 
     /**
@@ -84,13 +358,35 @@ public final class StarCatalogue {
     public final static class Builder {
         private final List<Star> stars;
         private final List<Asterism> asterisms;
+        private final OffHeapStarTable.Builder columns;
+        private HipparcosIndex hipparcosIndex;
+        // The table whose stars are the stars of the builder, when they were all added at once from a table,
+        // or null. Its stars are only indexed by Hipparcos ID when needed.
+        private ColumnarStarTable table;
+        // The stars of the table or of the columns of the builder which were accessed, as they are only built
+        // when they are, after which the builder keeps them so that the asterisms are made of the same instances.
+        private Star[] tableStars;
 
         /**
-         * Constructor of the builder that initializes its internal parameters.
+         * Constructor of the builder that initializes its internal parameters, the stars being kept as objects.
          */
         public Builder(){
+            this(Storage.OBJECTS);
+        }
+
+        /**
+         * Constructor of the builder keeping the stars added to it using the given storage. With OFF_HEAP, the
+         * properties of the stars are written into direct buffers as the stars are added, which are not kept as
+         * objects, and build() gives a catalogue using this storage. With the other storages, the stars are kept
+         * as objects until the catalogue is built.
+         *
+         * @param storage The way the stars added to the builder are kept in memory
+         */
+        public Builder(Storage storage){
             this.stars = new ArrayList<>();
             this.asterisms = new ArrayList<>();
+            this.columns = storage == Storage.OFF_HEAP ? new OffHeapStarTable.Builder() : null;
+            this.hipparcosIndex = new HipparcosIndex();
         }
 
         /**
@@ -101,17 +397,172 @@ public final class StarCatalogue {
          * @return The builder
          */
         public Builder addStar(Star star){
-            stars.add(star);
+            detachTable();
+            if(columns != null){
+                hipparcosIndex.put(star.hipparcosId(), columns.size());
+                columns.addStar(star);
+            }
+            else {
+                hipparcosIndex.put(star.hipparcosId(), this.stars.size());
+                this.stars.add(star);
+            }
+            return this;
+        }
+
+        /**
+         * Adds the given stars, in their order, to the catalogue under construction and returns the builder.
+         * This is the same as adding them one by one, but the list of stars of the builder grows only once.
+         *
+         * @param stars The stars that will be included in the catalogue under construction
+         *
+         * @return The builder
+         */
+        public Builder addStars(List<Star> stars){
+            detachTable();
+            if(columns != null){
+                for(Star star : stars)
+                    addStar(star);
+                return this;
+            }
+            int first = this.stars.size();
+            this.stars.addAll(stars);
+            for(int i = first; i < this.stars.size(); ++i)
+                hipparcosIndex.put(this.stars.get(i).hipparcosId(), i);
+            return this;
+        }
+
+        /**
+         * Returns the index of the last star added to the catalogue under construction with the given Hipparcos ID.
+         * The stars are indexed as they are added, so that this is answered without going through them.
+         *
+         * @param hipparcosId The Hipparcos ID of the star
+         *
+         * @return The index of the star in the list of stars, or -1 if no star has this Hipparcos ID
+         */
+        public int indexOfHipparcosId(int hipparcosId){
+            return hipparcosIndex().get(hipparcosId);
+        }
+
+        /**
+         * Adds the stars of the given table, in their order, to the catalogue under construction and returns
+         * the builder. If the builder has no star yet, the table itself is kept, without building any star, and
+         * becomes the table of the catalogue built by build(); otherwise, its stars are added one by one.
+         * The stars of a kept table are only built when they are accessed, and only added one by one to the builder
+         * if other stars are added after them, or if they have to be sorted. With the OFF_HEAP storage, the stars
+         * of the table are never built, but copied column by column.
+         *
+         * @param table The table of the stars that will be included in the catalogue under construction
+         *
+         * @return The builder
+         */
+        Builder addTable(ColumnarStarTable table){
+            if(this.table == null && starCount() == 0){
+                this.table = table;
+                this.hipparcosIndex = null;
+            }
+            else if(columns != null){
+                detachTable();
+                for(int i = 0; i < table.size(); ++i){
+                    hipparcosIndex.put(table.hipparcosId(i), columns.size());
+                    columns.addStar(table, i);
+                }
+            }
+            else
+                addStars(table.stars());
+            return this;
+        }
+
+        // The number of stars of the builder.
+        private int starCount(){
+            return table != null ? table.size() : columns != null ? columns.size() : stars.size();
+        }
+
+        // The table holding the stars of the builder, or null if they are kept as objects.
+        private ColumnarStarTable columnarStars(){
+            return table != null ? table : columns;
+        }
+
+        // The index of the stars of the builder, built on the first call if the stars are the ones of a table.
+        private HipparcosIndex hipparcosIndex(){
+            if(hipparcosIndex == null)
+                hipparcosIndex = HipparcosIndex.of(table);
+            return hipparcosIndex;
+        }
+
+        // Adds the stars of the table of the builder, if any, one by one to its list or to its columns,
+        // so that it can be modified. The stars keep their indices.
+        private void detachTable(){
+            if(table != null){
+                hipparcosIndex();
+                if(columns != null){
+                    for(int i = 0; i < table.size(); ++i)
+                        columns.addStar(table, i);
+                }
+                else {
+                    stars.addAll(stars());
+                    tableStars = null;
+                }
+                table = null;
+            }
+        }
+
+        // The star of the builder at the given index, the builder holding its stars in a table or having held them.
+        private Star tableStar(int index){
+            ColumnarStarTable columnarStars = columnarStars();
+            if(columnarStars == null)
+                return stars.get(index);
+            if(tableStars == null || tableStars.length < columnarStars.size()){
+                int length = Math.max(columnarStars.size(), tableStars == null ? 0 : 2 * tableStars.length);
+                tableStars = tableStars == null ? new Star[length] : Arrays.copyOf(tableStars, length);
+            }
+            if(tableStars[index] == null)
+                tableStars[index] = columnarStars.star(index);
+            return tableStars[index];
+        }
+
+        /**
+         * Sorts the stars of the catalogue under construction by increasing magnitude, the stars of equal magnitude
+         * keeping their order, and returns the builder. The indices of the stars of the asterisms in the catalogue
+         * follow this new order.
+         *
+         * @return The builder
+         */
+        public Builder sortByMagnitude(){
+            if(columnarStars() != null && isSortedByMagnitude(columnarStars()))
+                return this;
+            detachTable();
+            if(columns != null){
+                int[] order = columns.sortByMagnitude();
+                if(tableStars != null){
+                    Star[] sortedStars = new Star[tableStars.length];
+                    for(int i = 0; i < order.length; ++i)
+                        sortedStars[i] = tableStars[order[i]];
+                    tableStars = sortedStars;
+                }
+                hipparcosIndex.clear();
+                for(int i = 0; i < columns.size(); ++i)
+                    hipparcosIndex.put(columns.hipparcosId(i), i);
+                return this;
+            }
+            stars.sort(Comparator.comparingDouble(Star::magnitude));
+            hipparcosIndex.clear();
+            for(int i = 0; i < stars.size(); ++i)
+                hipparcosIndex.put(stars.get(i).hipparcosId(), i);
             return this;
         }
 
         /**
          * Allows to obtain a unmodifiable and not immutable view on the stars of the catalogue under construction.
+         * If the builder uses the OFF_HEAP storage, or holds the stars of a table, the view keeps the number of stars
+         * the builder had when it was obtained, and its stars are built on their first access, and then kept by the
+         * builder.
          *
          * @return The unmodifiable and not immutable view on the stars of the catalogue under construction
          */
         public List<Star> stars(){
-            return Collections.unmodifiableList(stars);
+            return columnarStars() != null
+                    ? new StarTable.StarList(this::tableStar, columnarStars().size(), null)
+                    : Collections.unmodifiableList(stars);
         }
 
         /**
@@ -150,12 +601,51 @@ public final class StarCatalogue {
         }
 
         /**
-         * Builds the catalogue containing the stars and asterisms added until now to the builder.
+         * Adds the stars and/or asterisms from the given file to the catalogue and returns the builder.
+         *
+         * @param path The path of the file containing the stars and/or asterisms
+         * @param loader The loader used to read the data from the file
+         * @return The builder after adding the content of the file to its content
+         *
+         * @throws IOException In case of input or output error, the IOException will be thrown
+         */
+        public Builder loadFrom(Path path, Loader loader) throws IOException {
+            loader.load(path, this);
+            return this;
+        }
+
+        /**
+         * Builds the catalogue containing the stars and asterisms added until now to the builder. The stars are
+         * kept using the storage of the builder, unless they were all added at once from a table (as by the loader
+         * of a binary star catalogue), which the catalogue then keeps as it is.
          *
          * @return The star catalogue containing the stars and asterisms added until now to the builder
          */
         public StarCatalogue build(){
-            return new StarCatalogue(stars, asterisms);
+            if(table != null)
+                // The stars are only indexed by Hipparcos ID if the asterisms need it.
+                return new StarCatalogue(table, stars(), asterisms,
+                        asterisms.isEmpty() ? new HipparcosIndex() : hipparcosIndex());
+            return build(columns != null ? Storage.OFF_HEAP : Storage.OBJECTS);
+        }
+
+        /**
+         * Builds the catalogue containing the stars and asterisms added until now to the builder,
+         * keeping its stars using the given storage.
+         *
+         * @param storage The way the stars of the catalogue are kept in memory
+         *
+         * @return The star catalogue containing the stars and asterisms added until now to the builder
+         */
+        public StarCatalogue build(Storage storage){
+            if(storage == Storage.OFF_HEAP && table == null && columns != null)
+                return new StarCatalogue(columns.build(), stars(), asterisms, hipparcosIndex());
+
+            // The columns of a table are copied from stars built for the copy only, and not kept by the builder.
+            List<Star> storedStars = columnarStars() != null && storage != Storage.OBJECTS
+                    ? columnarStars().stars()
+                    : stars();
+            return new StarCatalogue(newTable(storedStars, storage), stars(), asterisms, hipparcosIndex());
         }
     }
 
@@ -174,5 +664,20 @@ public final class StarCatalogue {
          * @throws IOException In case of an input or output error, the IOException will be thrown
          */
         public abstract void load(InputStream inputStream, Builder builder) throws IOException;
+
+        /**
+         * Loads the stars and/or asterisms from the given file to the catalogue under construction by the builder.
+         * By default, the file is simply opened as an input stream, but loaders are free to access it more directly.
+         *
+         * @param path The path of the file containing the stars and/or asterisms
+         * @param builder The builder used to process the data from the file
+         *
+         * @throws IOException In case of an input or output error, the IOException will be thrown
+         */
+        public default void load(Path path, Builder builder) throws IOException {
+            try(InputStream inputStream = Files.newInputStream(path)){
+                load(inputStream, builder);
+            }
+        }
     }
 }
@@ -0,0 +1,134 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+/**
+ * The storage of the stars of a catalogue, giving access to their properties by index.
+ *
+ * @author Mounir Raki (310287)
+ */
+interface StarTable {
+    /**
+     * Returns the number of stars in the table.
+     *
+     * @return the number of stars in the table
+     */
+    int size();
+
+    /**
+     * Returns the right ascension of the star at the given index.
+     *
+     * @param index the index of the star
+     * @return the right ascension of the star (in radians)
+     */
+    double ra(int index);
+
+    /**
+     * Returns the declination of the star at the given index.
+     *
+     * @param index the index of the star
+     * @return the declination of the star (in radians)
+     */
+    double dec(int index);
+
+    /**
+     * Returns the magnitude of the star at the given index.
+     *
+     * @param index the index of the star
+     * @return the magnitude of the star
+     */
+    float magnitude(int index);
+
+    /**
+     * Returns the color temperature of the star at the given index.
+     *
+     * @param index the index of the star
+     * @return the color temperature of the star
+     */
+    int colorTemperature(int index);
+
+    /**
+     * Returns the Hipparcos ID of the star at the given index.
+     *
+     * @param index the index of the star
+     * @return the Hipparcos ID of the star
+     */
+    int hipparcosId(int index);
+
+    /**
+     * Returns the star at the given index, which may be built anew on every call: only the stars kept as objects
+     * are the same instances from one call to the next.
+     *
+     * @param index the index of the star
+     * @return the star at the given index
+     */
+    Star star(int index);
+
+    /**
+     * Returns the equatorial position of the star at the given index.
+     *
+     * @param index the index of the star
+     * @return the equatorial position of the star
+     */
+    default EquatorialCoordinates equatorialPos(int index){
+        return EquatorialCoordinates.of(ra(index), dec(index));
+    }
+
+    /**
+     * Returns an unmodifiable list view of the stars of the table.
+     *
+     * @return an unmodifiable list view of the stars of the table
+     */
+    default List<Star> stars(){
+        return new StarList(this::star, size(), null);
+    }
+
+    /**
+     * Returns an unmodifiable list view of the stars of the table having the given indices, in the order of the indices.
+     *
+     * @param indices the indices of the stars in the table (not copied)
+     * @return an unmodifiable list view of the stars of the table having the given indices
+     */
+    default List<Star> stars(int[] indices){
+        return new StarList(this::star, size(), indices);
+    }
+
+    /**
+     * An unmodifiable list of stars, or of some of them, which are obtained on demand from their index.
+     */
+    final class StarList extends AbstractList<Star> implements RandomAccess {
+        private final IntFunction<Star> star;
+        private final int starCount;
+        private final int[] indices;
+
+        /**
+         * Constructs the list of the stars having the given indices, in the order of the indices.
+         *
+         * @param star the function giving the star at an index
+         * @param starCount the number of stars, whose indices go from 0 to this number (excluded)
+         * @param indices the indices of the stars of the list (not copied), or null for all the stars
+         */
+        StarList(IntFunction<Star> star, int starCount, int[] indices){
+            this.star = star;
+            this.starCount = starCount;
+            this.indices = indices;
+        }
+
+        @Override
+        public Star get(int index) {
+            Objects.checkIndex(index, size());
+            return star.apply(indices == null ? index : indices[index]);
+        }
+
+        @Override
+        public int size() {
+            return indices == null ? starCount : indices.length;
+        }
+    }
+}
@@ -11,6 +11,11 @@ import java.util.Objects;
  * @author Nicolas Szwajcok (315213)
  */
 public final class Sun extends CelestialObject {
+    /**
+     * The magnitude of the Sun, which does not vary.
+     */
+    final static float MAGNITUDE = -26.7f;
+
     private final EclipticCoordinates eclipticPos;
     private final float meanAnomaly;
 
@@ -23,7 +28,7 @@ public final class Sun extends CelestialObject {
      * @param meanAnomaly The mean anomaly of the Sun
      */
     public Sun(EclipticCoordinates eclipticPos, EquatorialCoordinates equatorialPos, float angularSize, float meanAnomaly){
-        super("Soleil", equatorialPos, angularSize,-26.7f);
+        super("Soleil", equatorialPos, angularSize, MAGNITUDE);
         this.eclipticPos = Objects.requireNonNull(eclipticPos);
         this.meanAnomaly = meanAnomaly;
     }
@@ -4,6 +4,8 @@ import ch.epfl.rigel.coordinates.EclipticCoordinates;
 import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
 import ch.epfl.rigel.math.Angle;
 
+import java.util.Objects;
+
 import static java.lang.Math.*;
 
 /**
@@ -31,15 +33,88 @@ public enum SunModel implements CelestialObjectModel<Sun> {
      */
     @Override
     public Sun at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        double meanAnomaly = meanAnomaly(daysSinceJ2010);
+        double trueAnomaly = trueAnomaly(meanAnomaly);
+
+        EclipticCoordinates eclCoords = EclipticCoordinates.of(eclipticLon(trueAnomaly), 0);
+
+        return new Sun(eclCoords, eclipticToEquatorialConversion.apply(eclCoords), angularSize(trueAnomaly), (float) meanAnomaly);
+    }
+
+    /**
+     * Models the Sun for the instants of indices from (inclusive) to to (exclusive) of the given array, as
+     * CelestialObjectModel.atAll, without building any object for each instant.
+     *
+     * @param daysSinceJ2010 The numbers of days after the epoch J2010 of the instants
+     * @param from The index of the first instant to model
+     * @param to The index following the last instant to model
+     * @param ra The array in which the right ascensions (in radians) are written, or null
+     * @param dec The array in which the declinations (in radians) are written, or null
+     * @param angularSize The array in which the angular sizes (in radians) are written, or null
+     * @param magnitude The array in which the magnitudes are written, or null
+     * @throws IndexOutOfBoundsException if the range of indices is not part of one of the arrays
+     */
+    @Override
+    public void atAll(double[] daysSinceJ2010, int from, int to,
+                      double[] ra, double[] dec, double[] angularSize, double[] magnitude){
+        Objects.checkFromToIndex(from, to, daysSinceJ2010.length);
+        if(ra != null)
+            Objects.checkFromToIndex(from, to, ra.length);
+        if(dec != null)
+            Objects.checkFromToIndex(from, to, dec.length);
+        if(angularSize != null)
+            Objects.checkFromToIndex(from, to, angularSize.length);
+        if(magnitude != null)
+            Objects.checkFromToIndex(from, to, magnitude.length);
+
+        double[] equatorialPos = new double[2];
+        for(int i = from; i < to; ++i){
+            double trueAnomaly = trueAnomaly(meanAnomaly(daysSinceJ2010[i]));
+            EclipticToEquatorialConversion.convert(Epoch.julianCenturiesSinceJ2000(daysSinceJ2010[i]),
+                    eclipticLon(trueAnomaly), 0, equatorialPos, 0);
+            if(ra != null)
+                ra[i] = equatorialPos[0];
+            if(dec != null)
+                dec[i] = equatorialPos[1];
+            if(angularSize != null)
+                angularSize[i] = angularSize(trueAnomaly);
+            if(magnitude != null)
+                magnitude[i] = Sun.MAGNITUDE;
+        }
+    }
+
+    /**
+     * Computes the mean anomaly of the Sun, before it is rounded to a float by Sun.
+     *
+     * @param daysSinceJ2010 Number of days after the epoch J2010
+     * @return The mean anomaly of the Sun (in radians)
+     */
+    static double meanAnomaly(double daysSinceJ2010){
         double meanAngularSpeed = Angle.TAU / DAYS_IN_TROPICAL_YEAR;
-        double meanAnomaly = meanAngularSpeed*daysSinceJ2010 + SUN_LON_AT_J2010 - SUN_LON_AT_PERIGEE;
-        double trueAnomaly = meanAnomaly + 2*ORBITAL_ECCENTRICITY*sin(meanAnomaly);
-        double eclipticLon = trueAnomaly + SUN_LON_AT_PERIGEE;
+        return meanAngularSpeed*daysSinceJ2010 + SUN_LON_AT_J2010 - SUN_LON_AT_PERIGEE;
+    }
 
-        EclipticCoordinates eclCoords = EclipticCoordinates.of(Angle.normalizePositive(eclipticLon), 0);
+    /**
+     * Computes the true anomaly of the Sun.
+     *
+     * @param meanAnomaly The mean anomaly of the Sun, given by meanAnomaly
+     * @return The true anomaly of the Sun (in radians)
+     */
+    static double trueAnomaly(double meanAnomaly){
+        return meanAnomaly + 2*ORBITAL_ECCENTRICITY*sin(meanAnomaly);
+    }
 
-        double angularSize = THETA_ZERO * ((1 + ORBITAL_ECCENTRICITY*cos(trueAnomaly)) / (1 - ORBITAL_ECCENTRICITY*ORBITAL_ECCENTRICITY));
+    /**
+     * Computes the ecliptic longitude of the Sun.
+     *
+     * @param trueAnomaly The true anomaly of the Sun, given by trueAnomaly
+     * @return The ecliptic longitude of the Sun, normalized to [0, 2π[
+     */
+    static double eclipticLon(double trueAnomaly){
+        return Angle.normalizePositive(trueAnomaly + SUN_LON_AT_PERIGEE);
+    }
 
-        return new Sun(eclCoords, eclipticToEquatorialConversion.apply(eclCoords), (float) angularSize, (float) meanAnomaly);
+    private static float angularSize(double trueAnomaly){
+        return (float) (THETA_ZERO * ((1 + ORBITAL_ECCENTRICITY*cos(trueAnomaly)) / (1 - ORBITAL_ECCENTRICITY*ORBITAL_ECCENTRICITY)));
     }
 }
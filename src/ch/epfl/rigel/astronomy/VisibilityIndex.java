@@ -0,0 +1,218 @@
+package ch.epfl.rigel.astronomy;
+
+import java.util.Arrays;
+
+/**
+ * An index of the stars of a table by declination and right ascension, used to find the stars which may lie above
+ * a given altitude for an observer at a given latitude.
+ *
+ * The sky is divided into zones of equal height in declination, and the stars of each zone are sorted by right
+ * ascension. For a given latitude, the zones whose stars never reach the altitude are skipped, and the stars of the
+ * zones which only partly do are filtered by declination. In each remaining zone, the stars which may reach the
+ * altitude at the given local sidereal time form one or two ranges of right ascension centered on the meridian,
+ * which are found by binary searches. Only the width of these ranges depends on the latitude: they are computed
+ * again when the latitude or the altitude changes, but not when only the time does.
+ *
+ * @author Mounir Raki (310287)
+ */
+final class VisibilityIndex {
+    private final static int STARS_PER_ZONE = 64;
+    private final static int MAX_ZONE_COUNT = 2048;
+    private final static double TAU = 2 * Math.PI;
+    // Margin added to the widths of the ranges, so that rounding errors never exclude a star.
+    private final static double EPSILON = 1e-9;
+
+    private final int zoneCount;
+    private final int[] zoneStart;
+    private final int[] order;
+    private final double[] ras;
+    private final double[] decs;
+    private HalfWidths halfWidths;
+
+    /**
+     * Builds the index of the stars of the given table.
+     *
+     * @param table the stars to index
+     */
+    VisibilityIndex(StarTable table){
+        int size = table.size();
+        zoneCount = Math.max(1, Math.min(MAX_ZONE_COUNT, size / STARS_PER_ZONE));
+
+        // The stars sorted by right ascension, then distributed to the zones in this order.
+        Integer[] byRa = new Integer[size];
+        Arrays.setAll(byRa, i -> i);
+        Arrays.sort(byRa, (a, b) -> Double.compare(table.ra(a), table.ra(b)));
+
+        int[] zones = new int[size];
+        zoneStart = new int[zoneCount + 1];
+        for(int i = 0; i < size; ++i){
+            zones[i] = zoneOf(table.dec(i));
+            ++zoneStart[zones[i] + 1];
+        }
+        for(int z = 0; z < zoneCount; ++z)
+            zoneStart[z + 1] += zoneStart[z];
+
+        order = new int[size];
+        ras = new double[size];
+        decs = new double[size];
+        int[] next = Arrays.copyOf(zoneStart, zoneCount);
+        for(int i : byRa){
+            int k = next[zones[i]]++;
+            order[k] = i;
+            ras[k] = table.ra(i);
+            decs[k] = table.dec(i);
+        }
+    }
+
+    /**
+     * Returns the indices of the stars which may lie at or above the given altitude, in increasing order.
+     * Every star lying at or above the altitude is part of the result, along with some stars lying just below it.
+     *
+     * @param latitude the latitude of the observer (in radians)
+     * @param localSiderealTime the local sidereal time of the observer (in radians)
+     * @param altitude the altitude (in radians)
+     * @return the indices of the stars which may lie at or above the altitude
+     */
+    int[] starsAbove(double latitude, double localSiderealTime, double altitude){
+        return stars(halfWidths(latitude, altitude).widths, latitude, localSiderealTime, altitude, false);
+    }
+
+    /**
+     * Returns the indices of the stars which may reach the given altitude at some time of the day, for an observer
+     * at the given latitude, in increasing order. Every star reaching the altitude is part of the result, along with
+     * some stars whose highest altitude is just below it. The result is kept until the latitude or the altitude
+     * changes, and must not be modified.
+     *
+     * @param latitude the latitude of the observer (in radians)
+     * @param altitude the altitude (in radians)
+     * @return the indices of the stars which may reach the altitude
+     */
+    synchronized int[] starsReaching(double latitude, double altitude){
+        HalfWidths current = halfWidths(latitude, altitude);
+        if(current.reaching == null)
+            current.reaching = stars(current.widths, latitude, 0, altitude, true);
+        return current.reaching;
+    }
+
+    // The stars which may lie at or above the altitude at the local sidereal time, or at any time if wholeDay is true.
+    private int[] stars(double[] widths, double latitude, double localSiderealTime, double altitude, boolean wholeDay){
+        // The declinations of the stars which reach the altitude at some time of the day.
+        double radius = Math.PI / 2 - altitude;
+        double minDec = latitude - radius - EPSILON, maxDec = latitude + radius + EPSILON;
+
+        int[] result = new int[order.length];
+        int size = 0;
+        for(int z = 0; z < zoneCount; ++z){
+            double halfWidth = widths[z];
+            if(Double.isNaN(halfWidth))
+                continue;
+            // The stars of a zone crossing the limits of these declinations are examined one by one.
+            boolean partial = zoneLowerDec(z, zoneCount) < minDec || zoneLowerDec(z + 1, zoneCount) > maxDec;
+
+            if(wholeDay || halfWidth >= Math.PI){
+                size = copy(zoneStart[z], zoneStart[z + 1], partial, minDec, maxDec, result, size);
+                continue;
+            }
+
+            double start = normalized(localSiderealTime - halfWidth);
+            double end = normalized(localSiderealTime + halfWidth);
+            if(start <= end)
+                size = copy(raIndex(z, start), raIndex(z, Math.nextUp(end)), partial, minDec, maxDec, result, size);
+            else {
+                size = copy(zoneStart[z], raIndex(z, Math.nextUp(end)), partial, minDec, maxDec, result, size);
+                size = copy(raIndex(z, start), zoneStart[z + 1], partial, minDec, maxDec, result, size);
+            }
+        }
+        result = Arrays.copyOf(result, size);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private synchronized HalfWidths halfWidths(double latitude, double altitude){
+        if(halfWidths == null || halfWidths.latitude != latitude || halfWidths.altitude != altitude)
+            halfWidths = new HalfWidths(latitude, altitude, zoneCount);
+        return halfWidths;
+    }
+
+    private int copy(int from, int to, boolean partial, double minDec, double maxDec, int[] result, int size){
+        if(!partial){
+            System.arraycopy(order, from, result, size, to - from);
+            return size + to - from;
+        }
+        for(int k = from; k < to; ++k){
+            if(minDec <= decs[k] && decs[k] <= maxDec)
+                result[size++] = order[k];
+        }
+        return size;
+    }
+
+    // The position in the index of the first star of the zone whose right ascension is at least the given one.
+    private int raIndex(int zone, double ra){
+        int low = zoneStart[zone], high = zoneStart[zone + 1];
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(ras[middle] < ra)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    private int zoneOf(double dec){
+        int zone = (int) Math.floor((dec + Math.PI / 2) / Math.PI * zoneCount);
+        return Math.max(0, Math.min(zoneCount - 1, zone));
+    }
+
+    private static double zoneLowerDec(int zone, int zoneCount){
+        return -Math.PI / 2 + Math.PI * zone / zoneCount;
+    }
+
+    private static double normalized(double angle){
+        double normalized = angle % TAU;
+        return normalized < 0 ? normalized + TAU : normalized;
+    }
+
+    // The half-width, in right ascension, of the range centered on the meridian outside of which no star of each zone
+    // reaches the altitude, NaN if no star of the zone ever reaches it, and the stars reaching it once computed.
+    private final static class HalfWidths {
+        private final double latitude;
+        private final double altitude;
+        private final double[] widths;
+        private int[] reaching;
+
+        private HalfWidths(double latitude, double altitude, int zoneCount){
+            this.latitude = latitude;
+            this.altitude = altitude;
+            widths = new double[zoneCount];
+
+            // The stars reaching the altitude are those closer than this distance to the zenith.
+            double radius = Math.PI / 2 - altitude;
+            for(int z = 0; z < zoneCount; ++z){
+                // The part of the zone whose declinations pass within the radius of the zenith.
+                double lowerDec = Math.max(zoneLowerDec(z, zoneCount), latitude - radius) - EPSILON;
+                double upperDec = Math.min(zoneLowerDec(z + 1, zoneCount), latitude + radius) + EPSILON;
+                if(lowerDec > upperDec)
+                    widths[z] = Double.NaN;
+                else {
+                    // The half-width only has a maximum at the ends of the part and at one declination in between.
+                    double halfWidth = Math.max(halfWidth(lowerDec, latitude, radius), halfWidth(upperDec, latitude, radius));
+                    double tangentDec = Math.asin(Math.max(-1, Math.min(1, Math.sin(latitude) / Math.cos(radius))));
+                    if(lowerDec <= tangentDec && tangentDec <= upperDec)
+                        halfWidth = Math.max(halfWidth, halfWidth(tangentDec, latitude, radius));
+                    widths[z] = halfWidth + EPSILON;
+                }
+            }
+        }
+
+        // The half-width of the range of hour angles in which a star of the given declination is closer than
+        // the radius to the zenith, π if it always is.
+        private static double halfWidth(double dec, double latitude, double radius){
+            double denominator = Math.cos(dec) * Math.cos(latitude);
+            if(denominator <= EPSILON)
+                return Math.PI;
+            double cosHalfWidth = (Math.cos(radius) - Math.sin(dec) * Math.sin(latitude)) / denominator;
+            return Math.acos(Math.max(-1, Math.min(1, cosHalfWidth)));
+        }
+    }
+}
@@ -29,12 +29,59 @@ public final class EclipticToEquatorialConversion implements Function<EclipticCo
      * @param when The date and time at the moment of the conversion
      */
     public EclipticToEquatorialConversion(ZonedDateTime when) {
-        double julianCenturiesUntilJ2000 = Epoch.J2000.julianCenturiesUntil(when);
+        this(Epoch.J2000.julianCenturiesUntil(when));
+    }
+
+    /**
+     * Constructs a conversion from ecliptic to equatorial coordinates at an instant given by its number of
+     * milliseconds since 1970-01-01T00:00Z. It is the same as the conversion constructed from this instant.
+     *
+     * @param epochMillis The number (can be negative) of milliseconds between 1970-01-01T00:00Z and the instant
+     */
+    public EclipticToEquatorialConversion(long epochMillis) {
+        this(Epoch.J2000.julianCenturiesUntil(epochMillis));
+    }
+
+    private EclipticToEquatorialConversion(double julianCenturiesUntilJ2000) {
         double eclObliquity = P.at(julianCenturiesUntilJ2000);
         cosEclObl = cos(eclObliquity);
         sinEclObl = sin(eclObliquity);
     }
 
+    /**
+     * Constructs a conversion from ecliptic to equatorial coordinates at the given number of julian centuries after
+     * the epoch J2000, without going through a ZonedDateTime. It is the same as the conversion constructed from
+     * the instant which is this number of julian centuries after the epoch J2000.
+     *
+     * @param julianCenturiesUntilJ2000 The number (can be negative) of julian centuries after the epoch J2000
+     * @return The conversion from ecliptic to equatorial coordinates at this instant
+     */
+    public static EclipticToEquatorialConversion ofJulianCenturies(double julianCenturiesUntilJ2000) {
+        return new EclipticToEquatorialConversion(julianCenturiesUntilJ2000);
+    }
+
+    /**
+     * Converts the ecliptic coordinates of given longitude and latitude at the given number of julian centuries after
+     * the epoch J2000, and writes the right ascension and the declination in this order in the given array, without
+     * building any object. The values are exactly those of the equatorial coordinates given by apply, for the
+     * conversion at this instant.
+     *
+     * @param julianCenturiesUntilJ2000 The number (can be negative) of julian centuries after the epoch J2000
+     * @param eclLon The ecliptic longitude (in radians)
+     * @param eclLat The ecliptic latitude (in radians)
+     * @param values The array in which the two values are written
+     * @param offset The index in the array of the first value
+     */
+    public static void convert(double julianCenturiesUntilJ2000, double eclLon, double eclLat, double[] values, int offset) {
+        double eclObliquity = P.at(julianCenturiesUntilJ2000);
+        double cosEclObl = cos(eclObliquity);
+        double sinEclObl = sin(eclObliquity);
+        double sinEclLon = sin(eclLon);
+
+        values[offset] = ra(eclLon, eclLat, sinEclLon, cosEclObl, sinEclObl);
+        values[offset + 1] = dec(eclLat, sinEclLon, cosEclObl, sinEclObl);
+    }
+
     /**
      * Applies the conversion from ecliptic to equatorial coordinates.
      *
@@ -47,12 +94,20 @@ public final class EclipticToEquatorialConversion implements Function<EclipticCo
         double eclLat = ecl.lat();
         double sinEclLon = sin(eclLon);
 
+        return EquatorialCoordinates.of(
+                ra(eclLon, eclLat, sinEclLon, cosEclObl, sinEclObl),
+                dec(eclLat, sinEclLon, cosEclObl, sinEclObl));
+    }
+
+    private static double ra(double eclLon, double eclLat, double sinEclLon, double cosEclObl, double sinEclObl){
         double ra = atan2(
                         sinEclLon*cosEclObl - tan(eclLat)*sinEclObl,
                         cos(eclLon));
-        double dec = asin(sin(eclLat)*cosEclObl + cos(eclLat)*sinEclObl*sinEclLon);
+        return Angle.normalizePositive(ra);
+    }
 
-        return EquatorialCoordinates.of(Angle.normalizePositive(ra), dec);
+    private static double dec(double eclLat, double sinEclLon, double cosEclObl, double sinEclObl){
+        return asin(sin(eclLat)*cosEclObl + cos(eclLat)*sinEclObl*sinEclLon);
     }
 
     /**
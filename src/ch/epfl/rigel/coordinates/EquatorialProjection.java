@@ -0,0 +1,184 @@
+package ch.epfl.rigel.coordinates;
+
+import java.util.function.Function;
+
+import static java.lang.Math.*;
+
+/**
+ * The conversion from Equatorial to Horizontal Coordinates followed by a Stereographic Projection,
+ * composed into a single rotation of the unit vectors of the positions followed by the stereographic division.
+ *
+ * Applied to a precomputed unit vector, the projection only costs a few multiplications and one division.
+ * Applied to many unit vectors whose components are kept in three separate arrays, it runs as a single loop
+ * without any branch nor call, reading the components sequentially. It is a scalar loop: the coordinates of the
+ * projected points are written interleaved, and no vectorization by the JIT compiler is assumed.
+ * Its results match those of the conversion followed by the projection to within 1e-12 (1 + r²), r being the distance
+ * of the projected point to the origin, as the rounding errors grow with the distance to the center of the projection.
+ *
+ * @author Mounir Raki (310287)
+ */
+public final class EquatorialProjection implements Function<EquatorialCoordinates, CartesianCoordinates> {
+    private final double m00, m01, m02;
+    private final double m10, m11, m12;
+    private final double m20, m21, m22;
+
+    /**
+     * Constructs the composition of a conversion to Horizontal Coordinates and of a Stereographic Projection.
+     *
+     * @param equToHor The conversion from Equatorial to Horizontal Coordinates
+     * @param projection The Stereographic Projection
+     */
+    public EquatorialProjection(EquatorialToHorizontalConversion equToHor, StereographicProjection projection){
+        // Equatorial unit vector to hour angle unit vector, whose x axis points toward the meridian.
+        double cosLst = cos(equToHor.localSiderealTime()), sinLst = sin(equToHor.localSiderealTime());
+        double[][] hourAngle = {
+                {cosLst, sinLst, 0},
+                {sinLst, -cosLst, 0},
+                {0, 0, 1}};
+
+        // Hour angle unit vector to horizontal unit vector, whose axes point north, east and to the zenith.
+        double cosLat = equToHor.cosPlaceLat(), sinLat = equToHor.sinPlaceLat();
+        double[][] horizontal = {
+                {-sinLat, 0, cosLat},
+                {0, -1, 0},
+                {cosLat, 0, sinLat}};
+
+        // Horizontal unit vector to (x, y, c), c being the cosine of the angle to the center of the projection,
+        // so that the projected point is (x / (1 + c), y / (1 + c)).
+        HorizontalCoordinates center = projection.center();
+        double cosAz = cos(center.az()), sinAz = sin(center.az());
+        double cosAlt = cos(center.alt()), sinAlt = sin(center.alt());
+        double[][] plane = {
+                {-sinAz, cosAz, 0},
+                {-sinAlt * cosAz, -sinAlt * sinAz, cosAlt},
+                {cosAlt * cosAz, cosAlt * sinAz, sinAlt}};
+
+        double[][] m = product(plane, product(horizontal, hourAngle));
+        m00 = m[0][0]; m01 = m[0][1]; m02 = m[0][2];
+        m10 = m[1][0]; m11 = m[1][1]; m12 = m[1][2];
+        m20 = m[2][0]; m21 = m[2][1]; m22 = m[2][2];
+    }
+
+    /**
+     * Computes the unit vector of the given Equatorial Coordinates, to which the projection can then be applied.
+     *
+     * @param equ The Equatorial Coordinates
+     * @param unitVectors The array in which the three components of the unit vector are written
+     * @param offset The index in the array of the first component
+     */
+    public static void unitVector(EquatorialCoordinates equ, double[] unitVectors, int offset){
+        double cosDec = cos(equ.dec());
+        unitVectors[offset] = cosDec * cos(equ.ra());
+        unitVectors[offset + 1] = cosDec * sin(equ.ra());
+        unitVectors[offset + 2] = sin(equ.dec());
+    }
+
+    /**
+     * Projects the point whose unit vector is given.
+     *
+     * @param unitVectors The array containing the three components of the unit vector
+     * @param offset The index in the array of the first component
+     * @param positions The array in which the two coordinates of the projected point are written
+     * @param positionOffset The index in the array of the first coordinate
+     */
+    public void apply(double[] unitVectors, int offset, double[] positions, int positionOffset){
+        double u = unitVectors[offset], v = unitVectors[offset + 1], w = unitVectors[offset + 2];
+        double d = 1 / (1 + m20 * u + m21 * v + m22 * w);
+        positions[positionOffset] = d * (m00 * u + m01 * v + m02 * w);
+        positions[positionOffset + 1] = d * (m10 * u + m11 * v + m12 * w);
+    }
+
+    /**
+     * Projects the points of indices from (inclusive) to to (exclusive), whose unit vectors are given component by
+     * component. The two coordinates of the projected point of index i are written at indices 2i and 2i + 1.
+     *
+     * @param xs The array containing the first component of the unit vectors
+     * @param ys The array containing the second component of the unit vectors
+     * @param zs The array containing the third component of the unit vectors
+     * @param from The index of the first point to project
+     * @param to The index following the last point to project
+     * @param positions The array in which the coordinates of the projected points are written
+     */
+    public void apply(double[] xs, double[] ys, double[] zs, int from, int to, double[] positions){
+        // The coefficients are copied to local variables so that they stay in registers during the whole loop.
+        double a00 = m00, a01 = m01, a02 = m02;
+        double a10 = m10, a11 = m11, a12 = m12;
+        double a20 = m20, a21 = m21, a22 = m22;
+        for(int i = from; i < to; ++i){
+            double u = xs[i], v = ys[i], w = zs[i];
+            double d = 1 / (1 + a20 * u + a21 * v + a22 * w);
+            positions[2*i] = d * (a00 * u + a01 * v + a02 * w);
+            positions[2*i + 1] = d * (a10 * u + a11 * v + a12 * w);
+        }
+    }
+
+    /**
+     * Projects the points whose indices are at positions from (inclusive) to to (exclusive) in the given array,
+     * and whose unit vectors are given component by component. The two coordinates of the projected point whose
+     * index is at position k are written at indices 2k and 2k + 1.
+     *
+     * @param xs The array containing the first component of the unit vectors
+     * @param ys The array containing the second component of the unit vectors
+     * @param zs The array containing the third component of the unit vectors
+     * @param indices The indices of the points to project
+     * @param from The position in the array of indices of the first point to project
+     * @param to The position in the array of indices following the last point to project
+     * @param positions The array in which the coordinates of the projected points are written
+     */
+    public void apply(double[] xs, double[] ys, double[] zs, int[] indices, int from, int to, double[] positions){
+        double a00 = m00, a01 = m01, a02 = m02;
+        double a10 = m10, a11 = m11, a12 = m12;
+        double a20 = m20, a21 = m21, a22 = m22;
+        for(int k = from; k < to; ++k){
+            int i = indices[k];
+            double u = xs[i], v = ys[i], w = zs[i];
+            double d = 1 / (1 + a20 * u + a21 * v + a22 * w);
+            positions[2*k] = d * (a00 * u + a01 * v + a02 * w);
+            positions[2*k + 1] = d * (a10 * u + a11 * v + a12 * w);
+        }
+    }
+
+    /**
+     * Projects the point having the given Equatorial Coordinates.
+     *
+     * @param equ The Equatorial Coordinates to project
+     * @return The Cartesian Coordinates of the projected point
+     */
+    @Override
+    public CartesianCoordinates apply(EquatorialCoordinates equ) {
+        double[] unitVector = new double[3];
+        double[] position = new double[2];
+        unitVector(equ, unitVector, 0);
+        apply(unitVector, 0, position, 0);
+        return CartesianCoordinates.of(position[0], position[1]);
+    }
+
+    /**
+     * Throws an error. This is defined to prevent the programmer from using the equals() method.
+     *
+     * @throws UnsupportedOperationException The use of the equals() method is not supported.
+     */
+    @Override
+    public final boolean equals(Object obj){
+        throw new UnsupportedOperationException("You are not allowed to use the equals method in EquatorialProjection.");
+    }
+
+    /**
+     * Throws an error. This is defined to prevent the programmer from using the hashCode() method.
+     *
+     * @throws UnsupportedOperationException The use of the hashCode() method is not supported.
+     */
+    @Override
+    public final int hashCode(){
+        throw new UnsupportedOperationException("You are not allowed to use the hashCode method in EquatorialProjection.");
+    }
+
+    private static double[][] product(double[][] a, double[][] b){
+        double[][] product = new double[3][3];
+        for(int i = 0; i < 3; ++i){
+            for(int j = 0; j < 3; ++j)
+                product[i][j] = a[i][0] * b[0][j] + a[i][1] * b[1][j] + a[i][2] * b[2][j];
+        }
+        return product;
+    }
+}
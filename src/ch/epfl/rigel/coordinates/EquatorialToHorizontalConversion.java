@@ -4,6 +4,7 @@ import ch.epfl.rigel.astronomy.SiderealTime;
 import ch.epfl.rigel.math.Angle;
 
 import java.time.ZonedDateTime;
+import java.util.Objects;
 import java.util.function.Function;
 
 /**
@@ -23,7 +24,18 @@ public final class EquatorialToHorizontalConversion implements Function<Equatori
      * @param where The geographic coordinates of the place of the conversion
      */
     public EquatorialToHorizontalConversion(ZonedDateTime when, GeographicCoordinates where){
-        localSiderealTime = SiderealTime.local(when, where);
+        this(when.toInstant().toEpochMilli(), where);
+    }
+
+    /**
+     * Constructs a conversion from Equatorial to Horizontal Coordinates at an instant given by its number of
+     * milliseconds since 1970-01-01T00:00Z. It is the same as the conversion constructed from this instant.
+     *
+     * @param epochMillis The number (can be negative) of milliseconds between 1970-01-01T00:00Z and the instant
+     * @param where The geographic coordinates of the place of the conversion
+     */
+    public EquatorialToHorizontalConversion(long epochMillis, GeographicCoordinates where){
+        localSiderealTime = SiderealTime.local(epochMillis, where);
         cosPlaceLat = Math.cos(where.lat());
         sinPlaceLat = Math.sin(where.lat());
     }
@@ -35,17 +47,108 @@ public final class EquatorialToHorizontalConversion implements Function<Equatori
      * @return The Horizontal Coordinates obtained from a conversion of the Equatorial Coordinates
      */
     public HorizontalCoordinates apply(EquatorialCoordinates equ){
-        double hourAngle = localSiderealTime - equ.ra();
+        double[] azAlt = new double[2];
+        toHorizontal(equ.ra(), equ.dec(), azAlt, 0, azAlt, 1);
+        return HorizontalCoordinates.of(azAlt[0], azAlt[1]);
+    }
+
+    /**
+     * Applies the inverse conversion, from Horizontal to Equatorial Coordinates.
+     *
+     * @param hor The Horizontal Coordinates to convert into Equatorial Coordinates
+     * @return The Equatorial Coordinates whose conversion gives the Horizontal Coordinates
+     */
+    public EquatorialCoordinates inverseApply(HorizontalCoordinates hor){
+        double[] raDec = new double[2];
+        toEquatorial(hor.az(), hor.alt(), raDec, 0, raDec, 1);
+        return EquatorialCoordinates.of(raDec[0], raDec[1]);
+    }
 
-        double sinEquDec = Math.sin(equ.dec());
-        double cosEquDec = Math.cos(equ.dec());
+    /**
+     * Applies the conversion from Equatorial to Horizontal Coordinates to the points of indices from (inclusive)
+     * to to (exclusive), without building any coordinates object. Each point is converted by the same code as
+     * in apply(), which gives exactly the same result.
+     * The input arrays may also be the output arrays, the coordinates being then converted in place.
+     *
+     * @param ra The right ascensions of the points (in radians)
+     * @param dec The declinations of the points (in radians)
+     * @param az The array in which the azimuths of the converted points are written (in radians)
+     * @param alt The array in which the altitudes of the converted points are written (in radians)
+     * @param from The index of the first point to convert
+     * @param to The index following the last point to convert
+     * @throws IndexOutOfBoundsException if the range is not contained in one of the arrays
+     */
+    public void applyAll(double[] ra, double[] dec, double[] az, double[] alt, int from, int to){
+        checkRange(from, to, ra, dec, az, alt);
+        for(int i = from; i < to; ++i)
+            toHorizontal(ra[i], dec[i], az, i, alt, i);
+    }
 
-        double alt = Math.asin(sinEquDec*sinPlaceLat + cosEquDec*cosPlaceLat*Math.cos(hourAngle));
-        double az = Math.atan2(
+    /**
+     * Applies the inverse conversion, from Horizontal to Equatorial Coordinates, to the points of indices from
+     * (inclusive) to to (exclusive), without building any coordinates object. Each result is exactly the one of
+     * inverseApply(), whose code is the same. The input arrays may also be the output arrays, the coordinates being then converted in place.
+     *
+     * @param az The azimuths of the points (in radians)
+     * @param alt The altitudes of the points (in radians)
+     * @param ra The array in which the right ascensions of the converted points are written (in radians)
+     * @param dec The array in which the declinations of the converted points are written (in radians)
+     * @param from The index of the first point to convert
+     * @param to The index following the last point to convert
+     * @throws IndexOutOfBoundsException if the range is not contained in one of the arrays
+     */
+    public void inverseApplyAll(double[] az, double[] alt, double[] ra, double[] dec, int from, int to){
+        checkRange(from, to, az, alt, ra, dec);
+        for(int i = from; i < to; ++i)
+            toEquatorial(az[i], alt[i], ra, i, dec, i);
+    }
+
+    // Writes the azimuth and the altitude of the point of the given equatorial coordinates at the given indices.
+    private void toHorizontal(double ra, double dec, double[] az, int azIndex, double[] alt, int altIndex){
+        double hourAngle = localSiderealTime - ra;
+
+        double sinEquDec = Math.sin(dec);
+        double cosEquDec = Math.cos(dec);
+
+        double pointAlt = Math.asin(sinEquDec*sinPlaceLat + cosEquDec*cosPlaceLat*Math.cos(hourAngle));
+        double pointAz = Math.atan2(
                 -cosEquDec * cosPlaceLat * Math.sin(hourAngle),
-                sinEquDec - sinPlaceLat*Math.sin(alt));
+                sinEquDec - sinPlaceLat*Math.sin(pointAlt));
+
+        az[azIndex] = Angle.normalizePositive(pointAz);
+        alt[altIndex] = pointAlt;
+    }
+
+    // Writes the right ascension and the declination of the point of the given horizontal coordinates
+    // at the given indices.
+    private void toEquatorial(double az, double alt, double[] ra, int raIndex, double[] dec, int decIndex){
+        double sinAlt = Math.sin(alt);
+        double cosAlt = Math.cos(alt);
+
+        double pointDec = Math.asin(sinAlt*sinPlaceLat + cosAlt*cosPlaceLat*Math.cos(az));
+        double hourAngle = Math.atan2(
+                -cosAlt * cosPlaceLat * Math.sin(az),
+                sinAlt - sinPlaceLat*Math.sin(pointDec));
+
+        ra[raIndex] = Angle.normalizePositive(localSiderealTime - hourAngle);
+        dec[decIndex] = pointDec;
+    }
+
+    double localSiderealTime(){
+        return localSiderealTime;
+    }
+
+    double cosPlaceLat(){
+        return cosPlaceLat;
+    }
+
+    double sinPlaceLat(){
+        return sinPlaceLat;
+    }
 
-        return HorizontalCoordinates.of(Angle.normalizePositive(az), alt);
+    private static void checkRange(int from, int to, double[]... arrays){
+        for(double[] array : arrays)
+            Objects.checkFromToIndex(from, to, array.length);
     }
 
     /**
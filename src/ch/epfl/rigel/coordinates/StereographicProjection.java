@@ -3,6 +3,7 @@ package ch.epfl.rigel.coordinates;
 import ch.epfl.rigel.math.Angle;
 
 import java.util.Locale;
+import java.util.Objects;
 import java.util.function.Function;
 
 import static java.lang.Math.*;
@@ -28,6 +29,15 @@ public final class StereographicProjection implements Function<HorizontalCoordin
         this.cosCenterLat = cos(center.lat());
     }
 
+    /**
+     * Returns the center of the projection.
+     *
+     * @return The center of the projection
+     */
+    public HorizontalCoordinates center(){
+        return center;
+    }
+
     /**
      * Returns the Cartesian Coordinates of the center of the circle corresponding to the projection of the parallel passing by the point of coordinates hor.
      *
@@ -72,17 +82,9 @@ public final class StereographicProjection implements Function<HorizontalCoordin
      */
     @Override
     public CartesianCoordinates apply(HorizontalCoordinates azAlt) {
-        double lonDifference = azAlt.lon() - center.lon();
-        double cosAlt = cos(azAlt.alt());
-        double sinAlt = sin(azAlt.lat());
-        double cosLonDifference = cos(lonDifference);
-
-        double d = 1 / (1 + sinAlt*sinCenterLat + cosAlt*cosCenterLat*cosLonDifference);
-
-        double x = d*cosAlt* sin(lonDifference);
-        double y = d * (sinAlt*cosCenterLat - cosAlt*sinCenterLat*cosLonDifference);
-
-        return CartesianCoordinates.of(x, y);
+        double[] xy = new double[2];
+        project(azAlt.az(), azAlt.alt(), xy, 0);
+        return CartesianCoordinates.of(xy[0], xy[1]);
     }
 
     /**
@@ -93,26 +95,86 @@ public final class StereographicProjection implements Function<HorizontalCoordin
      * @return The Horizontal Coordinates of the point of the projection
      */
     public HorizontalCoordinates inverseApply(CartesianCoordinates xy){
-        double x = xy.x();
-        double y = xy.y();
+        double[] azAlt = new double[2];
+        unproject(xy.x(), xy.y(), azAlt, 0, azAlt, 1);
+        return HorizontalCoordinates.of(azAlt[0], azAlt[1]);
+    }
+
+    /**
+     * Projects the points of indices from (inclusive) to to (exclusive), without building any coordinates object.
+     * The two Cartesian coordinates of the projected point of index i are written at indices 2i and 2i + 1,
+     * as in the arrays given to Transform.transform2DPoints. Each point is projected by the same code as in apply(),
+     * which gives exactly the same result.
+     *
+     * @param az The azimuths of the points (in radians)
+     * @param alt The altitudes of the points (in radians)
+     * @param xy The array in which the coordinates of the projected points are written
+     * @param from The index of the first point to project
+     * @param to The index following the last point to project
+     * @throws IndexOutOfBoundsException if the range is not contained in one of the arrays
+     */
+    public void applyAll(double[] az, double[] alt, double[] xy, int from, int to){
+        Objects.checkFromToIndex(from, to, az.length);
+        Objects.checkFromToIndex(from, to, alt.length);
+        Objects.checkFromToIndex(2*from, 2*to, xy.length);
+        for(int i = from; i < to; ++i)
+            project(az[i], alt[i], xy, 2*i);
+    }
+
+    /**
+     * Converts the projected points of indices from (inclusive) to to (exclusive) back to Horizontal Coordinates,
+     * without building any coordinates object. The two Cartesian coordinates of the point of index i are read at
+     * indices 2i and 2i + 1. Each point is converted by the same code as in inverseApply(), which gives exactly
+     * the same result.
+     *
+     * @param xy The coordinates of the projected points
+     * @param az The array in which the azimuths of the points are written (in radians)
+     * @param alt The array in which the altitudes of the points are written (in radians)
+     * @param from The index of the first point to convert
+     * @param to The index following the last point to convert
+     * @throws IndexOutOfBoundsException if the range is not contained in one of the arrays
+     */
+    public void inverseApplyAll(double[] xy, double[] az, double[] alt, int from, int to){
+        Objects.checkFromToIndex(2*from, 2*to, xy.length);
+        Objects.checkFromToIndex(from, to, az.length);
+        Objects.checkFromToIndex(from, to, alt.length);
+        for(int i = from; i < to; ++i)
+            unproject(xy[2*i], xy[2*i + 1], az, i, alt, i);
+    }
+
+    // Writes the two Cartesian coordinates of the projection of the given point at the given index and the next one.
+    private void project(double az, double alt, double[] xy, int index){
+        double lonDifference = az - center.lon();
+        double cosAlt = cos(alt);
+        double sinAlt = sin(alt);
+        double cosLonDifference = cos(lonDifference);
+
+        double d = 1 / (1 + sinAlt*sinCenterLat + cosAlt*cosCenterLat*cosLonDifference);
+
+        xy[index] = d*cosAlt* sin(lonDifference);
+        xy[index + 1] = d * (sinAlt*cosCenterLat - cosAlt*sinCenterLat*cosLonDifference);
+    }
 
+    // Writes the azimuth and the altitude of the point whose projection is the given one at the given indices.
+    private void unproject(double x, double y, double[] az, int azIndex, double[] alt, int altIndex){
         double rho = sqrt(x*x + y*y);
         double sinC = 2*rho/(rho*rho + 1);
         double cosC = (1 - rho*rho)/(rho*rho + 1);
 
-        double az, alt;
+        double pointAz, pointAlt;
 
         if(x == 0 && y == 0){
-            az = center.lon();
-            alt = center.lat();
+            pointAz = center.lon();
+            pointAlt = center.lat();
         }
 
         else {
-            az = atan2(x * sinC, rho*cosCenterLat*cosC - y*sinCenterLat*sinC) + center.lon();
-            alt = asin(cosC * sinCenterLat + (y * sinC * cosCenterLat) / rho);
+            pointAz = atan2(x * sinC, rho*cosCenterLat*cosC - y*sinCenterLat*sinC) + center.lon();
+            pointAlt = asin(cosC * sinCenterLat + (y * sinC * cosCenterLat) / rho);
         }
 
-        return HorizontalCoordinates.of(Angle.normalizePositive(az), alt);
+        az[azIndex] = Angle.normalizePositive(pointAz);
+        alt[altIndex] = pointAlt;
     }
 
     /**
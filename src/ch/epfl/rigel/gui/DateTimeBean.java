@@ -1,6 +1,8 @@
 package ch.epfl.rigel.gui;
 
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleObjectProperty;
 
 import java.time.*;
@@ -9,12 +11,17 @@ import java.time.*;
  * The date time bean, a class with a similar behavior
  * to ZonedDateTime, but with observable properties.
  *
+ * The date, the time and the zone can be observed separately, or together through the zoned date time property,
+ * which changes only once when the three of them are set together by setZonedDateTime().
+ *
  * @author Nicolas Szwajcok (315213)
  */
 public final class DateTimeBean {
     private final ObjectProperty<LocalDate> date;
     private final ObjectProperty<LocalTime> time;
     private final ObjectProperty<ZoneId> zone;
+    private final ReadOnlyObjectWrapper<ZonedDateTime> zonedDateTime;
+    private boolean settingZonedDateTime;
 
     /**
      * Creates an instance of a time animator.
@@ -23,6 +30,11 @@ public final class DateTimeBean {
         this.date = new SimpleObjectProperty<>();
         this.time = new SimpleObjectProperty<>();
         this.zone = new SimpleObjectProperty<>();
+        this.zonedDateTime = new ReadOnlyObjectWrapper<>();
+
+        date.addListener((p, o, n) -> updateZonedDateTime());
+        time.addListener((p, o, n) -> updateZonedDateTime());
+        zone.addListener((p, o, n) -> updateZonedDateTime());
     }
 
     /**
@@ -106,15 +118,26 @@ public final class DateTimeBean {
         this.zone.set(zoneId);
     }
 
+    /**
+     * Returns the read-only property of the zoned date time, which is null as long as one of the date, the time
+     * and the zone is. It changes once each time one of them is set, and only once when they are set together
+     * by setZonedDateTime().
+     *
+     * @return The read-only property of the zoned date time
+     */
+    public ReadOnlyObjectProperty<ZonedDateTime> zonedDateTimeProperty(){
+        return zonedDateTime.getReadOnlyProperty();
+    }
+
     /**
      * Returns all the information about date, time and zone id
      * contained in a date time bean in the format of zoned date time.
      *
-     * @return Zoned date time containing all the information concerning the given date time bean
+     * @return Zoned date time containing all the information concerning the given date time bean, or null if one of
+     *         them is not set
      */
     public ZonedDateTime getZonedDateTime(){
-        LocalDateTime ldt = LocalDateTime.of(getDate(), getTime());
-        return ZonedDateTime.of(ldt, getZone());
+        return zonedDateTime.get();
     }
 
     /**
@@ -123,8 +146,23 @@ public final class DateTimeBean {
      * @param zdt The zoned date time that will be used to change the internal parameters of the date time bean
      */
     public void setZonedDateTime(ZonedDateTime zdt){
-        setDate(zdt.toLocalDate());
-        setTime(zdt.toLocalTime());
-        setZone(zdt.getZone());
+        settingZonedDateTime = true;
+        try{
+            setDate(zdt.toLocalDate());
+            setTime(zdt.toLocalTime());
+            setZone(zdt.getZone());
+        } finally {
+            settingZonedDateTime = false;
+        }
+        updateZonedDateTime();
+    }
+
+    private void updateZonedDateTime(){
+        if(settingZonedDateTime)
+            return;
+        if(getDate() == null || getTime() == null || getZone() == null)
+            zonedDateTime.set(null);
+        else
+            zonedDateTime.set(ZonedDateTime.of(LocalDateTime.of(getDate(), getTime()), getZone()));
     }
 }
@@ -1,6 +1,7 @@
 package ch.epfl.rigel.gui;
 
 import ch.epfl.rigel.astronomy.AsterismLoader;
+import ch.epfl.rigel.astronomy.BinaryCatalogueLoader;
 import ch.epfl.rigel.astronomy.CelestialObject;
 import ch.epfl.rigel.astronomy.HygDatabaseLoader;
 import ch.epfl.rigel.astronomy.StarCatalogue;
@@ -27,6 +28,8 @@ import javafx.util.converter.NumberStringConverter;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
@@ -64,12 +67,27 @@ public class Main extends Application {
      */
     @Override
     public void start(Stage stage) throws Exception {
-        try(InputStream catalogueStream = getClass().getResourceAsStream("/hygdata_v3.csv");
-            InputStream asterismStream = getClass().getResourceAsStream("/asterisms.txt")){
+        try(InputStream asterismStream = getClass().getResourceAsStream("/asterisms.txt")){
+
+            StarCatalogue.Builder builder = new StarCatalogue.Builder();
+            URL binaryCatalogue = getClass().getResource("/hygdata_v3.bin");
+            if(binaryCatalogue != null && binaryCatalogue.getProtocol().equals("file"))
+                // The catalogue is mapped in place, so that its stars are only read when they are needed.
+                builder.loadFrom(Paths.get(binaryCatalogue.toURI()), BinaryCatalogueLoader.INSTANCE);
+            else if(binaryCatalogue != null){
+                try(InputStream binaryCatalogueStream = binaryCatalogue.openStream()){
+                    builder.loadFrom(binaryCatalogueStream, BinaryCatalogueLoader.INSTANCE);
+                }
+            }
+            else {
+                try(InputStream catalogueStream = getClass().getResourceAsStream("/hygdata_v3.csv")){
+                    builder.loadFrom(catalogueStream, HygDatabaseLoader.INSTANCE);
+                }
+            }
 
-            StarCatalogue catalogue = new StarCatalogue.Builder()
-                    .loadFrom(catalogueStream, HygDatabaseLoader.INSTANCE)
+            StarCatalogue catalogue = builder
                     .loadFrom(asterismStream, AsterismLoader.INSTANCE)
+                    .sortByMagnitude()
                     .build();
 
             DateTimeBean dateTimeBean = new DateTimeBean();
@@ -0,0 +1,63 @@
+package ch.epfl.rigel.gui;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * A scheduler coalescing the requests to repaint a canvas, so that it is painted at most once per frame.
+ *
+ * A request only marks the canvas as dirty and starts the timer; the canvas is then painted once at the next pulse
+ * of JavaFX, however many requests were made in between, and the timer stops until the next request.
+ * The requests made while the canvas was already dirty are counted as skipped paints.
+ *
+ * @author Mounir Raki (310287)
+ */
+final class RepaintScheduler extends AnimationTimer {
+    private final Runnable paint;
+    private boolean dirty;
+    private long skippedPaintCount;
+
+    /**
+     * Creates a scheduler running the given painting at most once per frame.
+     *
+     * @param paint The painting of the canvas
+     */
+    RepaintScheduler(Runnable paint){
+        this.paint = paint;
+    }
+
+    /**
+     * Requests the canvas to be painted at the next pulse. Must be called on the JavaFX thread.
+     */
+    void requestPaint(){
+        if(dirty)
+            ++skippedPaintCount;
+        else {
+            dirty = true;
+            start();
+        }
+    }
+
+    /**
+     * Paints the canvas if it is dirty, then stops the timer until the next request.
+     *
+     * @param now The time of the current frame (in nanoseconds)
+     */
+    @Override
+    public void handle(long now){
+        stop();
+        if(dirty){
+            dirty = false;
+            paint.run();
+        }
+    }
+
+    /**
+     * Returns the number of requests made while the canvas was already dirty, each of which would have
+     * painted the canvas once more without the scheduler.
+     *
+     * @return The number of skipped paints
+     */
+    long skippedPaintCount(){
+        return skippedPaintCount;
+    }
+}
@@ -9,6 +9,9 @@ import ch.epfl.rigel.coordinates.StereographicProjection;
 import ch.epfl.rigel.math.Angle;
 import ch.epfl.rigel.math.ClosedInterval;
 import ch.epfl.rigel.math.RightOpenInterval;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.DoubleBinding;
 import javafx.beans.binding.ObjectBinding;
@@ -19,17 +22,32 @@ import javafx.scene.canvas.Canvas;
 import javafx.scene.transform.NonInvertibleTransformException;
 import javafx.scene.transform.Transform;
 
+import java.time.ZonedDateTime;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A canvas manager where the sky is drawn.
  *
+ * The observed sky is built on a worker thread, so that building it never stalls the JavaFX thread.
+ * Every change of the parameters of the sky requests a new sky, which supersedes the requests still waiting
+ * for the worker: only the latest one is built. The sky is painted, and used to find the object under the mouse,
+ * once it has been published on the JavaFX thread, along with the projection it was built for.
+ * The transform from the plane to the canvas is not a parameter of the sky: resizing or zooming paints the published
+ * sky again with the new transform, and only requests a new sky if the canvas then shows a part of the sky, or stars
+ * as faint, as the latest requested sky was culled without.
+ * The canvas is painted at most once per frame, however many skies were published or transforms changed during
+ * the frame.
+ *
  * @author Mounir Raki (310287)
  */
 public class SkyCanvasManager {
     private final ObjectBinding<StereographicProjection> projection;
     private final ObjectBinding<Transform> planeToCanvas;
-    private final ObjectBinding<ObservedSky> observedSky;
+    private final ObjectProperty<SkyRequest> publishedSky;
     private final ObjectProperty<CartesianCoordinates> mousePosition;
     private final ObjectBinding<HorizontalCoordinates> mouseHorizontalPosition;
 
@@ -38,6 +56,7 @@ public class SkyCanvasManager {
     private final ObjectBinding<CelestialObject> objectUnderMouse;
 
     private final Canvas canvas;
+    private final RepaintScheduler repaintScheduler;
 
     private final static int MAX_DISTANCE_IN_CANVAS = 10;
     private final static int AZDEG_INCREMENT = 10;
@@ -46,7 +65,19 @@ public class SkyCanvasManager {
     private final static ClosedInterval ALTDEG_INTERVAL = ClosedInterval.of(5, 90);
     private final static ClosedInterval FOV_INTERVAL = ClosedInterval.of(30, 150);
 
+    private final static ExecutorService SKY_BUILDER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Sky builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private double scaleFactor;
+    // The sequence number of the latest request (only accessed on the JavaFX thread).
+    private long requestCount;
+    // The latest request, which the published sky will eventually catch up with (only accessed on the JavaFX thread).
+    private SkyRequest latestRequest;
+    // The latest request which the worker has not started to build yet.
+    private final AtomicReference<SkyRequest> pendingRequest;
 
     /**
      * Constructs a canvas manager from a star catalogue and beans containing the time, location and viewing information.
@@ -80,15 +111,8 @@ public class SkyCanvasManager {
                 projection, viewingParametersBean.fieldOfViewDegProperty(), canvas.widthProperty(), canvas.heightProperty()
         );
 
-        observedSky = Bindings.createObjectBinding(
-                () -> new ObservedSky(
-                        dateTimeBean.getZonedDateTime(),
-                        observerLocationBean.getCoordinates(),
-                        projection.get(),
-                        catalogue),
-                dateTimeBean.dateProperty(), dateTimeBean.timeProperty(), dateTimeBean.zoneProperty(),
-                observerLocationBean.coordinatesProperty(), projection
-        );
+        pendingRequest = new AtomicReference<>();
+        publishedSky = new SimpleObjectProperty<>();
 
         mouseHorizontalPosition = Bindings.createObjectBinding(
                 () -> projection.get().inverseApply(cartMousePos()),
@@ -107,11 +131,15 @@ public class SkyCanvasManager {
 
         objectUnderMouse = Bindings.createObjectBinding(
                 () -> {
+                    SkyRequest sky = publishedSky.get();
+                    if(sky == null)
+                        return null;
+                    CartesianCoordinates mousePosInPlane = cartMousePos();
                     double maxDistanceInPlane = Math.abs(MAX_DISTANCE_IN_CANVAS / scaleFactor);
-                    Optional<CelestialObject> object = observedSky.get()
-                                .objectClosestTo(cartMousePos(), maxDistanceInPlane);
+                    Optional<CelestialObject> object = sky.observedSky
+                                .objectClosestTo(mousePosInPlane, maxDistanceInPlane);
                     return object.orElse(null); },
-                observedSky, mousePosition, planeToCanvas
+                publishedSky, mousePosition, planeToCanvas
         );
 
 
@@ -153,8 +181,24 @@ public class SkyCanvasManager {
             }
         });
 
-        observedSky.addListener((p, o, n) -> painter.paint(observedSky.get(), projection.get(), planeToCanvas.get()));
-        planeToCanvas.addListener((p, o, n) -> painter.paint(observedSky.get(), projection.get(), planeToCanvas.get()));
+        repaintScheduler = new RepaintScheduler(() -> {
+            SkyRequest sky = publishedSky.get();
+            if(sky != null)
+                painter.paint(sky.observedSky, sky.projection, planeToCanvas.get());
+        });
+        publishedSky.addListener((p, o, n) -> repaintScheduler.requestPaint());
+
+        InvalidationListener skyInvalidation =
+                o -> requestSky(catalogue, dateTimeBean, observerLocationBean, viewingParametersBean);
+        dateTimeBean.zonedDateTimeProperty().addListener(skyInvalidation);
+        observerLocationBean.coordinatesProperty().addListener(skyInvalidation);
+        projection.addListener(skyInvalidation);
+        planeToCanvas.addListener(o -> {
+            if(!coversCanvas(latestRequest, viewingParametersBean))
+                requestSky(catalogue, dateTimeBean, observerLocationBean, viewingParametersBean);
+            repaintScheduler.requestPaint();
+        });
+        requestSky(catalogue, dateTimeBean, observerLocationBean, viewingParametersBean);
     }
 
     /**
@@ -184,6 +228,26 @@ public class SkyCanvasManager {
         return mouseAltDeg;
     }
 
+    /**
+     * Getter for the number of paints of the canvas which were skipped because the canvas was already going to be
+     * painted during the same frame.
+     *
+     * @return the number of skipped paints
+     */
+    public long skippedPaintCount(){
+        return repaintScheduler.skippedPaintCount();
+    }
+
+    /**
+     * Getter for the number of skies requested so far, each of which is built unless a later request supersedes it
+     * before the worker gets to it.
+     *
+     * @return the number of requested skies
+     */
+    public long requestCount(){
+        return requestCount;
+    }
+
     /**
      * Getter for the canvas on which the elements are drawn.
      *
@@ -213,6 +277,67 @@ public class SkyCanvasManager {
         return translation.createConcatenation(Transform.scale(scaleFactor, -scaleFactor));
     }
 
+    // The angular distance from the center of the projection to the corners of the canvas, enlarged by the maximal
+    // distance to the mouse so that the objects just outside of the canvas can still be found under it.
+    private double fieldRadius(ViewingParametersBean viewingParametersBean){
+        if(canvas.getWidth() <= 0)
+            return Math.PI;
+        double planeUnitsPerPixel = projection.get()
+                .applyToAngle(Angle.ofDeg(viewingParametersBean.getfieldOfViewDeg())) / canvas.getWidth();
+        double halfDiagonal = Math.hypot(canvas.getWidth(), canvas.getHeight()) / 2 + MAX_DISTANCE_IN_CANVAS;
+        return 2 * Math.atan(halfDiagonal * planeUnitsPerPixel);
+    }
+
+    // Called on the JavaFX thread, once per change of the parameters of the sky, which are all read again so that
+    // their next change is reported. The field radius and limiting magnitude are the ones of the current canvas. The request is numbered here, when it is submitted, rather than in a binding,
+    // whose value may be computed any number of times. The worker only builds the request which is pending when it gets to it, so
+    // that the requests superseded while it was busy are dropped. A failure to build a sky is thrown again on the
+    // JavaFX thread, as it would have been had the sky been built there, and the worker goes on with the next request.
+    private void requestSky(StarCatalogue catalogue, DateTimeBean dateTimeBean,
+                            ObserverLocationBean observerLocationBean, ViewingParametersBean viewingParametersBean){
+        SkyRequest request = new SkyRequest(
+                ++requestCount,
+                catalogue,
+                dateTimeBean.getZonedDateTime(),
+                observerLocationBean.getCoordinates(),
+                projection.get(),
+                fieldRadius(viewingParametersBean),
+                SkyCanvasPainter.limitingMagnitude(projection.get(), planeToCanvas.get()));
+        latestRequest = request;
+        pendingRequest.set(request);
+        SKY_BUILDER.execute(() -> {
+            SkyRequest latest = pendingRequest.getAndSet(null);
+            if(latest == null)
+                return;
+            try{
+                latest.build();
+            } catch (RuntimeException | Error e){
+                Platform.runLater(() -> {
+                    throw e;
+                });
+                return;
+            }
+            Platform.runLater(() -> publish(latest));
+        });
+    }
+
+    // Called on the JavaFX thread, when the transform changed. The transform is read again so that its next change is
+    // reported. The sky of the request is culled for the canvas if it keeps all the sky the canvas shows, and all
+    // the stars bright enough to be drawn on it; the stars it keeps in excess are simply drawn outside the canvas, or
+    // smaller.
+    private boolean coversCanvas(SkyRequest request, ViewingParametersBean viewingParametersBean){
+        double limitingMagnitude = SkyCanvasPainter.limitingMagnitude(projection.get(), planeToCanvas.get());
+        return fieldRadius(viewingParametersBean) <= request.fieldRadius
+                && limitingMagnitude <= request.limitingMagnitude;
+    }
+
+    // Called on the JavaFX thread. A sky older than the one already published is stale, and discarded.
+    private void publish(SkyRequest request){
+        SkyRequest published = publishedSky.get();
+        if(published == null || published.sequenceNumber < request.sequenceNumber)
+            publishedSky.set(request);
+    }
+
     private CartesianCoordinates cartMousePos() {
         try{
             Point2D mousePosInPlane = planeToCanvas.get().inverseTransform(mousePosition.get().x(), mousePosition.get().y());
@@ -222,4 +347,32 @@ public class SkyCanvasManager {
             return CartesianCoordinates.of(0, 0);
         }
     }
+
+    // The parameters of a sky, read on the JavaFX thread, and the sky built from them on the worker thread.
+    private final static class SkyRequest {
+        private final long sequenceNumber;
+        private final StarCatalogue catalogue;
+        private final ZonedDateTime when;
+        private final GeographicCoordinates where;
+        private final StereographicProjection projection;
+        private final double fieldRadius;
+        private final double limitingMagnitude;
+        private volatile ObservedSky observedSky;
+
+        private SkyRequest(long sequenceNumber, StarCatalogue catalogue, ZonedDateTime when, GeographicCoordinates where,
+                           StereographicProjection projection, double fieldRadius, double limitingMagnitude){
+            this.sequenceNumber = sequenceNumber;
+            this.catalogue = catalogue;
+            this.when = when;
+            this.where = where;
+            this.projection = projection;
+            this.fieldRadius = fieldRadius;
+            this.limitingMagnitude = limitingMagnitude;
+        }
+
+        private void build(){
+            observedSky = new ObservedSky(when, where, projection, catalogue, fieldRadius, limitingMagnitude,
+                    ForkJoinPool.commonPool());
+        }
+    }
 }
@@ -1,9 +1,7 @@
 package ch.epfl.rigel.gui;
 
-import ch.epfl.rigel.astronomy.Asterism;
 import ch.epfl.rigel.astronomy.ObservedSky;
 import ch.epfl.rigel.astronomy.Planet;
-import ch.epfl.rigel.astronomy.Star;
 import ch.epfl.rigel.coordinates.*;
 import ch.epfl.rigel.math.Angle;
 import ch.epfl.rigel.math.ClosedInterval;
@@ -15,8 +13,6 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.StrokeLineJoin;
 import javafx.scene.transform.Transform;
 
-import java.util.Iterator;
-
 /**
  * Generates an image of the sky.
  *
@@ -28,6 +24,7 @@ public class SkyCanvasPainter {
     private final GraphicsContext ctx;
     private final static ClosedInterval MAGNITUDE_INTERVAL = ClosedInterval.of(-2, 5);
     private static final double RAD_DIAMETER = Angle.ofDeg(0.5);
+    private static final double MIN_STAR_DIAMETER = 0.5;
     /**
      * Initializes the process of generating an image of the sky.
      *
@@ -115,7 +112,6 @@ public class SkyCanvasPainter {
      * @param transform The transformation used to convert the two-dimensional plane into a plane used by the images.
      */
     public void drawStars(ObservedSky sky, StereographicProjection projection, Transform transform){
-        Iterator<Asterism> asterismsIterator = sky.asterisms().iterator();
         double[] transformedPoints = new double[sky.starPositions().length];
         transform.transform2DPoints(sky.starPositions(), 0, transformedPoints, 0, transformedPoints.length/2);
 
@@ -123,17 +119,16 @@ public class SkyCanvasPainter {
         ctx.setStroke(Color.BLUE);
         ctx.setLineJoin(StrokeLineJoin.ROUND);
 
-        while(asterismsIterator.hasNext()){
-            Asterism asterism = asterismsIterator.next();
+        for(int asterism = 0; asterism < sky.asterismCount(); ++asterism){
             ctx.beginPath();
-            int asterismIndex = 2*sky.asterismsIndices(asterism).get(0);
+            int asterismIndex = 2*sky.asterismStarIndex(asterism, 0);
             double x = transformedPoints[asterismIndex];
             double y = transformedPoints[asterismIndex + 1];
             ctx.moveTo(x, y);
             boolean wasLastPointInCanvas = canvas.getBoundsInLocal().contains(x, y);
 
-            for(int asterismStarIndex : sky.asterismsIndices(asterism).subList(1, sky.asterismsIndices(asterism).size())){
-                int index = 2*asterismStarIndex;
+            for(int position = 1; position < sky.asterismSize(asterism); ++position){
+                int index = 2*sky.asterismStarIndex(asterism, position);
                 x = transformedPoints[index];
                 y = transformedPoints[index + 1];
                 if(canvas.getBoundsInLocal().contains(x, y) || wasLastPointInCanvas){
@@ -146,24 +141,39 @@ public class SkyCanvasPainter {
             ctx.closePath();
         }
 
-        int starIndex = 0;
-        for(Star star : sky.stars()) {
+        for(int starIndex = 0; starIndex < transformedPoints.length/2; ++starIndex) {
             int baseIndex = 2*starIndex;
             double x = transformedPoints[baseIndex];
             double y = transformedPoints[baseIndex + 1];
-            Point2D diameterVector = transformedSizeBasedOnMagnitude(star.magnitude(), projection, transform);
+            Point2D diameterVector = transformedSizeBasedOnMagnitude(sky.starMagnitude(starIndex), projection, transform);
+            if(diameterVector.magnitude() < MIN_STAR_DIAMETER)
+                continue;
             double halfMagnitude = diameterVector.magnitude()/2;
-            Color color = BlackBodyColor.colorForTemperature(star.colorTemperature());
+            Color color = BlackBodyColor.colorForTemperature(sky.starColorTemperature(starIndex));
 
             ctx.setFill(color);
             ctx.fillOval(x - halfMagnitude,
                     y - halfMagnitude,
                     diameterVector.magnitude(),
                     diameterVector.magnitude());
-            starIndex += 1;
         }
     }
 
+    /**
+     * Returns the limiting magnitude of the image, beyond which the stars are too small to be perceived and are
+     * not drawn. This is infinite if every star is large enough.
+     *
+     * @param projection The projection used to project given coordinates into a two-dimensional plane.
+     * @param transform The transformation used to convert the two-dimensional plane into a plane used by the images.
+     *
+     * @return The limiting magnitude of the image
+     */
+    public static double limitingMagnitude(StereographicProjection projection, Transform transform){
+        double maxDiameter = transform.deltaTransform(0, projection.applyToAngle(RAD_DIAMETER)).magnitude();
+        double limitingMagnitude = (99 - 140 * MIN_STAR_DIAMETER / maxDiameter) / 17;
+        return limitingMagnitude < MAGNITUDE_INTERVAL.high() ? limitingMagnitude : Double.POSITIVE_INFINITY;
+    }
+
     /**
      * Generates an image of the sun.
      *
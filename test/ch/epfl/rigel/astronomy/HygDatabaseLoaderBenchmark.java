@@ -0,0 +1,83 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Compares the throughput of the byte-level HYG loader with the former loader,
+ * which split every row into strings, on the bundled catalogue.
+ */
+public final class HygDatabaseLoaderBenchmark {
+    private static final int WARMUP_ROUNDS = 30;
+    private static final int MEASURED_ROUNDS = 100;
+
+    public static void main(String[] args) throws IOException {
+        byte[] catalogue;
+        try(InputStream hygStream = HygDatabaseLoaderBenchmark.class.getResourceAsStream("/hygdata_v3.csv")){
+            catalogue = hygStream.readAllBytes();
+        }
+
+        measure("String.split loader", catalogue, SplitHygDatabaseLoader.INSTANCE);
+        measure("byte-level loader", catalogue, HygDatabaseLoader.INSTANCE);
+    }
+
+    private static void measure(String name, byte[] catalogue, StarCatalogue.Loader loader) throws IOException {
+        for(int i = 0; i < WARMUP_ROUNDS; ++i)
+            new StarCatalogue.Builder().loadFrom(new ByteArrayInputStream(catalogue), loader);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for(int i = 0; i < MEASURED_ROUNDS; ++i)
+            new StarCatalogue.Builder().loadFrom(new ByteArrayInputStream(catalogue), loader);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        double msPerLoad = elapsed / 1e6 / MEASURED_ROUNDS;
+        double mbPerSecond = catalogue.length / 1e6 / (msPerLoad / 1e3);
+        System.out.printf(Locale.ROOT, "%-20s %8.3f ms/load %8.1f MB/s %10.1f KB allocated/load%n",
+                name, msPerLoad, mbPerSecond, allocated / 1024.0 / MEASURED_ROUNDS);
+    }
+
+    // The loader as it was before the byte-level tokenizer, kept as a reference.
+    private enum SplitHygDatabaseLoader implements StarCatalogue.Loader {
+        INSTANCE;
+
+        @Override
+        public void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
+            try(BufferedReader r = new BufferedReader(new InputStreamReader(inputStream, US_ASCII))){
+                r.readLine();
+                String line;
+                while((line = r.readLine()) != null) {
+                    String[] strArray = line.split(",");
+                    String hip = strArray[1];
+                    String mag = strArray[13];
+                    String ci = strArray[16];
+                    String bay = strArray[27];
+                    String pro = strArray[6];
+                    String con = strArray[29];
+
+                    EquatorialCoordinates equatorialPos = EquatorialCoordinates.of(
+                            Double.parseDouble(strArray[23]), Double.parseDouble(strArray[24]));
+                    int hipparcosId = !(hip.isEmpty()) ? Integer.parseInt(hip) : 0;
+                    double magnitude = !(mag.isEmpty()) ? Double.parseDouble(mag) : 0;
+                    double colorIndex = !(ci.isEmpty()) ? Double.parseDouble(ci) : 0;
+                    String bayer = !(bay.isEmpty()) ? bay : "?";
+                    String proper = !(pro.isEmpty()) ? pro : bayer + " " + con;
+
+                    builder.addStar(new Star(hipparcosId, proper, equatorialPos, (float) magnitude, (float) colorIndex));
+                }
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ch.epfl.rigel.astronomy;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
@@ -171,4 +172,11 @@ class MyAsterismLoaderTest {
         }
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void asterismLoaderFailsOnUnknownHipparcosId() {
+        StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        InputStream asterismStream = new ByteArrayInputStream("1,2".getBytes());
+        assertThrows(IOException.class, () -> builder.loadFrom(asterismStream, AsterismLoader.INSTANCE));
+    }
+}
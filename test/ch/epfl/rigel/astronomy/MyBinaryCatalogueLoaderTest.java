@@ -0,0 +1,199 @@
+package ch.epfl.rigel.astronomy;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyBinaryCatalogueLoaderTest {
+    private static final String HYG_CATALOGUE_NAME = "/hygdata_v3.csv";
+    private static final String ASTERISM_CATALOGUE_NAME = "/asterisms.txt";
+
+    private List<Star> csvStars() throws IOException {
+        try(InputStream hygStream = getClass().getResourceAsStream(HYG_CATALOGUE_NAME)){
+            return new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .stars();
+        }
+    }
+
+    private void assertSameStars(List<Star> expected, List<Star> actual){
+        assertEquals(expected.size(), actual.size());
+        for(int i = 0; i < expected.size(); ++i){
+            Star e = expected.get(i);
+            Star a = actual.get(i);
+            assertEquals(e.name(), a.name());
+            assertEquals(e.hipparcosId(), a.hipparcosId());
+            assertEquals(e.equatorialPos().ra(), a.equatorialPos().ra());
+            assertEquals(e.equatorialPos().dec(), a.equatorialPos().dec());
+            assertEquals(e.magnitude(), a.magnitude());
+            assertEquals(e.colorTemperature(), a.colorTemperature());
+        }
+    }
+
+    @Test
+    void mappedCatalogueIsIdenticalToCsvCatalogue() throws IOException {
+        List<Star> expected = csvStars();
+        Path file = Files.createTempFile("hygdata", ".bin");
+        try{
+            try(OutputStream out = Files.newOutputStream(file)){
+                BinaryCatalogueLoader.write(expected, out);
+            }
+
+            try(InputStream asterismStream = getClass().getResourceAsStream(ASTERISM_CATALOGUE_NAME)){
+                StarCatalogue catalogue = new StarCatalogue.Builder()
+                        .loadFrom(file, BinaryCatalogueLoader.INSTANCE)
+                        .loadFrom(asterismStream, AsterismLoader.INSTANCE)
+                        .build();
+
+                assertSameStars(expected, catalogue.stars());
+                assertEquals(153, catalogue.asterisms().size());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void streamedCatalogueIsIdenticalToCsvCatalogue() throws IOException {
+        List<Star> expected = csvStars();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryCatalogueLoader.write(expected, out);
+
+        StarCatalogue.Builder builder = new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(out.toByteArray()), BinaryCatalogueLoader.INSTANCE);
+        assertSameStars(expected, builder.stars());
+    }
+
+    @Test
+    void loadFailsOnOtherData() {
+        byte[] notACatalogue = "id,hip,hd,hr,gl,bf,proper".getBytes();
+        assertThrows(IOException.class, () -> new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(notACatalogue), BinaryCatalogueLoader.INSTANCE));
+    }
+
+    @Test
+    void loadFailsOnTruncatedCatalogue() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryCatalogueLoader.write(csvStars(), out);
+        byte[] bytes = out.toByteArray();
+        byte[] truncated = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+        assertThrows(IOException.class, () -> new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(truncated), BinaryCatalogueLoader.INSTANCE));
+    }
+
+    @Test
+    void mappedCatalogueKeepsTheMappedColumns() throws IOException {
+        List<Star> expected = csvStars();
+        Path file = Files.createTempFile("hygdata", ".bin");
+        try{
+            try(OutputStream out = Files.newOutputStream(file)){
+                BinaryCatalogueLoader.write(expected, out);
+            }
+
+            try(InputStream asterismStream = getClass().getResourceAsStream(ASTERISM_CATALOGUE_NAME)){
+                StarCatalogue.Builder builder = new StarCatalogue.Builder()
+                        .loadFrom(file, BinaryCatalogueLoader.INSTANCE)
+                        .loadFrom(asterismStream, AsterismLoader.INSTANCE);
+                StarCatalogue mapped = builder.build();
+                assertTrue(mapped.table() instanceof MappedStarTable);
+                assertFalse(builder.build(StarCatalogue.Storage.ARRAYS).table() instanceof MappedStarTable);
+
+                for(Asterism asterism : mapped.asterisms()){
+                    List<Integer> indices = mapped.asterismIndices(asterism);
+                    for(int k = 0; k < indices.size(); ++k)
+                        assertSame(asterism.stars().get(k), mapped.stars().get(indices.get(k)));
+                }
+                for(int i = 0; i < expected.size(); ++i)
+                    assertEquals(expected.get(i).colorTemperature(), mapped.table().colorTemperature(i));
+
+                // Sorting the stars, which the file does not give in this order, adds them one by one.
+                StarCatalogue sorted = builder.sortByMagnitude().build();
+                assertFalse(sorted.table() instanceof MappedStarTable);
+                assertEquals(expected.size(), sorted.stars().size());
+                for(int i = 1; i < sorted.stars().size(); ++i)
+                    assertTrue(sorted.stars().get(i - 1).magnitude() <= sorted.stars().get(i).magnitude());
+                assertEquals(153, sorted.asterisms().size());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void catalogueLoadedAfterOtherStarsIsAddedToThem() throws IOException {
+        List<Star> expected = csvStars();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryCatalogueLoader.write(expected, out);
+
+        for(StarCatalogue.Storage storage : StarCatalogue.Storage.values()){
+            StarCatalogue.Builder builder = new StarCatalogue.Builder(storage)
+                    .loadFrom(new ByteArrayInputStream(out.toByteArray()), BinaryCatalogueLoader.INSTANCE)
+                    .loadFrom(new ByteArrayInputStream(out.toByteArray()), BinaryCatalogueLoader.INSTANCE);
+            assertSameStars(expected, builder.stars().subList(0, expected.size()));
+            assertSameStars(expected, builder.stars().subList(expected.size(), 2 * expected.size()));
+            assertEquals(storage == StarCatalogue.Storage.OFF_HEAP, builder.build().table() instanceof OffHeapStarTable);
+        }
+    }
+
+    @Test
+    void shippedCatalogueIsTheCsvCatalogueSortedByMagnitude() throws IOException {
+        List<Star> expected;
+        try(InputStream hygStream = getClass().getResourceAsStream(HYG_CATALOGUE_NAME)){
+            expected = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .sortByMagnitude()
+                    .stars();
+        }
+        try(InputStream binaryStream = getClass().getResourceAsStream("/hygdata_v3.bin")){
+            StarCatalogue.Builder builder = new StarCatalogue.Builder()
+                    .loadFrom(binaryStream, BinaryCatalogueLoader.INSTANCE);
+            assertSameStars(expected, builder.stars());
+            // Already sorted, the stars are not added one by one to be sorted again.
+            assertTrue(builder.sortByMagnitude().build().table() instanceof MappedStarTable);
+        }
+    }
+
+    @Test
+    void loadFailsOnCorruptedNameOffsets() throws IOException {
+        List<Star> stars = csvStars();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryCatalogueLoader.write(stars, out);
+        byte[] bytes = out.toByteArray();
+        int n = stars.size();
+        int nameOffsets = 3 * Integer.BYTES + n * (2 * Double.BYTES + 2 * Float.BYTES + Integer.BYTES);
+
+        for(int[] corruption : new int[][]{{0, 1}, {1, -1}, {1, Integer.MAX_VALUE}, {n, 0}}){
+            byte[] corrupted = bytes.clone();
+            ByteBuffer.wrap(corrupted).putInt(nameOffsets + corruption[0] * Integer.BYTES, corruption[1]);
+            assertThrows(IOException.class, () -> new StarCatalogue.Builder()
+                    .loadFrom(new ByteArrayInputStream(corrupted), BinaryCatalogueLoader.INSTANCE));
+        }
+    }
+
+    @Test
+    void loadFailsOnCorruptedHeader() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryCatalogueLoader.write(csvStars(), out);
+        byte[] bytes = out.toByteArray();
+
+        // Numbers of stars for which the columns would overflow an int.
+        for(int n : new int[]{-1, Integer.MAX_VALUE, Integer.MAX_VALUE / 8 + 1}){
+            byte[] corrupted = bytes.clone();
+            ByteBuffer.wrap(corrupted).putInt(Integer.BYTES, n);
+            assertThrows(IOException.class, () -> new StarCatalogue.Builder()
+                    .loadFrom(new ByteArrayInputStream(corrupted), BinaryCatalogueLoader.INSTANCE));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package ch.epfl.rigel.astronomy;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.DoubleBuffer;
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyEphemerisCacheTest {
+    private static void assertCloseToModel(CelestialObjectModel<?> model, EphemerisCache cache, double positionDelta){
+        Random random = new Random(2020);
+        double[] days = new double[1], ra = new double[1], dec = new double[1];
+        double[] angularSize = new double[1], magnitude = new double[1];
+        double[] values = new double[4];
+        for(int i = 0; i < 5000; ++i){
+            // Instants between 1910 and 2110.
+            days[0] = (random.nextDouble() - 0.5) * 200 * 365.25;
+            model.atAll(days, 0, 1, ra, dec, angularSize, magnitude);
+            cache.at(days[0], values, 0);
+
+            assertEquals(0, Math.IEEEremainder(values[0] - ra[0], 2 * Math.PI) * Math.cos(dec[0]), positionDelta);
+            assertTrue(0 <= values[0] && values[0] < 2 * Math.PI);
+            assertEquals(dec[0], values[1], positionDelta);
+            assertEquals(angularSize[0], values[2], 1e-6 * angularSize[0]);
+            if(magnitude[0] < 5)
+                assertEquals(magnitude[0], values[3], 1e-4);
+        }
+    }
+
+    @Test
+    void moonIsCloseToItsModel(){
+        assertCloseToModel(MoonModel.MOON, EphemerisCache.of(MoonModel.MOON, 1, 12, 64), 1e-6);
+    }
+
+    @Test
+    void sunAndPlanetsAreCloseToTheirModels(){
+        assertCloseToModel(SunModel.SUN, EphemerisCache.of(SunModel.SUN, 8, 12, 64), 1e-9);
+        for(PlanetModel pm : PlanetModel.ALL){
+            if(pm != PlanetModel.EARTH)
+                assertCloseToModel(pm, EphemerisCache.of(pm, 8, 12, 64), 1e-9);
+        }
+    }
+
+    @Test
+    void interpolationIsExactForPolynomials(){
+        int degree = 6;
+        double[] nodes = EphemerisCache.chebyshevNodes(degree);
+        double[][] interpolation = EphemerisCache.interpolation(nodes);
+        DoubleUnaryOperator polynomial = t -> 3*Math.pow(t, 6) - Math.pow(t, 5) + 2*t*t - 0.5;
+        double[] coefficients = new double[degree + 1];
+        for(int j = 0; j <= degree; ++j){
+            for(int k = 0; k <= degree; ++k)
+                coefficients[j] += interpolation[j][k] * polynomial.applyAsDouble(nodes[k]);
+        }
+        // 3t^6 = 3/32 (T6 + 6 T4 + 15 T2 + 10 T0)
+        assertEquals(3.0 / 32, coefficients[6], 1e-12);
+        for(double t = -1; t <= 1; t += 0.125)
+            assertEquals(polynomial.applyAsDouble(t), EphemerisCache.clenshaw(DoubleBuffer.wrap(coefficients), 0, degree + 1, t), 1e-12);
+    }
+
+    @Test
+    void highDegreesAreAsAccurateAsTheTestedOne(){
+        assertCloseToModel(SunModel.SUN, EphemerisCache.of(SunModel.SUN, 8, 20, 64), 1e-9);
+        assertCloseToModel(MoonModel.MOON, EphemerisCache.of(MoonModel.MOON, 1, 20, 64), 1e-6);
+    }
+
+    @Test
+    void segmentsAreComputedOnceAndEvictedLeastRecentlyUsedFirst(){
+        EphemerisCache cache = EphemerisCache.of(PlanetModel.MARS, 8, 12, 3);
+        double[] values = new double[4];
+        cache.at(0.5, values, 0);
+        cache.at(7.5, values, 0);
+        assertEquals(1, cache.computedSegmentCount());
+
+        cache.at(8, values, 0);
+        cache.at(-0.5, values, 0);
+        assertEquals(3, cache.computedSegmentCount());
+        assertEquals(3, cache.cachedSegmentCount());
+
+        // The segment [0, 8) is used again, so that [8, 16) is the least recently used one.
+        cache.at(1, values, 0);
+        cache.at(20, values, 0);
+        assertEquals(4, cache.computedSegmentCount());
+        assertEquals(3, cache.cachedSegmentCount());
+        cache.at(2, values, 0);
+        cache.at(-1, values, 0);
+        assertEquals(4, cache.computedSegmentCount());
+        cache.at(9, values, 0);
+        assertEquals(5, cache.computedSegmentCount());
+    }
+
+    @Test
+    void valuesAreContinuousAtTheLimitsOfSegments(){
+        EphemerisCache cache = EphemerisCache.of(PlanetModel.VENUS, 8, 12, 4);
+        double[] before = new double[4], after = new double[4];
+        cache.at(Math.nextDown(16.0), before, 0);
+        cache.at(16, after, 0);
+        assertEquals(before[0], after[0], 1e-9);
+        assertEquals(before[1], after[1], 1e-9);
+        assertEquals(2, cache.computedSegmentCount());
+    }
+
+    @Test
+    void ofFailsOnInvalidParameters(){
+        assertThrows(IllegalArgumentException.class, () -> EphemerisCache.of(SunModel.SUN, 0, 12, 4));
+        assertThrows(IllegalArgumentException.class, () -> EphemerisCache.of(SunModel.SUN, Double.POSITIVE_INFINITY, 12, 4));
+        assertThrows(IllegalArgumentException.class, () -> EphemerisCache.of(SunModel.SUN, 8, 0, 4));
+        assertThrows(IllegalArgumentException.class, () -> EphemerisCache.of(SunModel.SUN, 8, 21, 4));
+        assertThrows(IllegalArgumentException.class, () -> EphemerisCache.of(SunModel.SUN, 8, 12, 0));
+        assertThrows(NullPointerException.class, () -> EphemerisCache.of(null, 8, 12, 4));
+    }
+
+    @Test
+    void atFailsOnNonFiniteDays(){
+        EphemerisCache cache = EphemerisCache.of(SunModel.SUN, 8, 12, 4);
+        double[] values = new double[4];
+        assertThrows(IllegalArgumentException.class, () -> cache.at(Double.NaN, values, 0));
+        assertThrows(IllegalArgumentException.class, () -> cache.at(Double.POSITIVE_INFINITY, values, 0));
+        assertEquals(0, cache.computedSegmentCount());
+    }
+}
@@ -0,0 +1,131 @@
+package ch.epfl.rigel.astronomy;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyEphemerisTablesTest {
+    // The years 2019 and 2020.
+    private static final double FROM_DAYS = 366;
+    private static final double TO_DAYS = 366 + 731;
+
+    private static Path writeTables() throws IOException {
+        return writeTables(FROM_DAYS, TO_DAYS);
+    }
+
+    private static Path writeTables(double fromDays, double toDays) throws IOException {
+        Path file = Files.createTempFile("ephemerides", ".bin");
+        try(OutputStream out = Files.newOutputStream(file)){
+            EphemerisTables.write(fromDays, toDays, out);
+        }
+        return file;
+    }
+
+    private static void assertCloseToModels(EphemerisTables tables, double fromDays, double toDays){
+        double[] days = new double[1], ra = new double[1], dec = new double[1];
+        double[] values = new double[4];
+        for(CelestialObjectModel<?> model : EphemerisTables.MODELS){
+            double delta = model == MoonModel.MOON ? 1e-6 : 1e-9;
+            for(days[0] = fromDays; days[0] <= toDays; days[0] += 0.37){
+                model.atAll(days, 0, 1, ra, dec, null, null);
+                tables.at(model, days[0], values, 0);
+                assertEquals(0, Math.IEEEremainder(values[0] - ra[0], 2 * Math.PI) * Math.cos(dec[0]), delta);
+                assertEquals(dec[0], values[1], delta);
+            }
+        }
+    }
+
+    @Test
+    void tablesGiveTheSameValuesAsTheCache() throws IOException {
+        Path file = writeTables();
+        try{
+            EphemerisTables tables = EphemerisTables.open(file);
+            Random random = new Random(2020);
+            double[] expected = new double[4], actual = new double[4];
+            for(CelestialObjectModel<?> model : EphemerisTables.MODELS){
+                EphemerisCache cache = EphemerisCache.of(model, tables.segmentDays(model), tables.degree(model), 16);
+                for(int i = 0; i < 1000; ++i){
+                    double days = FROM_DAYS + random.nextDouble() * (TO_DAYS - FROM_DAYS);
+                    cache.at(days, expected, 0);
+                    tables.at(model, days, actual, 0);
+                    assertArrayEquals(expected, actual);
+                }
+                cache.at(TO_DAYS, expected, 0);
+                tables.at(model, TO_DAYS, actual, 0);
+                assertArrayEquals(expected, actual);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void tablesAreCloseToTheModels() throws IOException {
+        Path file = writeTables();
+        try{
+            assertCloseToModels(EphemerisTables.open(file), FROM_DAYS, TO_DAYS);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void tablesAreCloseToTheModelsAtTheEndsOfTheDefaultYears() throws IOException {
+        // The first and the last year of the tables written by main, from 1900 to 2100.
+        double[][] ranges = {
+                {Epoch.J2010.daysUntil(ZonedDateTime.of(1900, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC)),
+                        Epoch.J2010.daysUntil(ZonedDateTime.of(1901, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))},
+                {Epoch.J2010.daysUntil(ZonedDateTime.of(2100, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC)),
+                        Epoch.J2010.daysUntil(ZonedDateTime.of(2101, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))}};
+        for(double[] range : ranges){
+            Path file = writeTables(range[0], range[1]);
+            try{
+                assertCloseToModels(EphemerisTables.open(file), range[0], range[1]);
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void atFailsOutsideOfTheTables() throws IOException {
+        Path file = writeTables();
+        try{
+            EphemerisTables tables = EphemerisTables.open(file);
+            double[] values = new double[4];
+            assertThrows(IllegalArgumentException.class, () -> tables.at(SunModel.SUN, FROM_DAYS - 40, values, 0));
+            assertThrows(IllegalArgumentException.class, () -> tables.at(MoonModel.MOON, TO_DAYS + 5, values, 0));
+            assertThrows(IllegalArgumentException.class, () -> tables.at(PlanetModel.EARTH, FROM_DAYS + 1, values, 0));
+            assertThrows(IllegalArgumentException.class, () -> tables.at(SunModel.SUN, Double.NaN, values, 0));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void openFailsOnInvalidFiles() throws IOException {
+        Path file = Files.createTempFile("ephemerides", ".bin");
+        try{
+            Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+            assertThrows(IOException.class, () -> EphemerisTables.open(file));
+
+            try(OutputStream out = Files.newOutputStream(file)){
+                EphemerisTables.write(FROM_DAYS, TO_DAYS, out);
+            }
+            byte[] content = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(content, content.length - 8));
+            assertThrows(IOException.class, () -> EphemerisTables.open(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package ch.epfl.rigel.astronomy;
 import org.junit.jupiter.api.Test;
 
 import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -87,4 +89,38 @@ class MyEpochTest {
         assertEquals(0, Epoch.J2000.julianCenturiesUntil(jan1_2000), 1e-10);
         assertEquals(0, Epoch.J2010.julianCenturiesUntil(dec31_2009), 1e-10);
     }
-}
\ No newline at end of file
+
+    @Test
+    void julianCenturiesSinceJ2000IsExactForInstantsGivenToTheMillisecond(){
+        ZonedDateTime j2010 = ZonedDateTime.of(LocalDate.of(2009, Month.DECEMBER, 31), LocalTime.MIDNIGHT, ZoneOffset.UTC);
+        Random random = new Random(2020);
+        for(int i = 0; i < 100_000; ++i){
+            // Instants between 1800 and 2200, given to the millisecond.
+            long ms = (long) ((random.nextDouble() - 0.5) * 400 * 365.25 * 86_400_000);
+            ZonedDateTime when = j2010.plus(Duration.ofMillis(ms));
+            assertEquals(Epoch.J2000.julianCenturiesUntil(when),
+                    Epoch.julianCenturiesSinceJ2000(Epoch.J2010.daysUntil(when)));
+        }
+        assertEquals(0, Epoch.julianCenturiesSinceJ2000(-3651.5));
+    }
+
+    @Test
+    void untilOnMillisecondsIsTheSameAsOnDates(){
+        ZonedDateTime j2000 = ZonedDateTime.of(LocalDate.of(2000, Month.JANUARY, 1), LocalTime.NOON, ZoneOffset.UTC);
+        ZonedDateTime j2010 = ZonedDateTime.of(LocalDate.of(2009, Month.DECEMBER, 31), LocalTime.MIDNIGHT, ZoneOffset.UTC);
+        Random random = new Random(2020);
+        for(int i = 0; i < 10_000; ++i){
+            ZonedDateTime when = ZonedDateTime.of(1800 + random.nextInt(400), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60),
+                    random.nextInt(1000) * 1_000_000, ZoneId.of("Europe/Zurich"));
+            long epochMillis = when.toInstant().toEpochMilli();
+
+            double msFromJ2000 = j2000.until(when, ChronoUnit.MILLIS);
+            double msFromJ2010 = j2010.until(when, ChronoUnit.MILLIS);
+            assertEquals(msFromJ2010 / (1000 * 60 * 60 * 24), Epoch.J2010.daysUntil(epochMillis));
+            assertEquals(msFromJ2000 / (1000.0 * 60 * 60 * 24 * 365.25 * 100), Epoch.J2000.julianCenturiesUntil(epochMillis));
+            assertEquals(Epoch.J2010.daysUntil(when), Epoch.J2010.daysUntil(epochMillis));
+            assertEquals(Epoch.J2000.julianCenturiesUntil(when), Epoch.J2000.julianCenturiesUntil(epochMillis));
+        }
+    }
+}
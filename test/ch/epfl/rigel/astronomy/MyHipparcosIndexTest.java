@@ -0,0 +1,67 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyHipparcosIndexTest {
+
+    @Test
+    void indexWorksLikeAMap() {
+        HipparcosIndex index = new HipparcosIndex();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(2020);
+        for (int i = 0; i < 100_000; ++i) {
+            int id = random.nextInt(200_000);
+            index.put(id, i);
+            expected.put(id, i);
+        }
+
+        for (int id = 0; id < 200_000; ++id)
+            assertEquals((int) expected.getOrDefault(id, -1), index.get(id));
+    }
+
+    @Test
+    void clearRemovesEverything() {
+        HipparcosIndex index = new HipparcosIndex();
+        index.put(0, 3);
+        index.put(42, 7);
+        index.clear();
+        assertEquals(-1, index.get(0));
+        assertEquals(-1, index.get(42));
+    }
+
+    @Test
+    void lastStarWithAnIdIsKept() {
+        EquatorialCoordinates equPos = EquatorialCoordinates.of(0, 0);
+        HipparcosIndex index = HipparcosIndex.of(List.of(
+                new Star(5, "a", equPos, 1.f, 1.f),
+                new Star(0, "b", equPos, 1.f, 1.f),
+                new Star(5, "c", equPos, 1.f, 1.f)));
+        assertEquals(2, index.get(5));
+        assertEquals(1, index.get(0));
+        assertEquals(-1, index.get(1));
+    }
+
+    @Test
+    void builderIndexFollowsTheStars() {
+        EquatorialCoordinates equPos = EquatorialCoordinates.of(0, 0);
+        StarCatalogue.Builder builder = new StarCatalogue.Builder()
+                .addStar(new Star(10, "a", equPos, 3.f, 1.f))
+                .addStar(new Star(20, "b", equPos, 1.f, 1.f))
+                .addStar(new Star(30, "c", equPos, 2.f, 1.f));
+        assertEquals(1, builder.indexOfHipparcosId(20));
+        assertEquals(-1, builder.indexOfHipparcosId(40));
+
+        builder.sortByMagnitude();
+        assertEquals(0, builder.indexOfHipparcosId(20));
+        assertEquals(1, builder.indexOfHipparcosId(30));
+        assertEquals(2, builder.indexOfHipparcosId(10));
+    }
+}
@@ -0,0 +1,99 @@
+package ch.epfl.rigel.astronomy;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyHygCsvTokenizerTest {
+    private static final String HYG_CATALOGUE_NAME = "/hygdata_v3.csv";
+    private static final String RIGEL_LINE = "24378,24436,34085,1713,,19Bet Ori,Rigel,5.242298,-8.201640,264.5503,1.87,-0.56,21.0,0.180,-6.933,B8Ia,-0.030,51.601106,256.709905,-37.740051,0.00000182,0.00002121,-0.00000377,1.3724303693276385,-0.143145630755865,0.00000000906601582638889,-0.000000002714956,Bet,19,Ori,1,24378,,51665.42425669497,,,";
+
+    @Test
+    void everyRowIsDecodedLikeWithStringSplit() throws IOException {
+        List<Star> stars;
+        try(InputStream hygStream = getClass().getResourceAsStream(HYG_CATALOGUE_NAME)){
+            stars = new StarCatalogue.Builder().loadFrom(hygStream, HygDatabaseLoader.INSTANCE).stars();
+        }
+
+        try(BufferedReader r = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream(HYG_CATALOGUE_NAME), US_ASCII))){
+            r.readLine();
+            int i = 0;
+            String line;
+            while((line = r.readLine()) != null){
+                String[] columns = line.split(",");
+                Star star = stars.get(i);
+
+                assertEquals(Double.parseDouble(columns[23]), star.equatorialPos().ra());
+                assertEquals(Double.parseDouble(columns[24]), star.equatorialPos().dec());
+                assertEquals(columns[1].isEmpty() ? 0 : Integer.parseInt(columns[1]), star.hipparcosId());
+                assertEquals(columns[13].isEmpty() ? 0f : (float) Double.parseDouble(columns[13]), (float) star.magnitude());
+                assertEquals(columns[16].isEmpty() ? 0f : (float) Double.parseDouble(columns[16]), star.colorIndex());
+                i += 1;
+            }
+            assertEquals(stars.size(), i);
+        }
+    }
+
+    @Test
+    void windowsLineTerminatorsAreIgnored() throws IOException {
+        byte[] bytes = ("header\r\n" + RIGEL_LINE + "\r\n").getBytes(US_ASCII);
+        StarCatalogue.Builder builder = new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(bytes), HygDatabaseLoader.INSTANCE);
+
+        assertEquals(1, builder.stars().size());
+        assertEquals("Rigel", builder.stars().get(0).name());
+        assertEquals(10515, builder.stars().get(0).colorTemperature());
+    }
+
+    @Test
+    void carriageReturnsAloneEndLines() throws IOException {
+        byte[] bytes = ("header\r" + RIGEL_LINE + "\r" + RIGEL_LINE + "\r").getBytes(US_ASCII);
+        StarCatalogue.Builder builder = new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(bytes), HygDatabaseLoader.INSTANCE);
+
+        assertEquals(2, builder.stars().size());
+        assertEquals("Rigel", builder.stars().get(0).name());
+        assertEquals("Rigel", builder.stars().get(1).name());
+    }
+
+    @Test
+    void rowIsDecodedWithinLargerBuffer() {
+        byte[] bytes = ("xx" + RIGEL_LINE + "yy").getBytes(US_ASCII);
+        Star rigel = new HygCsvTokenizer().star(bytes, 2, bytes.length - 2);
+
+        assertEquals("Rigel", rigel.name());
+        assertEquals(24436, rigel.hipparcosId());
+        assertEquals(1.3724303693276385, rigel.equatorialPos().ra());
+        assertEquals(-0.143145630755865, rigel.equatorialPos().dec());
+        assertEquals(0.18f, (float) rigel.magnitude());
+        assertEquals(-0.03f, rigel.colorIndex());
+    }
+
+    @Test
+    void rowsLongerThanTheReadBufferAreLoaded() throws IOException {
+        String longProperName = "x".repeat(200_000);
+        String line = RIGEL_LINE.replace(",Rigel,", "," + longProperName + ",");
+        byte[] bytes = ("header\n" + line + "\n" + RIGEL_LINE).getBytes(US_ASCII);
+        StarCatalogue.Builder builder = new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(bytes), HygDatabaseLoader.INSTANCE);
+
+        assertEquals(2, builder.stars().size());
+        assertEquals(longProperName, builder.stars().get(0).name());
+        assertEquals("Rigel", builder.stars().get(1).name());
+    }
+
+    @Test
+    void missingPositionFails() {
+        byte[] bytes = "88,88,224834,9081,,Tau Phe,,0.017941".getBytes(US_ASCII);
+        assertThrows(NumberFormatException.class, () -> new HygCsvTokenizer().star(bytes, 0, bytes.length));
+    }
+}
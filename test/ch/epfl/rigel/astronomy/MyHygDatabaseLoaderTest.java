@@ -2,8 +2,16 @@ package ch.epfl.rigel.astronomy;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -81,4 +89,113 @@ class MyHygDatabaseLoaderTest {
             assertNotNull(betelgeuse);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void parallelLoadGivesStarsInFileOrder() throws IOException {
+        byte[] catalogue;
+        try (InputStream hygStream = getClass()
+                .getResourceAsStream(HYG_CATALOGUE_NAME)) {
+            catalogue = hygStream.readAllBytes();
+        }
+
+        // Repeats the rows of the catalogue so that the file is split into several chunks.
+        int headerEnd = 0;
+        while (catalogue[headerEnd] != '\n')
+            headerEnd += 1;
+        byte[] rows = Arrays.copyOfRange(catalogue, headerEnd + 1, catalogue.length);
+
+        Path file = Files.createTempFile("hygdata", ".csv");
+        try {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                out.write(catalogue, 0, headerEnd + 1);
+                for (int i = 0; i < 8; ++i)
+                    out.write(rows);
+            }
+
+            List<Star> expected = new StarCatalogue.Builder()
+                    .loadFrom(file, HygDatabaseLoader.INSTANCE)
+                    .stars();
+            assertEquals(8 * 5067, expected.size());
+
+            for (int parallelism : new int[]{1, 3}) {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    StarCatalogue.Builder builder = new StarCatalogue.Builder();
+                    HygDatabaseLoader.INSTANCE.load(file, builder, pool);
+                    List<Star> actual = builder.stars();
+
+                    assertEquals(expected.size(), actual.size());
+                    for (int i = 0; i < expected.size(); ++i) {
+                        assertEquals(expected.get(i).name(), actual.get(i).name());
+                        assertEquals(expected.get(i).hipparcosId(), actual.get(i).hipparcosId());
+                        assertEquals(expected.get(i).equatorialPos().ra(), actual.get(i).equatorialPos().ra());
+                    }
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void everyLineTerminatorGivesTheSameStars() throws IOException {
+        byte[] catalogue;
+        try (InputStream hygStream = getClass()
+                .getResourceAsStream(HYG_CATALOGUE_NAME)) {
+            catalogue = hygStream.readAllBytes();
+        }
+        List<Star> expected = new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(catalogue), HygDatabaseLoader.INSTANCE)
+                .stars();
+
+        String text = new String(catalogue, StandardCharsets.US_ASCII);
+        for (String terminator : new String[]{"\r", "\r\n"}) {
+            // Three copies of the catalogue, so that the file is split into several chunks.
+            String converted = text.replace("\n", terminator);
+            String rows = converted.substring(converted.indexOf(terminator) + terminator.length());
+            byte[] bytes = (converted + rows + rows).getBytes(StandardCharsets.US_ASCII);
+
+            List<Star> serial = new StarCatalogue.Builder()
+                    .loadFrom(new ByteArrayInputStream(bytes), HygDatabaseLoader.INSTANCE)
+                    .stars();
+            Path file = Files.createTempFile("hygdata", ".csv");
+            ForkJoinPool pool = new ForkJoinPool(3);
+            try {
+                Files.write(file, bytes);
+                StarCatalogue.Builder builder = new StarCatalogue.Builder();
+                HygDatabaseLoader.INSTANCE.load(file, builder, pool);
+                List<Star> parallel = builder.stars();
+
+                assertEquals(3 * expected.size(), serial.size());
+                assertEquals(3 * expected.size(), parallel.size());
+                for (int i = 0; i < serial.size(); ++i) {
+                    Star star = expected.get(i % expected.size());
+                    assertEquals(star.name(), serial.get(i).name());
+                    assertEquals(star.name(), parallel.get(i).name());
+                    assertEquals(star.equatorialPos().ra(), parallel.get(i).equatorialPos().ra());
+                }
+            } finally {
+                pool.shutdown();
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void parallelLoadWorksWithoutFinalLineTerminator() throws IOException {
+        Path file = Files.createTempFile("hygdata", ".csv");
+        try {
+            Files.writeString(file, "id,hip\n"
+                    + "24378,24436,34085,1713,,19Bet Ori,Rigel,5.242298,-8.201640,264.5503,1.87,-0.56,21.0,0.180,-6.933,B8Ia,-0.030,51.601106,256.709905,-37.740051,0.00000182,0.00002121,-0.00000377,1.3724303693276385,-0.143145630755865,0.00000000906601582638889,-0.000000002714956,Bet,19,Ori,1,24378,,51665.42425669497,,,");
+
+            StarCatalogue.Builder builder = new StarCatalogue.Builder();
+            HygDatabaseLoader.INSTANCE.load(file, builder, ForkJoinPool.commonPool());
+            assertEquals(1, builder.stars().size());
+            assertEquals("Rigel", builder.stars().get(0).name());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
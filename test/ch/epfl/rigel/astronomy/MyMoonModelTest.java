@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.*;
 import java.util.Locale;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -123,4 +124,53 @@ class MyMoonModelTest {
         assertEquals(0, moon.magnitude());
         assertEquals(refAngDiameter, moon.angularSize());
     }
-}
\ No newline at end of file
+
+    @Test
+    void atAllGivesTheSameValuesAsAt(){
+        int instants = 1000;
+        double[] days = new double[instants];
+        ZonedDateTime[] whens = new ZonedDateTime[instants];
+        Random random = new Random(2020);
+        for(int i = 0; i < instants; ++i){
+            whens[i] = ZonedDateTime.of(1900 + random.nextInt(200), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1000) * 1_000_000,
+                    ZoneOffset.UTC);
+            days[i] = Epoch.J2010.daysUntil(whens[i]);
+        }
+
+        double[] ra = new double[instants], dec = new double[instants];
+        double[] angularSize = new double[instants], magnitude = new double[instants], phase = new double[instants];
+        MoonModel.MOON.atAll(days, 0, instants, ra, dec, angularSize, magnitude, phase);
+        double[] sunRa = new double[instants];
+        SunModel.SUN.atAll(days, 0, instants, sunRa, null, null, null);
+        for(int i = 0; i < instants; ++i){
+            var conversion = new EclipticToEquatorialConversion(whens[i]);
+            Moon expected = MoonModel.MOON.at(days[i], conversion);
+            assertEquals(expected.equatorialPos().ra(), ra[i]);
+            assertEquals(expected.equatorialPos().dec(), dec[i]);
+            assertEquals(expected.angularSize(), angularSize[i]);
+            assertEquals(expected.magnitude(), magnitude[i]);
+            assertEquals(expected.phase(), phase[i]);
+            assertEquals(SunModel.SUN.at(days[i], conversion).equatorialPos().ra(), sunRa[i]);
+        }
+    }
+
+    @Test
+    void atAllWithoutPhasesGivesTheSameValues(){
+        double[] days = {-40_000, -1.5, 0, 3652.25, 40_000};
+        double[] ra = new double[days.length], dec = new double[days.length];
+        double[] angularSize = new double[days.length], magnitude = new double[days.length];
+        double[] phaseRa = new double[days.length], phaseDec = new double[days.length];
+        double[] phaseAngularSize = new double[days.length], phase = new double[days.length];
+
+        CelestialObjectModel<Moon> model = MoonModel.MOON;
+        model.atAll(days, 0, days.length, ra, dec, angularSize, magnitude);
+        MoonModel.MOON.atAll(days, 0, days.length, phaseRa, phaseDec, phaseAngularSize, null, phase);
+        assertArrayEquals(phaseRa, ra);
+        assertArrayEquals(phaseDec, dec);
+        assertArrayEquals(phaseAngularSize, angularSize);
+        assertArrayEquals(new double[days.length], magnitude);
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> MoonModel.MOON.atAll(days, 0, days.length, null, null, null, null, new double[1]));
+    }
+}
@@ -5,10 +5,13 @@ import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.time.*;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class MyObservedSkyTest {
     private final static String HYG_CATALOGUE_NAME = "/hygdata_v3.csv";
@@ -79,8 +82,9 @@ class MyObservedSkyTest {
 
                 double expectedX = cartCoords.x();
                 double expectedY = cartCoords.y();
-                assertEquals(expectedX, observedSky.starPositions()[i]);
-                assertEquals(expectedY, observedSky.starPositions()[i+1]);
+                double delta = 1e-12 * (1 + expectedX*expectedX + expectedY*expectedY);
+                assertEquals(expectedX, observedSky.starPositions()[i], delta);
+                assertEquals(expectedY, observedSky.starPositions()[i+1], delta);
                 i+=2;
             }
         }
@@ -171,4 +175,300 @@ class MyObservedSkyTest {
             assertEquals("Betelgeuse", o.get().name());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void columnarStoragesGiveTheSameSky() throws IOException {
+        try(InputStream asterismStream = getClass()
+                .getResourceAsStream(ASTERISM_CATALOGUE_NAME);
+            InputStream hygStream = getClass()
+                    .getResourceAsStream(HYG_CATALOGUE_NAME)){
+
+            StarCatalogue.Builder builder = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .loadFrom(asterismStream, AsterismLoader.INSTANCE);
+
+            var geoCoords = GeographicCoordinates.ofDeg(30, 45);
+            var stereographic = new StereographicProjection(HorizontalCoordinates.ofDeg(20, 22));
+            var objects = new ObservedSky(ZDT_FRAMAPAD, geoCoords, stereographic, builder.build());
+            var tauPhe = new EquatorialProjection(new EquatorialToHorizontalConversion(ZDT_FRAMAPAD, geoCoords), stereographic)
+                    .apply(EquatorialCoordinates.of(0.004696959812148889, -0.8518930353430763));
+
+            for(StarCatalogue.Storage storage : List.of(StarCatalogue.Storage.ARRAYS, StarCatalogue.Storage.OFF_HEAP)){
+                var arrays = new ObservedSky(ZDT_FRAMAPAD, geoCoords, stereographic, builder.build(storage));
+
+                assertArrayEquals(objects.starPositions(), arrays.starPositions());
+                for(int i = 0; i < objects.stars().size(); ++i){
+                    assertEquals(objects.stars().get(i).magnitude(), arrays.starMagnitude(i));
+                    assertEquals(objects.stars().get(i).colorTemperature(), arrays.starColorTemperature(i));
+                }
+
+                assertEquals("Tau Phe", arrays.objectClosestTo(tauPhe, 0.1).get().name());
+                assertEquals("Tau Phe", arrays.objectClosestTo(tauPhe, 0).get().name());
+            }
+        }
+    }
+
+    @Test
+    void closestObjectDoesNotDependOnTheDistancesOfThePreviousSearches() throws IOException {
+        try(InputStream hygStream = getClass()
+                .getResourceAsStream(HYG_CATALOGUE_NAME)){
+
+            StarCatalogue catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .build();
+
+            var geoCoords = GeographicCoordinates.ofDeg(6.57, 46.52);
+            var stereographic = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40));
+            var sky = new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, catalogue);
+
+            // The grid of the sky is built for the first distance, and then for the ones much larger or smaller.
+            Random rng = new Random(2020);
+            for(double maxDistance : new double[]{1e-3, 1, 1e-4, 0.3, 0, 1e-3}){
+                var fresh = new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, catalogue);
+                for(int k = 0; k < 200; ++k){
+                    int i = rng.nextInt(sky.stars().size());
+                    var c = CartesianCoordinates.of(
+                            sky.starPositions()[2*i] + (maxDistance > 0 ? maxDistance * (rng.nextDouble() - 0.5) : 0),
+                            sky.starPositions()[2*i + 1]);
+                    assertEquals(fresh.objectClosestTo(c, maxDistance), sky.objectClosestTo(c, maxDistance));
+                }
+            }
+        }
+    }
+
+    @Test
+    void culledSkyKeepsTheStarsOfTheField() throws IOException {
+        try(InputStream asterismStream = getClass()
+                .getResourceAsStream(ASTERISM_CATALOGUE_NAME);
+            InputStream hygStream = getClass()
+                    .getResourceAsStream(HYG_CATALOGUE_NAME)){
+
+            StarCatalogue catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .loadFrom(asterismStream, AsterismLoader.INSTANCE)
+                    .build();
+
+            var geoCoords = GeographicCoordinates.ofDeg(6.57, 46.52);
+            var stereographic = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40));
+            double fieldRadius = Math.toRadians(25);
+            var full = new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, catalogue);
+            var culled = new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, catalogue, fieldRadius);
+
+            assertTrue(culled.stars().size() < full.stars().size() / 2);
+            assertEquals(2 * culled.stars().size(), culled.starPositions().length);
+
+            Map<Star, Integer> culledIndices = new IdentityHashMap<>();
+            for(int i = 0; i < culled.stars().size(); ++i)
+                culledIndices.put(culled.stars().get(i), i);
+
+            double maxPlaneDistance = Math.tan(fieldRadius / 2);
+            for(int i = 0; i < full.stars().size(); ++i){
+                double x = full.starPositions()[2*i], y = full.starPositions()[2*i + 1];
+                if(Math.hypot(x, y) < maxPlaneDistance){
+                    Integer j = culledIndices.get(full.stars().get(i));
+                    assertNotNull(j);
+                    assertEquals(x, culled.starPositions()[2*j]);
+                    assertEquals(y, culled.starPositions()[2*j + 1]);
+                    assertEquals(full.starMagnitude(i), culled.starMagnitude(j));
+                    assertEquals(full.starColorTemperature(i), culled.starColorTemperature(j));
+                    assertEquals(full.stars().get(i), culled.objectClosestTo(CartesianCoordinates.of(x, y), 0).get());
+                }
+            }
+
+            for(Asterism asterism : catalogue.asterisms()){
+                List<Integer> fullIndices = full.asterismsIndices(asterism);
+                List<Integer> culledIndicesOfAsterism = culled.asterismsIndices(asterism);
+                assertEquals(fullIndices.size(), culledIndicesOfAsterism.size());
+                for(int k = 0; k < fullIndices.size(); ++k){
+                    assertEquals(full.starPositions()[2*fullIndices.get(k)], culled.starPositions()[2*culledIndicesOfAsterism.get(k)]);
+                    assertEquals(full.starPositions()[2*fullIndices.get(k) + 1], culled.starPositions()[2*culledIndicesOfAsterism.get(k) + 1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void limitingMagnitudeLeavesOutTheFaintStars() throws IOException {
+        try(InputStream asterismStream = getClass()
+                .getResourceAsStream(ASTERISM_CATALOGUE_NAME);
+            InputStream hygStream = getClass()
+                    .getResourceAsStream(HYG_CATALOGUE_NAME)){
+
+            StarCatalogue.Builder builder = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .loadFrom(asterismStream, AsterismLoader.INSTANCE);
+            StarCatalogue unsorted = builder.build();
+            StarCatalogue sorted = builder.sortByMagnitude().build();
+
+            var geoCoords = GeographicCoordinates.ofDeg(6.57, 46.52);
+            var stereographic = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40));
+            double limitingMagnitude = 3;
+
+            Set<Star> asterismStars = new HashSet<>();
+            for(Asterism asterism : unsorted.asterisms())
+                asterismStars.addAll(asterism.stars());
+
+            for(double fieldRadius : new double[]{Math.PI, Math.toRadians(40)}){
+                var full = new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, unsorted, fieldRadius);
+                Set<Star> expected = new HashSet<>();
+                for(Star star : full.stars()){
+                    boolean rises = star.equatorialPos().dec() > geoCoords.lat() - Math.PI / 2;
+                    if((star.magnitude() <= limitingMagnitude && rises) || asterismStars.contains(star))
+                        expected.add(star);
+                }
+
+                for(StarCatalogue catalogue : List.of(unsorted, sorted)){
+                    var bright = new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, catalogue,
+                            fieldRadius, limitingMagnitude);
+                    assertEquals(expected, new HashSet<>(bright.stars()));
+                    assertEquals(expected.size(), bright.stars().size());
+
+                    for(Asterism asterism : catalogue.asterisms()){
+                        List<Integer> indices = bright.asterismsIndices(asterism);
+                        for(int k = 0; k < indices.size(); ++k)
+                            assertSame(asterism.stars().get(k), bright.stars().get(indices.get(k)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void culledSkyLeavesOutTheStarsWhichNeverRise() throws IOException {
+        try(InputStream hygStream = getClass()
+                .getResourceAsStream(HYG_CATALOGUE_NAME)){
+
+            StarCatalogue catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .build();
+
+            var geoCoords = GeographicCoordinates.ofDeg(6.57, 46.52);
+            var stereographic = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 5));
+            var full = new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, catalogue);
+            var culled = new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, catalogue, Math.PI, 6);
+
+            int neverRising = 0;
+            for(Star star : full.stars()){
+                if(star.magnitude() <= 6 && star.equatorialPos().decDeg() < 46.52 - 90 - 1e-6)
+                    ++neverRising;
+            }
+            assertTrue(neverRising > 0);
+
+            for(Star star : culled.stars()){
+                assertTrue(star.magnitude() <= 6);
+                assertTrue(star.equatorialPos().decDeg() > 46.52 - 90 - 1e-6);
+            }
+            assertTrue(culled.stars().stream().noneMatch(s -> s.name().equals("Achernar")));
+            assertTrue(full.stars().stream().anyMatch(s -> s.name().equals("Achernar")));
+        }
+    }
+
+    @Test
+    void asterismStarIndicesAreTheAsterismsIndices() throws IOException {
+        try(InputStream asterismStream = getClass()
+                .getResourceAsStream(ASTERISM_CATALOGUE_NAME);
+            InputStream hygStream = getClass()
+                    .getResourceAsStream(HYG_CATALOGUE_NAME)){
+
+            StarCatalogue catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .loadFrom(asterismStream, AsterismLoader.INSTANCE)
+                    .build();
+
+            var geoCoords = GeographicCoordinates.ofDeg(6.57, 46.52);
+            var stereographic = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40));
+            var full = new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, catalogue);
+            var culled = new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, catalogue, Math.toRadians(30), 4);
+
+            for(ObservedSky sky : List.of(full, culled)){
+                assertEquals(catalogue.asterisms().size(), sky.asterismCount());
+                Set<Asterism> asterisms = new HashSet<>();
+                for(int a = 0; a < sky.asterismCount(); ++a){
+                    Asterism asterism = sky.asterism(a);
+                    asterisms.add(asterism);
+                    List<Integer> indices = sky.asterismsIndices(asterism);
+                    assertEquals(indices.size(), sky.asterismSize(a));
+                    for(int k = 0; k < sky.asterismSize(a); ++k)
+                        assertEquals(indices.get(k), sky.asterismStarIndex(a, k));
+
+                    int a1 = a;
+                    assertThrows(IndexOutOfBoundsException.class, () -> sky.asterismStarIndex(a1, sky.asterismSize(a1)));
+                }
+                assertEquals(catalogue.asterisms(), asterisms);
+            }
+        }
+    }
+
+    @Test
+    void buildingASkyOnlyAllocatesThePositionsOfTheStars() throws IOException {
+        try(InputStream asterismStream = getClass()
+                .getResourceAsStream(ASTERISM_CATALOGUE_NAME);
+            InputStream hygStream = getClass()
+                    .getResourceAsStream(HYG_CATALOGUE_NAME)){
+
+            StarCatalogue catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .loadFrom(asterismStream, AsterismLoader.INSTANCE)
+                    .build();
+
+            var threadBean = ManagementFactory.getThreadMXBean();
+            assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+            var allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+            assumeTrue(allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled());
+
+            var geoCoords = GeographicCoordinates.ofDeg(6.57, 46.52);
+            var stereographic = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40));
+            for(int i = 0; i < 1000; ++i)
+                new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, catalogue);
+
+            int builds = 100;
+            long threadId = Thread.currentThread().getId();
+            long before = allocationBean.getThreadAllocatedBytes(threadId);
+            for(int i = 0; i < builds; ++i)
+                new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, catalogue);
+            long bytesPerBuild = (allocationBean.getThreadAllocatedBytes(threadId) - before) / builds;
+
+            // The positions of the stars (two doubles per star), and a constant budget for the other objects.
+            long budget = 2L * Double.BYTES * catalogue.stars().size() + 16 * 1024;
+            assertTrue(bytesPerBuild <= budget, bytesPerBuild + " bytes allocated per build, for a budget of " + budget);
+        }
+    }
+
+    @Test
+    void parallelSkyHasTheSamePositions(){
+        // Enough stars for the projection to be split into tasks of the pool, even once the sky is culled.
+        int starCount = 200_000;
+        SplittableRandom rng = new SplittableRandom(2020);
+        StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        for(int i = 0; i < starCount; ++i){
+            EquatorialCoordinates pos = EquatorialCoordinates.of(
+                    rng.nextDouble(0, 2 * Math.PI), Math.asin(rng.nextDouble(-1, 1)));
+            builder.addStar(new Star(i, "Star " + i, pos, (float) rng.nextDouble(-1, 12), (float) rng.nextDouble(-0.5, 5)));
+        }
+        StarCatalogue catalogue = builder.build();
+
+        var geoCoords = GeographicCoordinates.ofDeg(6.57, 46.52);
+        var stereographic = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try{
+            var serial = new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, catalogue,
+                    Math.PI, Double.POSITIVE_INFINITY);
+            var parallel = new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, catalogue,
+                    Math.PI, Double.POSITIVE_INFINITY, pool);
+            // The workers of the pool are only started once a task is submitted to it.
+            assertTrue(pool.getPoolSize() > 0);
+            assertEquals(serial.stars(), parallel.stars());
+            assertArrayEquals(serial.starPositions(), parallel.starPositions());
+
+            var culledSerial = new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, catalogue,
+                    Math.toRadians(100), 8);
+            var culledParallel = new ObservedSky(ZDT_SEMESTER_START, geoCoords, stereographic, catalogue,
+                    Math.toRadians(100), 8, pool);
+            assertTrue(culledSerial.stars().size() > 1 << 16);
+            assertEquals(culledSerial.stars(), culledParallel.stars());
+            assertArrayEquals(culledSerial.starPositions(), culledParallel.starPositions());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
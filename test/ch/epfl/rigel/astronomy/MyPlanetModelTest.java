@@ -5,9 +5,15 @@ import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
 import ch.epfl.rigel.math.Angle;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
 import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class MyPlanetModelTest {
     @Test
@@ -221,4 +227,150 @@ class MyPlanetModelTest {
         assertEquals(magnitude, m.magnitude(), 0.1); //FAIL ON 2ND DECIMAL
     }
 
-}
\ No newline at end of file
+    @Test
+    void planetsCanBeEvaluatedFromSeveralThreads() throws Exception {
+        int instants = 2000;
+        double[] days = new double[instants];
+        EclipticToEquatorialConversion[] conversions = new EclipticToEquatorialConversion[instants];
+        Planet[][] expected = new Planet[instants][];
+        Random random = new Random(2020);
+        for(int i = 0; i < instants; ++i){
+            ZonedDateTime when = ZonedDateTime.of(1900 + random.nextInt(200), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), 0, 0, ZoneOffset.UTC);
+            days[i] = Epoch.J2010.daysUntil(when);
+            conversions[i] = new EclipticToEquatorialConversion(when);
+            expected[i] = new Planet[PlanetModel.ALL.size()];
+            for(PlanetModel pm : PlanetModel.ALL){
+                if(pm != PlanetModel.EARTH)
+                    expected[i][pm.ordinal()] = pm.at(days[i], conversions[i]);
+            }
+        }
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try{
+            List<Future<Integer>> results = new ArrayList<>();
+            for(int t = 0; t < threads; ++t){
+                int offset = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int mismatches = 0;
+                    for(int round = 0; round < 5; ++round){
+                        for(int k = 0; k < instants; ++k){
+                            int i = (k * 7 + offset * 251) % instants;
+                            for(PlanetModel pm : PlanetModel.ALL){
+                                if(pm == PlanetModel.EARTH)
+                                    continue;
+                                Planet p = pm.at(days[i], conversions[i]);
+                                Planet e = expected[i][pm.ordinal()];
+                                if(p.equatorialPos().ra() != e.equatorialPos().ra()
+                                        || p.equatorialPos().dec() != e.equatorialPos().dec()
+                                        || p.angularSize() != e.angularSize()
+                                        || p.magnitude() != e.magnitude())
+                                    ++mismatches;
+                            }
+                        }
+                    }
+                    return mismatches;
+                }));
+            }
+            start.countDown();
+            for(Future<Integer> result : results)
+                assertEquals(0, result.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void atAllGivesTheSameValuesAsAt(){
+        int instants = 1000;
+        double[] days = new double[instants];
+        ZonedDateTime[] whens = new ZonedDateTime[instants];
+        Random random = new Random(2020);
+        for(int i = 0; i < instants; ++i){
+            whens[i] = ZonedDateTime.of(1900 + random.nextInt(200), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1000) * 1_000_000,
+                    ZoneOffset.UTC);
+            days[i] = Epoch.J2010.daysUntil(whens[i]);
+        }
+
+        for(PlanetModel pm : PlanetModel.ALL){
+            if(pm == PlanetModel.EARTH)
+                continue;
+            double[] ra = new double[instants], dec = new double[instants];
+            double[] angularSize = new double[instants], magnitude = new double[instants];
+            // Computed in two ranges, as different threads would do.
+            pm.atAll(days, 0, instants / 3, ra, dec, angularSize, magnitude);
+            pm.atAll(days, instants / 3, instants, ra, dec, angularSize, magnitude);
+            for(int i = 0; i < instants; ++i){
+                Planet expected = pm.at(days[i], new EclipticToEquatorialConversion(whens[i]));
+                assertEquals(expected.equatorialPos().ra(), ra[i]);
+                assertEquals(expected.equatorialPos().dec(), dec[i]);
+                assertEquals(expected.angularSize(), angularSize[i]);
+                assertEquals(expected.magnitude(), magnitude[i]);
+            }
+        }
+    }
+
+    @Test
+    void atAllOnlyWritesTheGivenRangeOfTheGivenArrays(){
+        double[] days = {-1000, 0, 1000, 2000};
+        double[] ra = {7, 7, 7, 7};
+        double[] magnitude = {7, 7, 7, 7};
+        PlanetModel.MARS.atAll(days, 1, 3, ra, null, null, magnitude);
+        assertEquals(7, ra[0]);
+        assertNotEquals(7, ra[1]);
+        assertNotEquals(7, ra[2]);
+        assertEquals(7, ra[3]);
+        assertEquals(7, magnitude[0]);
+        assertEquals(7, magnitude[3]);
+    }
+
+    @Test
+    void atAllFailsOnInvalidRanges(){
+        double[] days = new double[4];
+        assertThrows(IndexOutOfBoundsException.class, () -> PlanetModel.MARS.atAll(days, 2, 1, null, null, null, null));
+        assertThrows(IndexOutOfBoundsException.class, () -> PlanetModel.MARS.atAll(days, 0, 5, null, null, null, null));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> PlanetModel.MARS.atAll(days, 0, 4, new double[3], null, null, null));
+    }
+
+    @Test
+    void atAllFailsOnTheEarth(){
+        double[] days = new double[4];
+        assertThrows(IllegalArgumentException.class,
+                () -> PlanetModel.EARTH.atAll(days, 0, 4, new double[4], null, null, null));
+    }
+
+    @Test
+    void atAllDoesNotAllocateForEachInstant(){
+        var threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        var allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled());
+
+        int instants = 10_000;
+        double[] days = new double[instants];
+        for(int i = 0; i < instants; ++i)
+            days[i] = -36_000 + 7.3 * i;
+        double[] ra = new double[instants], dec = new double[instants];
+        double[] angularSize = new double[instants], magnitude = new double[instants];
+
+        List<CelestialObjectModel<?>> models = new ArrayList<>(List.of(SunModel.SUN, MoonModel.MOON));
+        for(PlanetModel pm : PlanetModel.ALL){
+            if(pm != PlanetModel.EARTH)
+                models.add(pm);
+        }
+        long threadId = Thread.currentThread().getId();
+        for(CelestialObjectModel<?> model : models){
+            model.atAll(days, 0, instants, ra, dec, angularSize, magnitude);
+            long before = allocationBean.getThreadAllocatedBytes(threadId);
+            model.atAll(days, 0, instants, ra, dec, angularSize, magnitude);
+            long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+            // A few small arrays for the whole range, and nothing for each instant.
+            assertTrue(allocated < 1024, model + " allocated " + allocated + " bytes for " + instants + " instants");
+        }
+    }
+}
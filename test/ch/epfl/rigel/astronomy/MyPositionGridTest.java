@@ -0,0 +1,84 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.CartesianCoordinates;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyPositionGridTest {
+
+    // The linear search of ObservedSky.objectClosestTo, going through the points in order.
+    private static int linearClosestIndex(double[] positions, CartesianCoordinates c, double maxDistance) {
+        int closest = -1;
+        if (maxDistance > 0) {
+            double minDistance = maxDistance;
+            for (int i = 0; i < positions.length / 2; ++i) {
+                double x = positions[2 * i], y = positions[2 * i + 1];
+                if (c.x() - minDistance <= x && x <= c.x() + minDistance
+                        && c.y() - minDistance <= y && y <= c.y() + minDistance) {
+                    double distance = Math.sqrt((x - c.x()) * (x - c.x()) + (y - c.y()) * (y - c.y()));
+                    if (distance < minDistance) {
+                        minDistance = distance;
+                        closest = i;
+                    }
+                }
+            }
+        } else {
+            for (int i = 0; i < positions.length / 2; ++i) {
+                if (c.x() == positions[2 * i] && c.y() == positions[2 * i + 1])
+                    closest = i;
+            }
+        }
+        return closest;
+    }
+
+    private static double[] randomPositions(Random random, int count) {
+        double[] positions = new double[2 * count];
+        for (int i = 0; i < count; ++i) {
+            if (i > 0 && random.nextInt(10) == 0) {
+                int other = random.nextInt(i);
+                positions[2 * i] = positions[2 * other];
+                positions[2 * i + 1] = positions[2 * other + 1];
+            } else {
+                double scale = random.nextInt(20) == 0 ? 100 : 1;
+                positions[2 * i] = scale * (2 * random.nextDouble() - 1);
+                positions[2 * i + 1] = scale * (2 * random.nextDouble() - 1);
+            }
+        }
+        positions[0] = Double.POSITIVE_INFINITY;
+        positions[3] = Double.NaN;
+        return positions;
+    }
+
+    @Test
+    void closestIndexIsTheOneOfTheLinearSearch() {
+        Random random = new Random(2020);
+        double[] positions = randomPositions(random, 5000);
+
+        for (double cellSize : new double[]{0.001, 0.03, 1, 50}) {
+            PositionGrid grid = new PositionGrid(positions, cellSize);
+            for (int k = 0; k < 2000; ++k) {
+                CartesianCoordinates c = CartesianCoordinates.of(2.2 * random.nextDouble() - 1.1, 2.2 * random.nextDouble() - 1.1);
+                double maxDistance = Math.pow(10, -4 + 4 * random.nextDouble());
+                assertEquals(linearClosestIndex(positions, c, maxDistance), grid.closestIndex(c, maxDistance, false));
+            }
+        }
+    }
+
+    @Test
+    void tiesAndExactSearchesGiveTheSameIndexAsTheLinearSearch() {
+        Random random = new Random(2021);
+        double[] positions = randomPositions(random, 3000);
+        PositionGrid grid = new PositionGrid(positions, 0.02);
+
+        for (int i = 2; i < positions.length / 2; ++i) {
+            CartesianCoordinates c = CartesianCoordinates.of(positions[2 * i], positions[2 * i + 1]);
+            assertEquals(linearClosestIndex(positions, c, 0), grid.closestIndex(c, 0, true));
+            assertEquals(linearClosestIndex(positions, c, 0.01), grid.closestIndex(c, 0.01, false));
+        }
+        assertEquals(-1, grid.closestIndex(CartesianCoordinates.of(5, 5), 0, true));
+        assertEquals(-1, grid.closestIndex(CartesianCoordinates.of(5, 5), 1e-6, false));
+    }
+}
@@ -5,6 +5,8 @@ import ch.epfl.rigel.math.Angle;
 import org.junit.jupiter.api.Test;
 
 import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
 
 import static ch.epfl.rigel.astronomy.SiderealTime.greenwich;
 import static ch.epfl.rigel.astronomy.SiderealTime.local;
@@ -123,4 +125,32 @@ class MySiderealTimeTest {
         assertEquals(Angle.normalizePositive(4.894961210641396+Angle.ofDeg(-179)), local(jan1_2000, GeographicCoordinates.ofDeg(-179, 0)), 1e-8);
         assertEquals(Angle.normalizePositive(1.7375098083318568+Angle.ofDeg(179)), local(dec31_2009, GeographicCoordinates.ofDeg(179, 0)), 1e-8);
     }
-}
\ No newline at end of file
+
+    // The computation of the greenwich sidereal time on dates, as it was done before the overloads on milliseconds.
+    private static double greenwichOnDates(ZonedDateTime when){
+        ZonedDateTime whenInUTC = when.withZoneSameInstant(ZoneOffset.UTC);
+        ZonedDateTime whenInDaysOnly = whenInUTC.truncatedTo(ChronoUnit.DAYS);
+        double julianCenturies = ZonedDateTime.of(2000, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC)
+                .until(whenInDaysOnly, ChronoUnit.MILLIS) / (1000.0 * 60 * 60 * 24 * 365.25 * 100);
+        double hours = whenInDaysOnly.until(whenInUTC, ChronoUnit.MILLIS) / (3600.0 * 1000.0);
+        double s0 = (0.000025862 * julianCenturies + 2400.051336) * julianCenturies + 6.697374558;
+        return Angle.normalizePositive(Angle.ofHr(s0 + 1.002737909 * hours));
+    }
+
+    @Test
+    void greenwichOnMillisecondsIsTheSameAsOnDates(){
+        Random random = new Random(2020);
+        ZoneId[] zones = {ZoneOffset.UTC, ZoneId.of("Europe/Zurich"), ZoneId.of("America/Los_Angeles"), ZoneOffset.ofHours(14)};
+        for(int i = 0; i < 10_000; ++i){
+            ZonedDateTime when = ZonedDateTime.of(1900 + random.nextInt(200), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60),
+                    random.nextInt(1_000_000_000), zones[random.nextInt(zones.length)]);
+            long epochMillis = when.toInstant().toEpochMilli();
+            assertEquals(greenwichOnDates(when), greenwich(epochMillis));
+            assertEquals(greenwich(when), greenwich(epochMillis));
+
+            var where = GeographicCoordinates.ofDeg(random.nextInt(360) - 180, random.nextInt(180) - 90);
+            assertEquals(local(when, where), local(epochMillis, where));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MySolarSystemSnapshotTest {
+
+    private static void assertSameObject(CelestialObject expected, CelestialObject actual){
+        assertEquals(expected.name(), actual.name());
+        assertEquals(expected.equatorialPos().ra(), actual.equatorialPos().ra());
+        assertEquals(expected.equatorialPos().dec(), actual.equatorialPos().dec());
+        assertEquals(expected.angularSize(), actual.angularSize());
+        assertEquals(expected.magnitude(), actual.magnitude());
+        assertEquals(expected.info(), actual.info());
+    }
+
+    @Test
+    void snapshotGivesExactlyTheObjectsOfTheModels(){
+        Random random = new Random(2020);
+        for(int k = 0; k < 200; ++k){
+            ZonedDateTime when = ZonedDateTime.of(1900 + random.nextInt(200), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), 0, 0, ZoneOffset.UTC);
+            double days = Epoch.J2010.daysUntil(when);
+            EclipticToEquatorialConversion eclToEqu = new EclipticToEquatorialConversion(when);
+
+            SolarSystemSnapshot snapshot = SolarSystemSnapshot.at(days, eclToEqu);
+
+            Sun sun = SunModel.SUN.at(days, eclToEqu);
+            assertSameObject(sun, snapshot.sun());
+            assertEquals(sun.eclipticPos().lon(), snapshot.sun().eclipticPos().lon());
+            assertEquals(sun.meanAnomaly(), snapshot.sun().meanAnomaly());
+            assertSameObject(MoonModel.MOON.at(days, eclToEqu), snapshot.moon());
+
+            List<Planet> planets = snapshot.planets();
+            assertEquals(7, planets.size());
+            int i = 0;
+            for(PlanetModel pm : PlanetModel.ALL){
+                if(pm != PlanetModel.EARTH)
+                    assertSameObject(pm.at(days, eclToEqu), planets.get(i++));
+            }
+        }
+    }
+
+    @Test
+    void planetsAreUnmodifiable(){
+        ZonedDateTime when = ZonedDateTime.of(2020, 4, 4, 0, 0, 0, 0, ZoneOffset.UTC);
+        SolarSystemSnapshot snapshot = SolarSystemSnapshot.at(Epoch.J2010.daysUntil(when), new EclipticToEquatorialConversion(when));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.planets().remove(0));
+    }
+}
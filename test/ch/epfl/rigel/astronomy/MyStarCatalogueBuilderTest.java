@@ -134,4 +134,58 @@ class MyStarCatalogueBuilderTest {
             builder.asterisms().clear();
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void sortByMagnitudeKeepsTheAsterismsCorrect() {
+        EquatorialCoordinates equPos = EquatorialCoordinates.of(Angle.ofHr(21), Angle.TAU/8);
+        Star star0 = new Star(1, "star0", equPos, 3.f, 1.f);
+        Star star1 = new Star(1, "star1", equPos, -1.f, 1.f);
+        Star star2 = new Star(1, "star2", equPos, 3.f, 1.f);
+        Star star3 = new Star(1, "star3", equPos, 0.5f, 1.f);
+        Asterism asterism = new Asterism(List.of(star0, star3, star1));
+
+        StarCatalogue catalogue = new StarCatalogue.Builder()
+                .addStar(star0).addStar(star1).addStar(star2).addStar(star3)
+                .addAsterism(asterism)
+                .sortByMagnitude()
+                .build();
+
+        assertEquals(List.of(star1, star3, star0, star2), catalogue.stars());
+        assertEquals(List.of(2, 1, 0), catalogue.asterismIndices(asterism));
+        assertArrayEquals(new int[]{0, 1}, catalogue.starsBrighterThan(0.5));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, catalogue.starsBrighterThan(3));
+        assertArrayEquals(new int[0], catalogue.starsBrighterThan(-2));
+    }
+
+    @Test
+    void starsBrighterThanWorksOnUnsortedCatalogues() {
+        EquatorialCoordinates equPos = EquatorialCoordinates.of(Angle.ofHr(21), Angle.TAU/8);
+        StarCatalogue catalogue = new StarCatalogue.Builder()
+                .addStar(new Star(1, "star0", equPos, 3.f, 1.f))
+                .addStar(new Star(1, "star1", equPos, -1.f, 1.f))
+                .addStar(new Star(1, "star2", equPos, 3.f, 1.f))
+                .addStar(new Star(1, "star3", equPos, 0.5f, 1.f))
+                .build(StarCatalogue.Storage.ARRAYS);
+
+        assertArrayEquals(new int[]{1, 3}, catalogue.starsBrighterThan(0.5));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, catalogue.starsBrighterThan(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void addStarsIsTheSameAsAddingTheStarsOneByOne() {
+        EquatorialCoordinates equPos = EquatorialCoordinates.of(Angle.ofHr(21), Angle.TAU/8);
+        Star star0 = new Star(10, "star0", equPos, 1.f, 1.f);
+        Star star1 = new Star(20, "star1", equPos, 1.f, 1.f);
+        Star star2 = new Star(10, "star2", equPos, 1.f, 1.f);
+
+        StarCatalogue.Builder builder = new StarCatalogue.Builder()
+                .addStar(star0)
+                .addStars(List.of(star1, star2))
+                .addStars(List.of());
+
+        assertEquals(List.of(star0, star1, star2), builder.stars());
+        assertEquals(2, builder.indexOfHipparcosId(10));
+        assertEquals(1, builder.indexOfHipparcosId(20));
+        assertEquals(-1, builder.indexOfHipparcosId(30));
+    }
+}
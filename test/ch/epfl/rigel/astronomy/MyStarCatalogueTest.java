@@ -1,11 +1,15 @@
 package ch.epfl.rigel.astronomy;
 
 import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
 import ch.epfl.rigel.math.Angle;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -116,4 +120,242 @@ class MyStarCatalogueTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void everyStorageGivesTheSameStars() throws IOException {
+        try (InputStream hygStream = getClass()
+                .getResourceAsStream(CATALOGUE_NAME);
+             InputStream asterismStream = getClass()
+                     .getResourceAsStream(ASTERISM_CATALOGUE_NAME)) {
+            StarCatalogue.Builder builder = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE).loadFrom(asterismStream, AsterismLoader.INSTANCE);
+            StarCatalogue objects = builder.build();
+            for (StarCatalogue.Storage storage : StarCatalogue.Storage.values())
+                assertSameStars(objects, builder.build(storage));
+        }
+    }
+
+    private static void assertSameStars(StarCatalogue expectedCatalogue, StarCatalogue actualCatalogue) {
+        assertEquals(expectedCatalogue.stars().size(), actualCatalogue.stars().size());
+        for (int i = 0; i < expectedCatalogue.stars().size(); ++i) {
+            Star expected = expectedCatalogue.stars().get(i);
+            Star actual = actualCatalogue.stars().get(i);
+            assertEquals(expected.name(), actual.name());
+            assertEquals(expected.hipparcosId(), actual.hipparcosId());
+            assertEquals(expected.equatorialPos().ra(), actual.equatorialPos().ra());
+            assertEquals(expected.equatorialPos().dec(), actual.equatorialPos().dec());
+            assertEquals(expected.magnitude(), actual.magnitude());
+            assertEquals(expected.colorTemperature(), actual.colorTemperature());
+        }
+
+        assertEquals(expectedCatalogue.asterisms(), actualCatalogue.asterisms());
+        for (Asterism asterism : expectedCatalogue.asterisms())
+            assertEquals(expectedCatalogue.asterismIndices(asterism), actualCatalogue.asterismIndices(asterism));
+    }
+
+    @Test
+    void offHeapBuilderGivesTheSameStarsAsObjectBuilder() throws IOException {
+        for (boolean sorted : new boolean[]{false, true}) {
+            StarCatalogue.Builder objectBuilder = new StarCatalogue.Builder();
+            StarCatalogue.Builder offHeapBuilder = new StarCatalogue.Builder(StarCatalogue.Storage.OFF_HEAP);
+            for (StarCatalogue.Builder builder : List.of(objectBuilder, offHeapBuilder)) {
+                try (InputStream hygStream = getClass().getResourceAsStream(CATALOGUE_NAME)) {
+                    builder.loadFrom(hygStream, HygDatabaseLoader.INSTANCE);
+                }
+                if (sorted)
+                    builder.sortByMagnitude();
+                try (InputStream asterismStream = getClass().getResourceAsStream(ASTERISM_CATALOGUE_NAME)) {
+                    builder.loadFrom(asterismStream, AsterismLoader.INSTANCE);
+                }
+            }
+
+            StarCatalogue objects = objectBuilder.build();
+            StarCatalogue offHeap = offHeapBuilder.build();
+            assertTrue(offHeap.table() instanceof OffHeapStarTable);
+            assertEquals(objects.stars().size(), offHeap.stars().size());
+            for (int i = 0; i < objects.stars().size(); ++i) {
+                assertEquals(objects.stars().get(i).name(), offHeap.stars().get(i).name());
+                assertEquals(objects.stars().get(i).magnitude(), offHeap.stars().get(i).magnitude());
+                assertEquals(objects.stars().get(i).equatorialPos().ra(), offHeap.stars().get(i).equatorialPos().ra());
+            }
+            for (int a = 0; a < objectBuilder.asterisms().size(); ++a)
+                assertEquals(objects.asterismIndices(objectBuilder.asterisms().get(a)),
+                        offHeap.asterismIndices(offHeapBuilder.asterisms().get(a)));
+            for (StarCatalogue.Storage storage : StarCatalogue.Storage.values())
+                assertSameStars(offHeap, offHeapBuilder.build(storage));
+            for (Asterism asterism : offHeap.asterisms()) {
+                List<Integer> indices = offHeap.asterismIndices(asterism);
+                for (int k = 0; k < indices.size(); ++k)
+                    assertSame(asterism.stars().get(k), offHeap.stars().get(indices.get(k)));
+            }
+
+            // The stars added after a catalogue is built do not change it.
+            offHeapBuilder.addStar(new Star(1, "added", EquatorialCoordinates.of(0, 0), 0, 0));
+            assertEquals(objectBuilder.stars().size(), offHeap.stars().size());
+            assertEquals("added", offHeapBuilder.build().stars().get(objectBuilder.stars().size()).name());
+        }
+    }
+
+    @Test
+    void everyStorageKeepsTheStarsOfTheAsterisms() throws IOException {
+        try (InputStream hygStream = getClass()
+                .getResourceAsStream(CATALOGUE_NAME);
+             InputStream asterismStream = getClass()
+                     .getResourceAsStream(ASTERISM_CATALOGUE_NAME)) {
+            StarCatalogue.Builder builder = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE).loadFrom(asterismStream, AsterismLoader.INSTANCE);
+            for (StarCatalogue.Storage storage : StarCatalogue.Storage.values()) {
+                StarCatalogue catalogue = builder.build(storage);
+                int[] asterismStars = catalogue.asterismStarIndices();
+                for (int i : asterismStars)
+                    assertSame(catalogue.stars().get(i), catalogue.stars().get(i));
+                if (storage != StarCatalogue.Storage.OBJECTS) {
+                    int other = 0;
+                    while (Arrays.binarySearch(asterismStars, other) >= 0)
+                        ++other;
+                    assertNotSame(catalogue.stars().get(other), catalogue.stars().get(other));
+                    assertEquals(catalogue.stars().get(other).name(), catalogue.stars().get(other).name());
+                }
+
+                for (Asterism asterism : catalogue.asterisms()) {
+                    List<Integer> indices = catalogue.asterismIndices(asterism);
+                    for (int k = 0; k < indices.size(); ++k) {
+                        Star star = catalogue.stars().get(indices.get(k));
+                        assertSame(asterism.stars().get(k), star);
+                        assertTrue(asterism.stars().contains(star));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void columnarStoragesStarsAreUnmodifiable() {
+        for (StarCatalogue.Storage storage : List.of(StarCatalogue.Storage.ARRAYS, StarCatalogue.Storage.OFF_HEAP)) {
+            StarCatalogue catalogue = new StarCatalogue(stars, asterisms, storage);
+            assertEquals(4, catalogue.stars().size());
+            assertEquals("star2", catalogue.stars().get(2).name());
+            assertThrows(UnsupportedOperationException.class, () -> catalogue.stars().remove(0));
+            assertThrows(IndexOutOfBoundsException.class, () -> catalogue.stars().get(4));
+        }
+    }
+
+    @Test
+    void starsInConeContainsEveryStarOfTheCone() throws IOException {
+        try (InputStream hygStream = getClass().getResourceAsStream(CATALOGUE_NAME)) {
+            StarCatalogue catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .build(StarCatalogue.Storage.ARRAYS);
+
+            Random random = new Random(2020);
+            for (int k = 0; k < 50; ++k) {
+                EquatorialCoordinates center = EquatorialCoordinates.of(
+                        random.nextDouble() * Angle.TAU, Math.asin(2 * random.nextDouble() - 1));
+                double radius = random.nextDouble() * Math.PI / 2;
+
+                int[] found = catalogue.starsInCone(center, radius);
+                for (int i = 1; i < found.length; ++i)
+                    assertTrue(found[i - 1] < found[i]);
+
+                Set<Integer> foundSet = new HashSet<>();
+                for (int index : found)
+                    foundSet.add(index);
+                for (int i = 0; i < catalogue.stars().size(); ++i) {
+                    if (angularDistance(center, catalogue.stars().get(i).equatorialPos()) <= radius)
+                        assertTrue(foundSet.contains(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    void starsInConeLeavesOutMostStarsOfASmallCone() throws IOException {
+        try (InputStream hygStream = getClass().getResourceAsStream(CATALOGUE_NAME)) {
+            StarCatalogue catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .build();
+
+            int[] found = catalogue.starsInCone(EquatorialCoordinates.of(1, 0.5), Angle.ofDeg(15));
+            assertTrue(found.length > 0);
+            assertTrue(found.length < catalogue.stars().size() / 10);
+            assertEquals(catalogue.stars().size(), catalogue.starsInCone(EquatorialCoordinates.of(1, 0.5), Math.PI).length);
+            assertThrows(IllegalArgumentException.class, () -> catalogue.starsInCone(EquatorialCoordinates.of(1, 0.5), -1));
+        }
+    }
+
+    @Test
+    void starsAboveContainsEveryStarAboveTheAltitude() throws IOException {
+        try (InputStream hygStream = getClass().getResourceAsStream(CATALOGUE_NAME)) {
+            StarCatalogue catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .build(StarCatalogue.Storage.ARRAYS);
+
+            Random random = new Random(2020);
+            for (int k = 0; k < 40; ++k) {
+                ZonedDateTime when = ZonedDateTime.of(2020, 1 + random.nextInt(12), 1 + random.nextInt(28),
+                        random.nextInt(24), random.nextInt(60), 0, 0, ZoneOffset.UTC);
+                double latDeg = k < 4 ? 90 * (k % 2 == 0 ? 1 : -1) : random.nextDouble() * 180 - 90;
+                GeographicCoordinates where = GeographicCoordinates.ofDeg(random.nextDouble() * 360 - 180, latDeg);
+                double altitude = random.nextDouble() * Math.PI - Math.PI / 2;
+                EquatorialToHorizontalConversion equToHor = new EquatorialToHorizontalConversion(when, where);
+
+                int[] found = catalogue.starsAbove(when, where, altitude);
+                for (int i = 1; i < found.length; ++i)
+                    assertTrue(found[i - 1] < found[i]);
+
+                Set<Integer> foundSet = new HashSet<>();
+                for (int index : found)
+                    foundSet.add(index);
+                for (int i = 0; i < catalogue.stars().size(); ++i) {
+                    if (equToHor.apply(catalogue.stars().get(i).equatorialPos()).alt() >= altitude + 1e-9)
+                        assertTrue(foundSet.contains(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    void starsAboveLeavesOutTheStarsWhichNeverRise() throws IOException {
+        try (InputStream hygStream = getClass().getResourceAsStream(CATALOGUE_NAME)) {
+            StarCatalogue catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .build();
+
+            GeographicCoordinates where = GeographicCoordinates.ofDeg(6.57, 46.52);
+            ZonedDateTime when = ZonedDateTime.of(2020, 2, 17, 20, 15, 0, 0, ZoneOffset.ofHours(1));
+            int[] aboveHorizon = catalogue.starsAbove(when, where, 0);
+            for (int index : aboveHorizon)
+                assertTrue(catalogue.stars().get(index).equatorialPos().decDeg() >= 46.52 - 90 - 1);
+            assertTrue(aboveHorizon.length < 0.6 * catalogue.stars().size());
+
+            int[] rising = catalogue.starsReaching(where.lat(), 0);
+            for (int index : aboveHorizon)
+                assertTrue(Arrays.binarySearch(rising, index) >= 0);
+            for (int i = 0; i < catalogue.stars().size(); ++i) {
+                double decDeg = catalogue.stars().get(i).equatorialPos().decDeg();
+                if (decDeg > 46.52 - 90 + 1e-6)
+                    assertTrue(Arrays.binarySearch(rising, i) >= 0);
+                else if (decDeg < 46.52 - 90 - 1e-6)
+                    assertTrue(Arrays.binarySearch(rising, i) < 0);
+            }
+            assertTrue(catalogue.starsAbove(when, where, Angle.ofDeg(60)).length < catalogue.stars().size() / 5);
+
+            assertEquals(catalogue.stars().size(), catalogue.starsAbove(when, where, -Math.PI / 2).length);
+            assertThrows(IllegalArgumentException.class, () -> catalogue.starsAbove(when, where, Double.NaN));
+        }
+    }
+
+    private static double angularDistance(EquatorialCoordinates a, EquatorialCoordinates b) {
+        double cos = Math.sin(a.dec()) * Math.sin(b.dec()) + Math.cos(a.dec()) * Math.cos(b.dec()) * Math.cos(a.ra() - b.ra());
+        return Math.acos(Math.max(-1, Math.min(1, cos)));
+    }
+
+    @Test
+    void asterismAddedTwiceIsKeptOnce() {
+        Asterism asterism = new Asterism(List.of(stars.get(2), stars.get(0)));
+        StarCatalogue catalogue = new StarCatalogue(stars, List.of(asterism, asterism));
+        assertEquals(Set.of(asterism), catalogue.asterisms());
+        assertEquals(List.of(2, 0), catalogue.asterismIndices(asterism));
+        assertThrows(IllegalArgumentException.class, () -> catalogue.asterismIndices(new Asterism(List.of(stars.get(1)))));
+    }
+}
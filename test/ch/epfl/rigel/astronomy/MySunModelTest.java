@@ -6,6 +6,7 @@ import ch.epfl.rigel.math.Angle;
 import org.junit.jupiter.api.Test;
 
 import java.time.*;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -145,4 +146,29 @@ class MySunModelTest {
         assertEquals(mA5, sun5.meanAnomaly(), 1e-5); //6 DECIMALS
         assertEquals(e5, sun5.angularSize(), 1e-6); //6 DECIMALS
     }
-}
\ No newline at end of file
+
+    @Test
+    void atAllGivesTheSameValuesAsAt(){
+        int instants = 1000;
+        double[] days = new double[instants];
+        ZonedDateTime[] whens = new ZonedDateTime[instants];
+        Random random = new Random(2020);
+        for(int i = 0; i < instants; ++i){
+            whens[i] = ZonedDateTime.of(1900 + random.nextInt(200), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1000) * 1_000_000,
+                    ZoneOffset.UTC);
+            days[i] = Epoch.J2010.daysUntil(whens[i]);
+        }
+
+        double[] ra = new double[instants], dec = new double[instants];
+        double[] angularSize = new double[instants], magnitude = new double[instants];
+        SunModel.SUN.atAll(days, 0, instants, ra, dec, angularSize, magnitude);
+        for(int i = 0; i < instants; ++i){
+            Sun expected = SunModel.SUN.at(days[i], new EclipticToEquatorialConversion(whens[i]));
+            assertEquals(expected.equatorialPos().ra(), ra[i]);
+            assertEquals(expected.equatorialPos().dec(), dec[i]);
+            assertEquals(expected.angularSize(), angularSize[i]);
+            assertEquals(expected.magnitude(), magnitude[i]);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Measures the speedup of the parallel HYG loader against the number of threads,
+ * on a synthetic catalogue of two million stars (run with a heap of at least 2 GB).
+ * The numbers of threads can be given as arguments; by default, they are the powers of two up to the number
+ * of available processors. A speedup can only be measured with more than one processor.
+ */
+public final class ParallelHygLoadingBenchmark {
+    private static final int STAR_COUNT = 2_000_000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("synthetic-hyg", ".csv");
+        try{
+            writeSyntheticCatalogue(file);
+            System.out.printf(Locale.ROOT, "%d stars, %.1f MB, %d available processors%n",
+                    STAR_COUNT, Files.size(file) / 1e6, Runtime.getRuntime().availableProcessors());
+
+            double serial = measure(() -> new StarCatalogue.Builder().loadFrom(file, HygDatabaseLoader.INSTANCE));
+            System.out.printf(Locale.ROOT, "serial stream     %8.1f ms%n", serial);
+
+            for(int threads : threadCounts(args)){
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try{
+                    double parallel = measure(() -> HygDatabaseLoader.INSTANCE.load(file, new StarCatalogue.Builder(), pool));
+                    System.out.printf(Locale.ROOT, "%2d thread(s)      %8.1f ms  speedup %.2f%n",
+                            threads, parallel, serial / parallel);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static int[] threadCounts(String[] args){
+        if(args.length > 0){
+            int[] counts = new int[args.length];
+            for(int i = 0; i < args.length; ++i)
+                counts[i] = Integer.parseInt(args[i]);
+            return counts;
+        }
+        int processors = Runtime.getRuntime().availableProcessors();
+        int[] counts = new int[32 - Integer.numberOfLeadingZeros(processors)];
+        for(int i = 0; i < counts.length; ++i)
+            counts[i] = 1 << i;
+        return counts;
+    }
+
+    private static void writeSyntheticCatalogue(Path file) throws IOException {
+        SplittableRandom rng = new SplittableRandom(2020);
+        try(BufferedWriter w = Files.newBufferedWriter(file, US_ASCII)){
+            w.write("id,hip,hd,hr,gl,bf,proper,ra,dec,dist,pmra,pmdec,rv,mag,absmag,spect,ci,x,y,z,vx,vy,vz,rarad,decrad,pmrarad,pmdecrad,bayer,flam,con,comp,comp_primary,base,lum,var,var_min,var_max\n");
+            for(int i = 0; i < STAR_COUNT; ++i){
+                double ra = rng.nextDouble(0, 2 * Math.PI);
+                double dec = rng.nextDouble(-Math.PI / 2, Math.PI / 2);
+                w.write(String.format(Locale.ROOT,
+                        "%d,%d,,,,,,,,,,,,%.3f,,,%.3f,,,,,,,%s,%s,,,,,Ori,1,%d,,,,,%n",
+                        i, i, rng.nextDouble(-1, 12), rng.nextDouble(-0.4, 2), ra, dec, i));
+            }
+        }
+    }
+
+    private static double measure(Load load) throws IOException {
+        load.run();
+        long start = System.nanoTime();
+        for(int i = 0; i < ROUNDS; ++i)
+            load.run();
+        return (System.nanoTime() - start) / 1e6 / ROUNDS;
+    }
+
+    private interface Load {
+        void run() throws IOException;
+    }
+}
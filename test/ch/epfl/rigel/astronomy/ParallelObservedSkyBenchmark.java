@@ -0,0 +1,58 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+
+import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the speedup of the parallel construction of the observed sky against the number of stars,
+ * on synthetic catalogues of five thousand to five million stars (run with a heap of at least 4 GB).
+ */
+public final class ParallelObservedSkyBenchmark {
+    private static final int[] STAR_COUNTS = {5_000, 50_000, 500_000, 5_000_000};
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        ZonedDateTime when = ZonedDateTime.parse("2020-02-17T20:15:00+01:00");
+        GeographicCoordinates where = GeographicCoordinates.ofDeg(6.57, 46.52);
+        StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40));
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        System.out.printf(Locale.ROOT, "%d worker thread(s)%n", pool.getParallelism());
+
+        for(int starCount : STAR_COUNTS){
+            StarCatalogue catalogue = syntheticCatalogue(starCount);
+            double serial = measure(() -> new ObservedSky(when, where, projection, catalogue,
+                    Math.PI, Double.POSITIVE_INFINITY));
+            double parallel = measure(() -> new ObservedSky(when, where, projection, catalogue,
+                    Math.PI, Double.POSITIVE_INFINITY, pool));
+            System.out.printf(Locale.ROOT, "%9d stars  serial %8.2f ms  parallel %8.2f ms  speedup %.2f%n",
+                    starCount, serial, parallel, serial / parallel);
+        }
+    }
+
+    private static StarCatalogue syntheticCatalogue(int starCount){
+        SplittableRandom rng = new SplittableRandom(2020);
+        StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        for(int i = 0; i < starCount; ++i){
+            EquatorialCoordinates pos = EquatorialCoordinates.of(
+                    rng.nextDouble(0, 2 * Math.PI), Math.asin(rng.nextDouble(-1, 1)));
+            builder.addStar(new Star(i, "Star " + i, pos, (float) rng.nextDouble(-1, 12), (float) rng.nextDouble(-0.5, 5)));
+        }
+        return builder.build(StarCatalogue.Storage.ARRAYS);
+    }
+
+    private static double measure(Runnable build){
+        for(int i = 0; i < ROUNDS; ++i)
+            build.run();
+        long start = System.nanoTime();
+        for(int i = 0; i < ROUNDS; ++i)
+            build.run();
+        return (System.nanoTime() - start) / 1e6 / ROUNDS;
+    }
+}
@@ -0,0 +1,78 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.math.Angle;
+
+import java.lang.management.ManagementFactory;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * Measures the time and the memory allocated per instant by the time-dependent setup of a sky (the numbers of days
+ * since J2010 and of julian centuries since J2000, and the local sidereal time, which the conversions are built from),
+ * from a ZonedDateTime and from a number of milliseconds, over one million consecutive instants.
+ */
+public final class TimeBaseBenchmark {
+    private static final int INSTANT_COUNT = 1_000_000;
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int MEASURED_ROUNDS = 20;
+    private static final GeographicCoordinates WHERE = GeographicCoordinates.ofDeg(6.57, 46.52);
+    private static final ZonedDateTime J2000 = ZonedDateTime.of(2000, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    public static void main(String[] args) {
+        ZonedDateTime start = ZonedDateTime.of(2020, 4, 4, 21, 0, 0, 0, ZoneId.of("Europe/Zurich"));
+        long startMillis = start.toInstant().toEpochMilli();
+        // Each instant follows the previous one by a frame of 1/60 s, as when the sky is animated.
+        ZonedDateTime[] whens = new ZonedDateTime[INSTANT_COUNT];
+        for(int i = 0; i < INSTANT_COUNT; ++i)
+            whens[i] = start.plusNanos(16_666_667L * i);
+
+        measure("sidereal time, before", i -> greenwichOnDates(whens[(int) i]));
+        measure("sidereal time, dates", i -> SiderealTime.greenwich(whens[(int) i]));
+        measure("sidereal time, ms", i -> SiderealTime.greenwich(startMillis + 16 * i));
+        measure("time setup, dates", i -> {
+            ZonedDateTime when = whens[(int) i];
+            return Epoch.J2010.daysUntil(when) + Epoch.J2000.julianCenturiesUntil(when) + SiderealTime.local(when, WHERE);
+        });
+        measure("time setup, ms", i -> {
+            long epochMillis = startMillis + 16 * i;
+            return Epoch.J2010.daysUntil(epochMillis) + Epoch.J2000.julianCenturiesUntil(epochMillis)
+                    + SiderealTime.local(epochMillis, WHERE);
+        });
+    }
+
+    // The computation of the greenwich sidereal time on dates, as it was done before the overloads on milliseconds.
+    private static double greenwichOnDates(ZonedDateTime when){
+        ZonedDateTime whenInUTC = when.withZoneSameInstant(ZoneOffset.UTC);
+        ZonedDateTime whenInDaysOnly = whenInUTC.truncatedTo(ChronoUnit.DAYS);
+        double julianCenturies = J2000.until(whenInDaysOnly, ChronoUnit.MILLIS) / (1000.0 * 60 * 60 * 24 * 365.25 * 100);
+        double hours = whenInDaysOnly.until(whenInUTC, ChronoUnit.MILLIS) / (3600.0 * 1000.0);
+        double s0 = (0.000025862 * julianCenturies + 2400.051336) * julianCenturies + 6.697374558;
+        return Angle.normalizePositive(Angle.ofHr(s0 + 1.002737909 * hours));
+    }
+
+    private static void measure(String name, LongToDoubleFunction setup){
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        double sink = 0;
+        for(int r = 0; r < WARMUP_ROUNDS; ++r){
+            for(int i = 0; i < INSTANT_COUNT; ++i)
+                sink += setup.applyAsDouble(i);
+        }
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long start = System.nanoTime();
+        for(int r = 0; r < MEASURED_ROUNDS; ++r){
+            for(int i = 0; i < INSTANT_COUNT; ++i)
+                sink += setup.applyAsDouble(i);
+        }
+        double nsPerInstant = (double) (System.nanoTime() - start) / MEASURED_ROUNDS / INSTANT_COUNT;
+        double bytesPerInstant = (double) (threads.getThreadAllocatedBytes(Thread.currentThread().getId())
+                - allocatedBefore) / MEASURED_ROUNDS / INSTANT_COUNT;
+        System.out.printf(Locale.ROOT, "%-23s %7.1f ns/instant %7.1f bytes/instant (%s)%n",
+                name, nsPerInstant, bytesPerInstant, sink != 0 ? "ok" : "-");
+    }
+}
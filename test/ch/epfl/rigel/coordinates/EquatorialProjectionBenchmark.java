@@ -0,0 +1,51 @@
+package ch.epfl.rigel.coordinates;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Measures the time per star of the projection of unit vectors, one vector at a time and with the loop over
+ * component arrays, on one million random stars.
+ */
+public final class EquatorialProjectionBenchmark {
+    private static final int STAR_COUNT = 1_000_000;
+    private static final int WARMUP_ROUNDS = 50;
+    private static final int MEASURED_ROUNDS = 200;
+
+    public static void main(String[] args) {
+        EquatorialProjection projection = new EquatorialProjection(
+                new EquatorialToHorizontalConversion(ZonedDateTime.of(2020, 4, 4, 0, 0, 0, 0, ZoneOffset.UTC),
+                        GeographicCoordinates.ofDeg(6.57, 46.52)),
+                new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40)));
+
+        SplittableRandom rng = new SplittableRandom(2020);
+        double[] unitVectors = new double[3 * STAR_COUNT];
+        double[] xs = new double[STAR_COUNT], ys = new double[STAR_COUNT], zs = new double[STAR_COUNT];
+        for(int i = 0; i < STAR_COUNT; ++i){
+            EquatorialCoordinates equ = EquatorialCoordinates.of(rng.nextDouble(0, 2 * Math.PI), Math.asin(rng.nextDouble(-1, 1)));
+            EquatorialProjection.unitVector(equ, unitVectors, 3 * i);
+            xs[i] = unitVectors[3 * i];
+            ys[i] = unitVectors[3 * i + 1];
+            zs[i] = unitVectors[3 * i + 2];
+        }
+        double[] positions = new double[2 * STAR_COUNT];
+
+        measure("one vector at a time", () -> {
+            for(int i = 0; i < STAR_COUNT; ++i)
+                projection.apply(unitVectors, 3 * i, positions, 2 * i);
+        });
+        measure("component arrays", () -> projection.apply(xs, ys, zs, 0, STAR_COUNT, positions));
+    }
+
+    private static void measure(String name, Runnable projectAll){
+        for(int i = 0; i < WARMUP_ROUNDS; ++i)
+            projectAll.run();
+        long start = System.nanoTime();
+        for(int i = 0; i < MEASURED_ROUNDS; ++i)
+            projectAll.run();
+        double nsPerStar = (double) (System.nanoTime() - start) / MEASURED_ROUNDS / STAR_COUNT;
+        System.out.printf(Locale.ROOT, "%-22s %6.2f ns/star%n", name, nsPerStar);
+    }
+}
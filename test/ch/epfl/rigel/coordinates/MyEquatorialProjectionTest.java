@@ -0,0 +1,111 @@
+package ch.epfl.rigel.coordinates;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyEquatorialProjectionTest {
+
+    @Test
+    void projectionMatchesConversionFollowedByStereographicProjection() {
+        Random random = new Random(2020);
+        for (int k = 0; k < 50; ++k) {
+            ZonedDateTime when = ZonedDateTime.of(2000 + random.nextInt(40), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), 0, 0, ZoneOffset.UTC);
+            GeographicCoordinates where = GeographicCoordinates.ofDeg(random.nextDouble() * 360 - 180,
+                    random.nextDouble() * 180 - 90);
+            EquatorialToHorizontalConversion equToHor = new EquatorialToHorizontalConversion(when, where);
+            StereographicProjection stereographic = new StereographicProjection(
+                    HorizontalCoordinates.ofDeg(random.nextDouble() * 360, random.nextDouble() * 180 - 90));
+            EquatorialProjection projection = new EquatorialProjection(equToHor, stereographic);
+
+            for (int i = 0; i < 500; ++i) {
+                EquatorialCoordinates equ = EquatorialCoordinates.of(random.nextDouble() * 2 * Math.PI,
+                        Math.asin(2 * random.nextDouble() - 1));
+                CartesianCoordinates expected = stereographic.apply(equToHor.apply(equ));
+                CartesianCoordinates actual = projection.apply(equ);
+
+                double delta = 1e-12 * (1 + expected.x() * expected.x() + expected.y() * expected.y());
+                assertEquals(expected.x(), actual.x(), delta);
+                assertEquals(expected.y(), actual.y(), delta);
+            }
+        }
+    }
+
+    @Test
+    void applyToUnitVectorsWritesAtTheGivenOffsets() {
+        ZonedDateTime when = ZonedDateTime.of(2020, 4, 4, 0, 0, 0, 0, ZoneOffset.UTC);
+        EquatorialProjection projection = new EquatorialProjection(
+                new EquatorialToHorizontalConversion(when, GeographicCoordinates.ofDeg(6.57, 46.52)),
+                new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40)));
+        EquatorialCoordinates equ = EquatorialCoordinates.of(1, 0.3);
+
+        double[] unitVectors = new double[6];
+        EquatorialProjection.unitVector(equ, unitVectors, 3);
+        assertEquals(1, Math.sqrt(unitVectors[3] * unitVectors[3] + unitVectors[4] * unitVectors[4]
+                + unitVectors[5] * unitVectors[5]), 1e-15);
+
+        double[] positions = new double[4];
+        projection.apply(unitVectors, 3, positions, 2);
+        assertEquals(0, positions[0]);
+        assertEquals(0, positions[1]);
+        assertEquals(projection.apply(equ).x(), positions[2]);
+        assertEquals(projection.apply(equ).y(), positions[3]);
+    }
+
+    @Test
+    void applyToComponentArraysGivesTheSamePositions() {
+        ZonedDateTime when = ZonedDateTime.of(2020, 4, 4, 0, 0, 0, 0, ZoneOffset.UTC);
+        EquatorialProjection projection = new EquatorialProjection(
+                new EquatorialToHorizontalConversion(when, GeographicCoordinates.ofDeg(6.57, 46.52)),
+                new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40)));
+
+        Random random = new Random(2020);
+        int count = 1000;
+        double[] unitVectors = new double[3 * count];
+        double[] xs = new double[count], ys = new double[count], zs = new double[count];
+        for (int i = 0; i < count; ++i) {
+            EquatorialCoordinates equ = EquatorialCoordinates.of(random.nextDouble() * 2 * Math.PI,
+                    Math.asin(2 * random.nextDouble() - 1));
+            EquatorialProjection.unitVector(equ, unitVectors, 3 * i);
+            xs[i] = unitVectors[3 * i];
+            ys[i] = unitVectors[3 * i + 1];
+            zs[i] = unitVectors[3 * i + 2];
+        }
+
+        double[] expected = new double[2 * count];
+        for (int i = 0; i < count; ++i)
+            projection.apply(unitVectors, 3 * i, expected, 2 * i);
+
+        double[] range = new double[2 * count];
+        projection.apply(xs, ys, zs, 10, count, range);
+        for (int i = 0; i < 20; ++i)
+            assertEquals(0, range[i]);
+        assertArrayEquals(Arrays.copyOfRange(expected, 20, 2 * count), Arrays.copyOfRange(range, 20, 2 * count));
+
+        int[] indices = {999, 3, 3, 500, 0};
+        double[] gathered = new double[2 * indices.length];
+        projection.apply(xs, ys, zs, indices, 1, indices.length, gathered);
+        assertEquals(0, gathered[0]);
+        assertEquals(0, gathered[1]);
+        for (int k = 1; k < indices.length; ++k) {
+            assertEquals(expected[2 * indices[k]], gathered[2 * k]);
+            assertEquals(expected[2 * indices[k] + 1], gathered[2 * k + 1]);
+        }
+    }
+
+    @Test
+    void equalsAndHashCodeThrow() {
+        ZonedDateTime when = ZonedDateTime.of(2020, 4, 4, 0, 0, 0, 0, ZoneOffset.UTC);
+        EquatorialProjection projection = new EquatorialProjection(
+                new EquatorialToHorizontalConversion(when, GeographicCoordinates.ofDeg(6.57, 46.52)),
+                new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40)));
+        assertThrows(UnsupportedOperationException.class, () -> projection.equals(projection));
+        assertThrows(UnsupportedOperationException.class, projection::hashCode);
+    }
+}
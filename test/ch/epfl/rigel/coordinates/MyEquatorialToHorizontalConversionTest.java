@@ -1,12 +1,14 @@
 package ch.epfl.rigel.coordinates;
 
 import ch.epfl.rigel.math.Angle;
+import ch.epfl.test.TestRandomizer;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -43,4 +45,64 @@ class MyEquatorialToHorizontalConversionTest {
         assertEquals(329.7599372, result4.azDeg(), 1e-4);
         assertEquals(-14.0341582, result4.altDeg(), 1e-5);
     }
+
+    @Test
+    void inverseApplyIsTheInverseOfApply(){
+        ZonedDateTime when = LocalDateTime.of(2020, Month.APRIL, 4, 21, 15).atZone(ZoneId.of("Europe/Zurich"));
+        EquatorialToHorizontalConversion conversion = new EquatorialToHorizontalConversion(when, GeographicCoordinates.ofDeg(6.57, 46.52));
+
+        for(int ra = 0; ra < 24; ra += 3){
+            for(int dec = -80; dec <= 80; dec += 20){
+                EquatorialCoordinates equ = EquatorialCoordinates.of(Angle.ofHr(ra), Angle.ofDeg(dec));
+                EquatorialCoordinates back = conversion.inverseApply(conversion.apply(equ));
+                assertEquals(0, Angle.normalizePositive(back.ra() - equ.ra() + Math.PI) - Math.PI, 1e-9);
+                assertEquals(equ.dec(), back.dec(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void applyAllGivesTheSameCoordinatesAsApply(){
+        var rng = TestRandomizer.newRandom();
+        ZonedDateTime when = LocalDateTime.of(2020, Month.APRIL, 4, 21, 15).atZone(ZoneId.of("Europe/Zurich"));
+        EquatorialToHorizontalConversion conversion = new EquatorialToHorizontalConversion(when, GeographicCoordinates.ofDeg(6.57, 46.52));
+
+        int count = 1000;
+        double[] ra = new double[count], dec = new double[count];
+        for(int i = 0; i < count; ++i){
+            ra[i] = rng.nextDouble(0, 2 * Math.PI);
+            dec[i] = rng.nextDouble(-Math.PI / 2, Math.PI / 2);
+        }
+
+        double[] az = new double[count], alt = new double[count];
+        conversion.applyAll(ra, dec, az, alt, 1, count);
+        assertEquals(0, az[0]);
+        assertEquals(0, alt[0]);
+        for(int i = 1; i < count; ++i){
+            HorizontalCoordinates hor = conversion.apply(EquatorialCoordinates.of(ra[i], dec[i]));
+            assertEquals(hor.az(), az[i]);
+            assertEquals(hor.alt(), alt[i]);
+        }
+
+        double[] backRa = new double[count], backDec = new double[count];
+        conversion.inverseApplyAll(az, alt, backRa, backDec, 1, count);
+        for(int i = 1; i < count; ++i){
+            EquatorialCoordinates equ = conversion.inverseApply(HorizontalCoordinates.of(az[i], alt[i]));
+            assertEquals(equ.ra(), backRa[i]);
+            assertEquals(equ.dec(), backDec[i]);
+        }
+
+        conversion.applyAll(ra, dec, ra, dec, 0, count);
+        assertArrayEquals(Arrays.copyOfRange(az, 1, count), Arrays.copyOfRange(ra, 1, count));
+        assertArrayEquals(Arrays.copyOfRange(alt, 1, count), Arrays.copyOfRange(dec, 1, count));
+    }
+
+    @Test
+    void applyAllFailsOnRangesOutsideTheArrays(){
+        ZonedDateTime when = LocalDateTime.of(2020, Month.APRIL, 4, 21, 15).atZone(ZoneId.of("Europe/Zurich"));
+        EquatorialToHorizontalConversion conversion = new EquatorialToHorizontalConversion(when, GeographicCoordinates.ofDeg(6.57, 46.52));
+        double[] a = new double[10], b = new double[10], c = new double[5];
+        assertThrows(IndexOutOfBoundsException.class, () -> conversion.applyAll(a, b, a, c, 0, 10));
+        assertThrows(IndexOutOfBoundsException.class, () -> conversion.inverseApplyAll(a, b, a, b, 5, 4));
+    }
 }
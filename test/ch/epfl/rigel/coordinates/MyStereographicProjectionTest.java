@@ -148,4 +148,45 @@ class MyStereographicProjectionTest {
             c1.hashCode();
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void applyAllGivesTheSameCoordinatesAsApply(){
+        var rng = TestRandomizer.newRandom();
+        var s = new StereographicProjection(HorizontalCoordinates.ofDeg(rng.nextDouble(0, 360), rng.nextDouble(-90, 90)));
+
+        int count = 1000;
+        double[] az = new double[count], alt = new double[count];
+        for(int i = 0; i < count; ++i){
+            az[i] = rng.nextDouble(0, 2 * Math.PI);
+            alt[i] = rng.nextDouble(-Math.PI / 2, Math.PI / 2);
+        }
+
+        double[] xy = new double[2 * count];
+        s.applyAll(az, alt, xy, 1, count);
+        assertEquals(0, xy[0]);
+        assertEquals(0, xy[1]);
+        for(int i = 1; i < count; ++i){
+            CartesianCoordinates c = s.apply(HorizontalCoordinates.of(az[i], alt[i]));
+            assertEquals(c.x(), xy[2 * i]);
+            assertEquals(c.y(), xy[2 * i + 1]);
+        }
+
+        xy[2] = 0;
+        xy[3] = 0;
+        double[] backAz = new double[count], backAlt = new double[count];
+        s.inverseApplyAll(xy, backAz, backAlt, 1, count);
+        for(int i = 1; i < count; ++i){
+            HorizontalCoordinates hor = s.inverseApply(CartesianCoordinates.of(xy[2 * i], xy[2 * i + 1]));
+            assertEquals(hor.az(), backAz[i]);
+            assertEquals(hor.alt(), backAlt[i]);
+        }
+    }
+
+    @Test
+    void applyAllFailsOnRangesOutsideTheArrays(){
+        var s = new StereographicProjection(HorizontalCoordinates.ofDeg(30, 0));
+        double[] az = new double[10], alt = new double[10];
+        assertThrows(IndexOutOfBoundsException.class, () -> s.applyAll(az, alt, new double[19], 0, 10));
+        assertThrows(IndexOutOfBoundsException.class, () -> s.inverseApplyAll(new double[20], az, alt, 0, 11));
+    }
+}
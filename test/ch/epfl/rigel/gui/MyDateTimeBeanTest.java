@@ -0,0 +1,79 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.astronomy.HygDatabaseLoader;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyDateTimeBeanTest {
+    private static final ZonedDateTime ZDT_SEMESTER_START = ZonedDateTime.of(
+            LocalDate.of(2020, Month.FEBRUARY, 17),
+            LocalTime.of(13, 15),
+            ZoneId.of("Europe/Zurich"));
+
+    @Test
+    void setZonedDateTimeChangesTheZonedDateTimeOnce(){
+        DateTimeBean bean = new DateTimeBean();
+        bean.setZonedDateTime(ZDT_SEMESTER_START);
+
+        int[] invalidations = new int[1];
+        bean.zonedDateTimeProperty().addListener(o -> ++invalidations[0]);
+
+        // The sky of each frame of the animation is requested once, when the zoned date time is invalidated.
+        TimeAccelerator accelerator = TimeAccelerator.discrete(60, Duration.ofMinutes(10));
+        for(int frame = 1; frame <= 30; ++frame){
+            bean.setZonedDateTime(accelerator.adjust(bean.getZonedDateTime(), 1_000_000_000L));
+            assertEquals(frame, invalidations[0]);
+            assertEquals(bean.getZonedDateTime(), bean.zonedDateTimeProperty().get());
+        }
+    }
+
+    @Test
+    void setZonedDateTimeRequestsOneSkyPerStep() throws IOException {
+        StarCatalogue catalogue;
+        try(InputStream hs = getClass().getResourceAsStream("/hygdata_v3.csv")){
+            catalogue = new StarCatalogue.Builder().loadFrom(hs, HygDatabaseLoader.INSTANCE).build();
+        }
+        DateTimeBean dateTimeBean = new DateTimeBean();
+        dateTimeBean.setZonedDateTime(ZDT_SEMESTER_START);
+        ObserverLocationBean observerLocationBean = new ObserverLocationBean();
+        observerLocationBean.setCoordinates(GeographicCoordinates.ofDeg(6.57, 46.52));
+        ViewingParametersBean viewingParametersBean = new ViewingParametersBean();
+        viewingParametersBean.setCenter(HorizontalCoordinates.ofDeg(180, 42));
+        viewingParametersBean.setFieldOfViewDeg(70);
+
+        SkyCanvasManager manager =
+                new SkyCanvasManager(catalogue, dateTimeBean, observerLocationBean, viewingParametersBean);
+        long initialRequestCount = manager.requestCount();
+
+        TimeAccelerator accelerator = TimeAccelerator.discrete(60, Duration.ofMinutes(10));
+        for(int step = 1; step <= 30; ++step){
+            dateTimeBean.setZonedDateTime(accelerator.adjust(dateTimeBean.getZonedDateTime(), 1_000_000_000L));
+            assertEquals(initialRequestCount + step, manager.requestCount());
+        }
+    }
+
+    @Test
+    void settingOnePartChangesTheZonedDateTime(){
+        DateTimeBean bean = new DateTimeBean();
+        assertNull(bean.zonedDateTimeProperty().get());
+        bean.setDate(ZDT_SEMESTER_START.toLocalDate());
+        bean.setTime(ZDT_SEMESTER_START.toLocalTime());
+        assertNull(bean.zonedDateTimeProperty().get());
+        bean.setZone(ZDT_SEMESTER_START.getZone());
+        assertEquals(ZDT_SEMESTER_START, bean.zonedDateTimeProperty().get());
+
+        bean.setTime(LocalTime.of(21, 0));
+        assertEquals(ZDT_SEMESTER_START.withHour(21).withMinute(0), bean.zonedDateTimeProperty().get());
+        bean.setZone(ZoneOffset.UTC);
+        assertEquals(ZonedDateTime.of(ZDT_SEMESTER_START.toLocalDate(), LocalTime.of(21, 0), ZoneOffset.UTC),
+                bean.zonedDateTimeProperty().get());
+    }
+}